@@ -2,6 +2,7 @@ package com.hr_management.Controller;
 
 import com.hr_management.Entity.PendingSignup;
 import com.hr_management.Entity.User;
+import com.hr_management.Entity.UserStatus;
 import com.hr_management.Repository.UserRepository;
 import com.hr_management.Util.JwtUtil;
 import com.hr_management.service.EmailService;
@@ -10,10 +11,15 @@ import com.hr_management.Repository.PasswordResetTokenRepository;
 import com.hr_management.service.UserService;
 import com.hr_management.dto.ReportingPersonDTO;
 import com.hr_management.dto.UserDTO;
+import com.hr_management.dto.UserListItem;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Email;
@@ -41,6 +47,12 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final int LIST_CHUNK_SIZE = 500;
+    private static final int MAX_LIST_PAGE_SIZE = 1000;
+
     @GetMapping("/reporting-persons")
     public ResponseEntity<?> getReportingPersons(@RequestParam String role, @RequestParam(required = false) String department) {
         try {
@@ -51,11 +63,50 @@ public class AuthController {
         }
     }
 
+    // Slim user listing in id order. With limit it returns one keyset page and, when the page is full,
+    // the id to pass as afterId next in X-Next-After-Id; without it the whole listing is streamed as a
+    // JSON array, read LIST_CHUNK_SIZE rows at a time so memory stays flat however many users exist.
     @GetMapping("/users")
-    public ResponseEntity<?> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(@RequestParam(defaultValue = "0") long afterId,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String department,
+                                         @RequestParam(required = false) String role,
+                                         @RequestParam(required = false) String status) {
         try {
-            List<User> users = userRepository.findAll();
-            return ResponseEntity.ok(users);
+            if (status != null && !status.isBlank()) {
+                // An unknown status is rejected here rather than halfway through a streamed response
+                UserStatus.parse(status);
+            }
+            if (limit != null) {
+                int pageSize = Math.max(1, Math.min(limit, MAX_LIST_PAGE_SIZE));
+                List<UserListItem> page = userService.getUserListPage(afterId, department, role, status, pageSize);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (page.size() == pageSize) {
+                    response.header("X-Next-After-Id", String.valueOf(page.get(page.size() - 1).getId()));
+                }
+                return response.body(page);
+            }
+            StreamingResponseBody body = out -> {
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.writeStartArray();
+                    long lastId = afterId;
+                    List<UserListItem> chunk;
+                    do {
+                        chunk = userService.getUserListPage(lastId, department, role, status, LIST_CHUNK_SIZE);
+                        for (UserListItem item : chunk) {
+                            generator.writeObject(item);
+                        }
+                        generator.flush();
+                        if (!chunk.isEmpty()) {
+                            lastId = chunk.get(chunk.size() - 1).getId();
+                        }
+                    } while (chunk.size() == LIST_CHUNK_SIZE);
+                    generator.writeEndArray();
+                }
+            };
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(new ErrorResponse("Failed to fetch users: " + e.getMessage()));
         }
@@ -95,7 +146,7 @@ public class AuthController {
         User user = optionalUser.get();
 
         // Check status
-        if (!user.getStatus().equals("ACTIVE")) {
+        if (user.getStatus() != UserStatus.ACTIVE) {
             return ResponseEntity.badRequest().body(new ErrorResponse("Account not approved or rejected"));
         }
 
@@ -145,9 +196,7 @@ public class AuthController {
             return ResponseEntity.badRequest().body(new ErrorResponse("Passwords do not match"));
         }
 
-        User user = resetToken.getUser();
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        userRepository.save(user);
+        userService.resetPassword(resetToken.getUser().getId(), request.getPassword());
 
         tokenRepository.delete(resetToken);
         return ResponseEntity.ok(new SuccessResponse("Password reset successfully"));
@@ -1,14 +1,20 @@
 package com.hr_management.Controller;
 
 import com.hr_management.Entity.*;
+import com.hr_management.dto.AbsenceDay;
+import com.hr_management.dto.CurrentUserSummary;
 import com.hr_management.service.DepartmentService;
 import com.hr_management.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.HashMap;
 import java.util.List;
@@ -35,6 +41,9 @@ class EmployeeDTO {
 @RequestMapping("/api")
 public class DepartmentController {
 
+    private static final int DEFAULT_CALENDAR_DAYS = 90;
+    private static final int MAX_CALENDAR_DAYS = 366;
+
     @Autowired
     private DepartmentService departmentService;
 
@@ -95,54 +104,117 @@ public class DepartmentController {
         }
     }
 
+    // Body: {"minStaffing": n}; null or 0 removes the rule
+    @PutMapping("/hr/departments/{deptId}/min-staffing")
+    @PreAuthorize("hasAnyRole('HR', 'DIRECTOR')")
+    public ResponseEntity<Map<String, Object>> updateMinStaffing(@PathVariable Long deptId, @RequestBody Map<String, Integer> body) {
+        if (departmentService.getDepartmentById(deptId).isEmpty()) {
+            return ResponseEntity.status(404).body(Collections.singletonMap("message", "Department not found with id: " + deptId));
+        }
+        try {
+            Department department = departmentService.updateMinStaffing(deptId, body.get("minStaffing"));
+            Map<String, Object> response = new HashMap<>();
+            response.put("id", department.getId());
+            response.put("name", department.getName());
+            response.put("minStaffing", department.getMinStaffing());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Collections.singletonMap("message",
+                    "Failed to update minimum staffing: " + e.getMessage()));
+        }
+    }
+
+    // Per-day absent user ids and counts; defaults to the 90 days from today. Managers outside HR and
+    // DIRECTOR see only their own department, and a PROJECT_MANAGER only their direct reports.
+    @GetMapping("/hr/departments/{deptId}/absence-calendar")
+    @PreAuthorize("hasAnyRole('HR', 'DIRECTOR', 'ASSISTANT_DIRECTOR', 'PROJECT_MANAGER')")
+    public ResponseEntity<Map<String, Object>> getAbsenceCalendar(
+            @PathVariable Long deptId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(DEFAULT_CALENDAR_DAYS - 1);
+        if (end.isBefore(start) || ChronoUnit.DAYS.between(start, end) >= MAX_CALENDAR_DAYS) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message",
+                    "to must be on or after from and at most " + MAX_CALENDAR_DAYS + " days later"));
+        }
+        try {
+            CurrentUserSummary currentUser = userService.getCurrentUserSummary();
+            String userRole = currentUser.getRole();
+            if (!"HR".equals(userRole) && !"DIRECTOR".equals(userRole) && !deptId.equals(currentUser.getDepartmentId())) {
+                return ResponseEntity.status(403).body(Collections.singletonMap("message",
+                        "You can only view the absence calendar of your own department"));
+            }
+            List<AbsenceDay> days = departmentService.getAbsenceCalendar(deptId, currentUser.getId(), userRole, start, end);
+            Map<String, Object> response = new HashMap<>();
+            response.put("departmentId", deptId);
+            response.put("from", start);
+            response.put("to", end);
+            response.put("days", days);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Collections.singletonMap("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Collections.singletonMap("message",
+                    "Failed to build absence calendar: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/hr/departments/{deptId}/employees")
     @PreAuthorize("hasAnyRole('HR', 'DIRECTOR')")
-    public ResponseEntity<List<EmployeeDTO>> getEmployeesInDepartment(@PathVariable Long deptId) {
+    public ResponseEntity<List<EmployeeDTO>> getEmployeesInDepartment(
+            @PathVariable Long deptId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             String username = authentication.getName();
-            User currentUser = userService.getCurrentUser();
+            CurrentUserSummary currentUser = userService.getCurrentUserSummary();
             String userRole = currentUser.getRole();
             // Use department ID for comparison
-            Long userDepartmentId = currentUser.getDepartmentEntity() != null 
-                ? currentUser.getDepartmentEntity().getId() 
-                : null;
+            Long userDepartmentId = currentUser.getDepartmentId();
 
             Optional<Department> departmentOpt = departmentService.getDepartmentById(deptId);
             if (departmentOpt.isEmpty()) {
                 return ResponseEntity.status(404).body(List.of());
             }
 
-            // Fetch employees, filtered by reportingTo for PROJECT_MANAGER
-            List<User> employees = departmentService.getEmployeesByDepartmentId(deptId, currentUser.getId(), userRole);
+            // Fetch employees, filtered by reportingTo for PROJECT_MANAGER; paged when page/size are given
+            List<User> employees = (page != null || size != null)
+                    ? departmentService.getEmployeesByDepartmentId(deptId, currentUser.getId(), userRole,
+                            page != null ? Math.max(page, 0) : 0, size != null ? Math.max(1, Math.min(size, 500)) : 50)
+                    : departmentService.getEmployeesByDepartmentId(deptId, currentUser.getId(), userRole);
+
+            // All approved leaves for the page of employees in one query
+            Map<Long, List<LeaveApplication>> leavesByUser = departmentService.getApprovedLeavesByUserIds(
+                    employees.stream().map(User::getId).collect(Collectors.toList()), from, to);
+
             List<EmployeeDTO> employeeDTOs = employees.stream().map(employee -> {
                 EmployeeDTO dto = new EmployeeDTO();
                 dto.setId(employee.getId());
                 dto.setFullName(employee.getFullName());
                 dto.setRole(employee.getRole());
-                List<LeaveApplication> leaveApplications = departmentService.getLeaveApplicationsByUserId(employee.getId());
+                List<LeaveApplication> leaveApplications = leavesByUser.getOrDefault(employee.getId(), List.of());
                 List<LeaveApplicationDTO> leaveDTOs = leaveApplications.stream().map(leave -> {
                     LeaveApplicationDTO leaveDTO = new LeaveApplicationDTO();
                     leaveDTO.setId(leave.getId());
                     leaveDTO.setUserName(leave.getUser().getUsername());
-                    String leaveType = leave.getLeaveType();
-                    if ("CL".equalsIgnoreCase(leaveType)) {
-                        leaveType = "CASUAL";
-                    } else if ("EL".equalsIgnoreCase(leaveType)) {
-                        leaveType = "EARNED";
-                    } else if ("PL".equalsIgnoreCase(leaveType)) {
-                        leaveType = "PATERNITY";
-                    } else if ("ML".equalsIgnoreCase(leaveType)) {
-                        leaveType = "MATERNITY";
-                    } else if ("HALF-DAY".equalsIgnoreCase(leaveType)) {
-                        leaveType = "CASUAL";
-                        leaveDTO.setHalfDay(true);
-                    }
-                    leaveDTO.setLeaveType(leaveType.toUpperCase());
+                    String leaveType = switch (leave.getLeaveType()) {
+                        case CL -> "CASUAL";
+                        case EL -> "EARNED";
+                        case PL -> "PATERNITY";
+                        case ML -> "MATERNITY";
+                        default -> leave.getLeaveType().name();
+                    };
+                    leaveDTO.setLeaveType(leaveType);
                     leaveDTO.setStartDate(leave.getStartDate());
                     leaveDTO.setEndDate(leave.getEndDate());
                     leaveDTO.setReason(leave.getReason());
-                    leaveDTO.setStatus(leave.getStatus());
+                    leaveDTO.setStatus(leave.getStatus().name());
                     leaveDTO.setAppliedOn(leave.getAppliedOn());
                     leaveDTO.setRemainingLeaves((int) leave.getRemainingLeaves());
                     leaveDTO.setHalfDay(leave.isHalfDay());
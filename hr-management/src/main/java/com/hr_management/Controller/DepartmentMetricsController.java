@@ -2,7 +2,7 @@ package com.hr_management.Controller;
 
 import com.hr_management.Entity.Department;
 import com.hr_management.Entity.DepartmentMetrics;
-import com.hr_management.Entity.User;
+import com.hr_management.dto.CurrentUserSummary;
 import com.hr_management.service.DepartmentService;
 import com.hr_management.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,7 +45,7 @@ public class DepartmentMetricsController {
             // Get the current user and their role
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             String username = authentication.getName();
-            User currentUser = userService.getCurrentUser();
+            CurrentUserSummary currentUser = userService.getCurrentUserSummary();
             String userRole = currentUser.getRole();
             String userDepartment = currentUser.getDepartment();
 
@@ -1,15 +1,148 @@
 package com.hr_management.Controller;
 
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.service.BulkImportService;
+import com.hr_management.service.LeaveAccrualJob;
+import com.hr_management.service.LeaveExportService;
+import com.hr_management.service.LeaveUsageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/hr")
 @CrossOrigin(origins = "http://localhost:5173")
 public class HrController {
+
+    @Autowired
+    private LeaveUsageService leaveUsageService;
+
+    @Autowired
+    private LeaveAccrualJob leaveAccrualJob;
+
+    @Autowired
+    private LeaveExportService leaveExportService;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
     @GetMapping("/user") // Adjust method and path as needed
     public ResponseEntity<?> getUser() {
         // Your logic here
         return ResponseEntity.ok("User data");
     }
-}
\ No newline at end of file
+
+    @PostMapping("/leave-usage/reconcile")
+    @PreAuthorize("hasAnyRole('HR', 'DIRECTOR')")
+    public ResponseEntity<?> reconcileLeaveUsage(@RequestParam(required = false) Integer year) {
+        try {
+            Map<String, Object> report = leaveUsageService.reconcile(year != null ? year : LocalDate.now().getYear());
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Collections.singletonMap("message", "An error occurred: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/leave-accrual/run")
+    @PreAuthorize("hasAnyRole('HR', 'DIRECTOR')")
+    public ResponseEntity<?> runLeaveAccrual(@RequestParam(defaultValue = "false") boolean resume) {
+        // Runs synchronously; the status endpoint can be polled from another request meanwhile
+        if (!leaveAccrualJob.run(LocalDate.now(), resume)) {
+            return ResponseEntity.status(409)
+                    .body(Collections.singletonMap("message", "Leave accrual job is already running"));
+        }
+        return ResponseEntity.ok(leaveAccrualJob.getStatus());
+    }
+
+    // Payroll export of leaves overlapping [from, to], e.g. ?from=2025-06-01&to=2025-06-30&types=LWP,HALF_DAY_LWP.
+    // status defaults to APPROVED, status=ALL exports every status; format is csv (default) or ndjson.
+    @GetMapping("/leaves/export")
+    @PreAuthorize("hasAnyRole('HR', 'DIRECTOR')")
+    public ResponseEntity<?> exportLeaves(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                          @RequestParam(defaultValue = "csv") String format,
+                                          @RequestParam(defaultValue = "APPROVED") String status,
+                                          @RequestParam(required = false) List<String> types) {
+        LeaveStatus statusFilter;
+        List<LeaveType> leaveTypes;
+        try {
+            leaveExportService.validateRequest(from, to, format);
+            statusFilter = "ALL".equalsIgnoreCase(status) ? null : LeaveStatus.parse(status);
+            leaveTypes = types == null ? null
+                    : types.stream().filter(type -> !type.isBlank()).map(LeaveType::parse).collect(Collectors.toList());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", e.getMessage()));
+        }
+        boolean csv = "csv".equalsIgnoreCase(format);
+        StreamingResponseBody body = out -> leaveExportService.export(from, to, statusFilter, leaveTypes, format, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"leaves-" + from + "-" + to + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+
+    // Bulk imports; each takes a multipart "file" and returns counts plus the first rejected rows. Super
+    // Admins may import too, and only their imports may create Super Admins and Administration HRs.
+    @PostMapping("/import/users")
+    @PreAuthorize("hasAnyRole('HR', 'DIRECTOR', 'SUPER_ADMIN')")
+    public ResponseEntity<?> importUsers(@RequestParam("file") MultipartFile file, Authentication authentication) {
+        return runImport(file, "users", authentication);
+    }
+
+    @PostMapping("/import/leaves")
+    @PreAuthorize("hasAnyRole('HR', 'DIRECTOR', 'SUPER_ADMIN')")
+    public ResponseEntity<?> importLeaves(@RequestParam("file") MultipartFile file, Authentication authentication) {
+        return runImport(file, "leaves", authentication);
+    }
+
+    @PostMapping("/import/dump")
+    @PreAuthorize("hasAnyRole('HR', 'DIRECTOR', 'SUPER_ADMIN')")
+    public ResponseEntity<?> importDump(@RequestParam("file") MultipartFile file, Authentication authentication) {
+        return runImport(file, "dump", authentication);
+    }
+
+    private ResponseEntity<?> runImport(MultipartFile file, String kind, Authentication authentication) {
+        boolean privileged = authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("ROLE_SUPER_ADMIN"));
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", "An import file is required"));
+        }
+        try {
+            Map<String, Object> report = switch (kind) {
+                case "users" -> bulkImportService.importUsersCsv(file, privileged);
+                case "leaves" -> bulkImportService.importLeavesCsv(file);
+                default -> bulkImportService.importDump(file, privileged);
+            };
+            return ResponseEntity.ok(report);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Collections.singletonMap("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Collections.singletonMap("message", "An error occurred: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/leave-accrual/status")
+    @PreAuthorize("hasAnyRole('HR', 'DIRECTOR')")
+    public ResponseEntity<?> getLeaveAccrualStatus() {
+        return ResponseEntity.ok(leaveAccrualJob.getStatus());
+    }
+}
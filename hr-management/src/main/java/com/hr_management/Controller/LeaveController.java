@@ -108,6 +108,18 @@ public class LeaveController {
         }
     }
 
+    @GetMapping(value = "/pending/subtree", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<LeaveApplicationDTO>> getSubtreePendingLeavesForCurrentUser() {
+        logger.info("Fetching pending leave applications under current user");
+        try {
+            List<LeaveApplicationDTO> leaves = leaveService.getSubtreePendingLeavesForCurrentUser();
+            return ResponseEntity.ok(leaves);
+        } catch (Exception e) {
+            logger.error("Error fetching subtree pending leaves: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
+        }
+    }
+
     @GetMapping(value = "/cancellable", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<List<LeaveApplicationDTO>> getCancellableLeavesForCurrentUser() {
         logger.info("Fetching cancellable leave applications for current user");
@@ -170,6 +182,40 @@ public class LeaveController {
         }
     }
 
+    // Body: {"ids": [1, 2, 3]}. Answers 200 with a result per id even when some of them failed.
+    @PostMapping(value = "/approve-batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> approveLeaves(@RequestBody Map<String, List<Long>> request) {
+        logger.info("Approving leave applications in batch: {}", request.get("ids"));
+        try {
+            return ResponseEntity.ok(batchResponse(leaveService.approveLeaves(request.get("ids"))));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to approve leaves in batch: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Collections.singletonMap("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/reject-batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> rejectLeaves(@RequestBody Map<String, List<Long>> request) {
+        logger.info("Rejecting leave applications in batch: {}", request.get("ids"));
+        try {
+            return ResponseEntity.ok(batchResponse(leaveService.rejectLeaves(request.get("ids"))));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reject leaves in batch: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Collections.singletonMap("message", e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> batchResponse(List<Map<String, Object>> results) {
+        long succeeded = results.stream().filter(result -> Boolean.TRUE.equals(result.get("success"))).count();
+        Map<String, Object> response = new HashMap<>();
+        response.put("succeeded", succeeded);
+        response.put("failed", results.size() - succeeded);
+        response.put("results", results);
+        return response;
+    }
+
     @PostMapping(value = "/{id}/cancel", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, String>> cancelLeave(@PathVariable Long id) {
         logger.info("Cancelling leave application ID: {}", id);
@@ -3,6 +3,7 @@ package com.hr_management.Controller;
 import com.hr_management.Entity.Department;
 import com.hr_management.Entity.PendingSignup; // Add import
 import com.hr_management.Entity.User;
+import com.hr_management.dto.CurrentUserSummary;
 import com.hr_management.service.DepartmentService;
 import com.hr_management.service.UserService;
 import com.hr_management.dto.UserDTO;
@@ -46,10 +47,10 @@ public class UserController {
             userDTO.setEmail(user.getEmail());
             userDTO.setDepartment(user.getDepartment());
             userDTO.setRole(user.getRole());
-            userDTO.setGender(user.getGender());
+            userDTO.setGender(user.getGender() != null ? user.getGender().name() : null);
             userDTO.setJoinDate(user.getJoinDate());
             userDTO.setEmployeeId(user.getEmployeeId());
-            userDTO.setStatus(user.getStatus());
+            userDTO.setStatus(user.getStatus().name());
             userDTO.setDisapproveReason(user.getDisapproveReason());
             if (user.getReportingTo() != null) {
                 userDTO.setReportingToId(user.getReportingTo().getId());
@@ -70,7 +71,7 @@ public class UserController {
     @GetMapping("/departments")
     public ResponseEntity<List<Department>> getAllDepartments() {
         logger.info("Fetching all departments");
-        List<Department> departments = departmentService.getAllDepartments();
+        List<Department> departments = departmentService.getAllDepartmentsCached();
         return ResponseEntity.ok(departments);
     }
 
@@ -79,7 +80,7 @@ public class UserController {
         logger.info("Fetching department with id: {}", id);
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
-        User currentUser = userService.getCurrentUser();
+        CurrentUserSummary currentUser = userService.getCurrentUserSummary();
         String userRole = currentUser.getRole();
         String userDepartment = currentUser.getDepartment();
 
@@ -114,10 +115,10 @@ public class UserController {
                 dto.setEmail(user.getEmail());
                 dto.setDepartment(user.getDepartment());
                 dto.setRole(user.getRole());
-                dto.setGender(user.getGender());
+                dto.setGender(user.getGender() != null ? user.getGender().name() : null);
                 dto.setJoinDate(user.getJoinDate());
                 dto.setEmployeeId(user.getEmployeeId());
-                dto.setStatus(user.getStatus());
+                dto.setStatus(user.getStatus().name());
                 dto.setDisapproveReason(user.getDisapproveReason());
                 if (user.getReportingTo() != null) {
                     dto.setReportingToId(user.getReportingTo().getId());
@@ -149,6 +150,36 @@ public class UserController {
         }
     }
 
+    @PatchMapping("/users/{id}/reporting-to")
+    @PreAuthorize("hasAnyRole('HR', 'DIRECTOR')")
+    public ResponseEntity<?> changeReportingTo(@PathVariable Long id, @RequestBody Map<String, Long> update) {
+        logger.info("Changing reporting person for user id: {}", id);
+        try {
+            userService.changeReportingTo(id, update.get("reportingToId"));
+            return ResponseEntity.ok(Collections.singletonMap("message", "Reporting person updated successfully"));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Failed to change reporting person: {}", e.getMessage());
+            return ResponseEntity.status(400).body(Collections.singletonMap("message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Unexpected error changing reporting person: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Collections.singletonMap("message", "An error occurred: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/users/subtree/headcount")
+    public ResponseEntity<?> getSubtreeHeadcount() {
+        return ResponseEntity.ok(Collections.singletonMap("headcount", userService.getSubtreeHeadcount()));
+    }
+
+    @GetMapping("/users/{id}/ancestors")
+    public ResponseEntity<?> getAncestors(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(userService.getAncestors(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Collections.singletonMap("message", e.getMessage()));
+        }
+    }
+
     @GetMapping("/users/subordinates")
     public ResponseEntity<List<User>> getSubordinates() {
         logger.info("Fetching subordinates for current user");
@@ -8,7 +8,7 @@ import jakarta.persistence.*;
 public class Department {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @JsonProperty("id")
     private Long id;
 
@@ -19,6 +19,11 @@ public class Department {
     @JsonProperty("description")
     private String description;
 
+    // Employees that must be present on every working day; null or 0 means no rule
+    @Column(name = "min_staffing")
+    @JsonProperty("minStaffing")
+    private Integer minStaffing;
+
     @Transient
     @JsonProperty("employeeCount")
     private int employeeCount;
@@ -52,6 +57,14 @@ public class Department {
         this.description = description;
     }
 
+    public Integer getMinStaffing() {
+        return minStaffing;
+    }
+
+    public void setMinStaffing(Integer minStaffing) {
+        this.minStaffing = minStaffing;
+    }
+
     public int getEmployeeCount() {
         return employeeCount;
     }
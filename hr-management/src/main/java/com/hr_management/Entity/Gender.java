@@ -0,0 +1,44 @@
+package com.hr_management.Entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Locale;
+
+// User gender, stored as a one-letter code by GenderConverter. Signup sends "Male", "Female" or "Other".
+public enum Gender {
+    MALE("M"),
+    FEMALE("F"),
+    OTHER("O");
+
+    private final String code;
+
+    Gender(String code) {
+        this.code = code;
+    }
+
+    public String code() { return code; }
+
+    public static Gender fromCode(String code) {
+        return switch (code) {
+            case "M" -> MALE;
+            case "F" -> FEMALE;
+            case "O" -> OTHER;
+            default -> throw new IllegalArgumentException("Unknown gender code " + code);
+        };
+    }
+
+    // Accepts the name in any case or the stored code; blank means not given
+    @JsonCreator
+    public static Gender parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        for (Gender gender : values()) {
+            if (gender.name().equals(normalized) || gender.code.equals(normalized)) {
+                return gender;
+            }
+        }
+        throw new IllegalArgumentException("Unknown gender " + value);
+    }
+}
@@ -0,0 +1,18 @@
+package com.hr_management.Entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class GenderConverter implements AttributeConverter<Gender, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Gender gender) {
+        return gender != null ? gender.code() : null;
+    }
+
+    @Override
+    public Gender convertToEntityAttribute(String code) {
+        return code != null ? Gender.fromCode(code) : null;
+    }
+}
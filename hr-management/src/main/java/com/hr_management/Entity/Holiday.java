@@ -9,7 +9,7 @@ import java.time.LocalDateTime;
 public class Holiday {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(nullable = false)
@@ -5,11 +5,22 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "leave_applications")
+@Table(name = "leave_applications", indexes = {
+        // Covers per-employee status lookups and the approver dashboard counts
+        @Index(name = "idx_leave_applications_user_status", columnList = "user_id, status"),
+        // Per-type usage over a date window (CL/EL/ML/PL limits when applying)
+        @Index(name = "idx_leave_applications_user_type_start", columnList = "user_id, leave_type, start_date"),
+        // Approver inbox, digest and the cancellable-leave window
+        @Index(name = "idx_leave_applications_approver_status_end", columnList = "approver_id, status, end_date"),
+        // Leaves of one status on or around a date (who is on leave, absence windows)
+        @Index(name = "idx_leave_applications_status_start", columnList = "status, start_date"),
+        // Date-range overlap across all statuses (exports, calendars)
+        @Index(name = "idx_leave_applications_start_end", columnList = "start_date, end_date")
+})
 public class LeaveApplication {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @ManyToOne
@@ -17,12 +28,14 @@ public class LeaveApplication {
     @JsonBackReference // Prevent serialization of user to avoid recursion
     private User user;
 
-    private String leaveType;
+    @Column(length = 2)
+    private LeaveType leaveType;
     private LocalDate startDate;
     private LocalDate endDate;
     private String reason;
     private boolean isHalfDay;
-    private String status;
+    @Column(length = 1)
+    private LeaveStatus status;
     private LocalDate appliedOn;
     private double remainingLeaves;
 
@@ -34,8 +47,8 @@ public class LeaveApplication {
     public void setId(Long id) { this.id = id; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
-    public String getLeaveType() { return leaveType; }
-    public void setLeaveType(String leaveType) { this.leaveType = leaveType; }
+    public LeaveType getLeaveType() { return leaveType; }
+    public void setLeaveType(LeaveType leaveType) { this.leaveType = leaveType; }
     public LocalDate getStartDate() { return startDate; }
     public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
     public LocalDate getEndDate() { return endDate; }
@@ -44,8 +57,8 @@ public class LeaveApplication {
     public void setReason(String reason) { this.reason = reason; }
     public boolean isHalfDay() { return isHalfDay; }
     public void setHalfDay(boolean halfDay) { isHalfDay = halfDay; }
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public LeaveStatus getStatus() { return status; }
+    public void setStatus(LeaveStatus status) { this.status = status; }
     public LocalDate getAppliedOn() { return appliedOn; }
     public void setAppliedOn(LocalDate appliedOn) { this.appliedOn = appliedOn; }
     public double getRemainingLeaves() { return remainingLeaves; }
@@ -6,6 +6,11 @@ import java.util.Map;
 
 @Embeddable
 public class LeaveBalance {
+    // Earned leave granted per half-year; apply-time checks and the nightly accrual both read these
+    public static final double EL_FIRST_HALF = 10.0;
+    public static final double EL_SECOND_HALF = 10.0;
+    public static final double EL_TOTAL_ANNUAL = EL_FIRST_HALF + EL_SECOND_HALF;
+
     private double casualLeaveUsed = 0.0;
     private double casualLeaveRemaining = 0.0;
 
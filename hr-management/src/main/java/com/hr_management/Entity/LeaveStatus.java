@@ -0,0 +1,46 @@
+package com.hr_management.Entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Locale;
+
+// Leave application statuses, stored as a one-letter code by LeaveStatusConverter
+public enum LeaveStatus {
+    PENDING("P"),
+    APPROVED("A"),
+    REJECTED("R"),
+    CANCELLED("C");
+
+    private final String code;
+
+    LeaveStatus(String code) {
+        this.code = code;
+    }
+
+    public String code() { return code; }
+
+    public static LeaveStatus fromCode(String code) {
+        return switch (code) {
+            case "P" -> PENDING;
+            case "A" -> APPROVED;
+            case "R" -> REJECTED;
+            case "C" -> CANCELLED;
+            default -> throw new IllegalArgumentException("Unknown leave status code " + code);
+        };
+    }
+
+    // Accepts the name in any case or the stored code
+    @JsonCreator
+    public static LeaveStatus parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        for (LeaveStatus status : values()) {
+            if (status.name().equals(normalized) || status.code.equals(normalized)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown leave status " + value);
+    }
+}
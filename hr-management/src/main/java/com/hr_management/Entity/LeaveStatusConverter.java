@@ -0,0 +1,18 @@
+package com.hr_management.Entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class LeaveStatusConverter implements AttributeConverter<LeaveStatus, String> {
+
+    @Override
+    public String convertToDatabaseColumn(LeaveStatus status) {
+        return status != null ? status.code() : null;
+    }
+
+    @Override
+    public LeaveStatus convertToEntityAttribute(String code) {
+        return code != null ? LeaveStatus.fromCode(code) : null;
+    }
+}
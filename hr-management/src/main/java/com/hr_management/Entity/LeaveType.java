@@ -0,0 +1,77 @@
+package com.hr_management.Entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Leave types, stored as the two-letter code by LeaveTypeConverter. The API and exports use the name.
+// Each half-day type belongs to the family of its full-day type, whose balance it is charged to.
+public enum LeaveType {
+    CL("CL", null),
+    EL("EL", null),
+    ML("ML", null),
+    PL("PL", null),
+    LWP("LW", null),
+    HALF_DAY_CL("HC", CL),
+    HALF_DAY_EL("HE", EL),
+    HALF_DAY_LWP("HL", LWP);
+
+    private static final Map<LeaveType, Set<LeaveType>> FAMILIES = new EnumMap<>(LeaveType.class);
+
+    static {
+        for (LeaveType type : values()) {
+            FAMILIES.computeIfAbsent(type.fullDayType(), key -> EnumSet.noneOf(LeaveType.class)).add(type);
+        }
+    }
+
+    private final String code;
+    private final LeaveType fullDayType;
+
+    LeaveType(String code, LeaveType fullDayType) {
+        this.code = code;
+        this.fullDayType = fullDayType;
+    }
+
+    public String code() { return code; }
+
+    public boolean isHalfDay() { return fullDayType != null; }
+
+    // The type whose balance this one is charged to: CL for HALF_DAY_CL, itself for full-day types
+    public LeaveType fullDayType() { return fullDayType != null ? fullDayType : this; }
+
+    // This type's full-day type and its half-day variant, e.g. {CL, HALF_DAY_CL}
+    public Set<LeaveType> family() { return FAMILIES.get(fullDayType()); }
+
+    public static LeaveType fromCode(String code) {
+        return switch (code) {
+            case "CL" -> CL;
+            case "EL" -> EL;
+            case "ML" -> ML;
+            case "PL" -> PL;
+            case "LW" -> LWP;
+            case "HC" -> HALF_DAY_CL;
+            case "HE" -> HALF_DAY_EL;
+            case "HL" -> HALF_DAY_LWP;
+            default -> throw new IllegalArgumentException("Unknown leave type code " + code);
+        };
+    }
+
+    // Accepts the name in any case (as sent by clients and found in old dumps) or the stored code
+    @JsonCreator
+    public static LeaveType parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        for (LeaveType type : values()) {
+            if (type.name().equals(normalized) || type.code.equals(normalized)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown leave type " + value);
+    }
+}
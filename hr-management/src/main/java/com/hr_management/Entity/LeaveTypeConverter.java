@@ -0,0 +1,18 @@
+package com.hr_management.Entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class LeaveTypeConverter implements AttributeConverter<LeaveType, String> {
+
+    @Override
+    public String convertToDatabaseColumn(LeaveType type) {
+        return type != null ? type.code() : null;
+    }
+
+    @Override
+    public LeaveType convertToEntityAttribute(String code) {
+        return code != null ? LeaveType.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.hr_management.Entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "leave_usage_counters",
+        uniqueConstraints = @UniqueConstraint(name = "uk_leave_usage_counter",
+                columnNames = {"user_id", "leave_year", "leave_type", "half_year"}))
+public class LeaveUsageCounter {
+
+    @Id
+    @PooledId
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "leave_year", nullable = false)
+    private int leaveYear;
+
+    @Column(name = "leave_type", nullable = false, length = 2)
+    private LeaveType leaveType;
+
+    @Column(name = "half_year", nullable = false)
+    private int halfYear; // 1 = Jan-Jun, 2 = Jul-Dec (by leave start date)
+
+    @Column(name = "approved_days", nullable = false)
+    private double approvedDays = 0.0;
+
+    @Column(name = "pending_days", nullable = false)
+    private double pendingDays = 0.0;
+
+    public LeaveUsageCounter() {}
+
+    public LeaveUsageCounter(Long userId, int leaveYear, LeaveType leaveType, int halfYear) {
+        this.userId = userId;
+        this.leaveYear = leaveYear;
+        this.leaveType = leaveType;
+        this.halfYear = halfYear;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public int getLeaveYear() { return leaveYear; }
+    public void setLeaveYear(int leaveYear) { this.leaveYear = leaveYear; }
+    public LeaveType getLeaveType() { return leaveType; }
+    public void setLeaveType(LeaveType leaveType) { this.leaveType = leaveType; }
+    public int getHalfYear() { return halfYear; }
+    public void setHalfYear(int halfYear) { this.halfYear = halfYear; }
+    public double getApprovedDays() { return approvedDays; }
+    public void setApprovedDays(double approvedDays) { this.approvedDays = approvedDays; }
+    public double getPendingDays() { return pendingDays; }
+    public void setPendingDays(double pendingDays) { this.pendingDays = pendingDays; }
+}
@@ -0,0 +1,41 @@
+package com.hr_management.Entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+// Entity ids come from one row per table in id_generators instead of AUTO_INCREMENT, which lets
+// Hibernate batch inserts. Each round trip to the table reserves hr.id.allocation-size ids
+// (spring.jpa.properties.hr.id.allocation-size, default 50); with the pooled-lo optimizer and
+// hibernate.id.generator.stored_last_used=false the stored value is the first id of the next free
+// block, so IdBlockAllocator can seed it from MAX(id) and hand out blocks to plain JDBC writers
+// without the two ever overlapping.
+public class PooledTableIdGenerator extends TableGenerator {
+
+    public static final String TABLE_NAME = "id_generators";
+    public static final String SEGMENT_COLUMN = "entity_table";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final String ALLOCATION_SIZE_SETTING = "hr.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Object allocationSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSettings().get(ALLOCATION_SIZE_SETTING);
+        parameters.setProperty(TABLE_PARAM, TABLE_NAME);
+        parameters.setProperty(SEGMENT_COLUMN_PARAM, SEGMENT_COLUMN);
+        parameters.setProperty(VALUE_COLUMN_PARAM, VALUE_COLUMN);
+        // One row per entity table, keyed by the bare table name (it arrives quoted when identifiers are quoted)
+        String table = parameters.getProperty(PersistentIdentifierGenerator.TABLE).replaceAll("[`\"\\[\\]]", "");
+        parameters.setProperty(SEGMENT_VALUE_PARAM, table);
+        parameters.setProperty(INITIAL_PARAM, "1");
+        parameters.setProperty(INCREMENT_PARAM, allocationSize != null ? allocationSize.toString() : String.valueOf(DEFAULT_ALLOCATION_SIZE));
+        parameters.setProperty(OPT_PARAM, "pooled-lo");
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
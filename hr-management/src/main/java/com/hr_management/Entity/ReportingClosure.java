@@ -0,0 +1,53 @@
+package com.hr_management.Entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Closure table of the reporting hierarchy: one row per (manager, employee) pair where the employee is
+// anywhere under the manager, depth levels down, plus a depth-0 row per user. Written only by
+// ReportingHierarchyService; the primary key serves "everyone under X", the index "everyone above X".
+@Entity
+@Table(name = "reporting_closure",
+        indexes = @Index(name = "idx_reporting_closure_descendant", columnList = "descendant_id, depth"))
+@IdClass(ReportingClosure.Key.class)
+public class ReportingClosure {
+
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    @Column(nullable = false)
+    private int depth;
+
+    public Long getAncestorId() { return ancestorId; }
+    public Long getDescendantId() { return descendantId; }
+    public int getDepth() { return depth; }
+
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+
+        public Key() {}
+
+        public Key(Long ancestorId, Long descendantId) {
+            this.ancestorId = ancestorId;
+            this.descendantId = descendantId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(ancestorId, key.ancestorId) && Objects.equals(descendantId, key.descendantId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ancestorId, descendantId);
+        }
+    }
+}
@@ -8,23 +8,35 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        // Named so ddl-auto=update recognises the keys created by db/hot-path-indexes.sql
+        @UniqueConstraint(name = "uk_users_username", columnNames = "username"),
+        @UniqueConstraint(name = "uk_users_email", columnNames = "email"),
+        @UniqueConstraint(name = "unique_employee_id", columnNames = "employee_id")
+}, indexes = {
+        // Department listings and the department/manager lookups
+        @Index(name = "idx_users_department_role", columnList = "department, role"),
+        // Role counts and the role/status filters of the admin and HR screens
+        @Index(name = "idx_users_role_status", columnList = "role, status"),
+        // Pending signups awaiting approval
+        @Index(name = "idx_users_status", columnList = "status")
+})
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(nullable = false)
     private String fullName;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String username;
 
     @Column(nullable = false)
     private String password;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column
@@ -41,14 +53,14 @@ public class User {
     @Column(nullable = false)
     private String role;
 
-    @Column
-    private String gender;
+    @Column(length = 1)
+    private Gender gender;
 
     @Embedded
     private LeaveBalance leaveBalance = new LeaveBalance();
 
-    @Column(nullable = false)
-    private String status = "PENDING";
+    @Column(nullable = false, length = 1)
+    private UserStatus status = UserStatus.PENDING;
 
     @Column(name = "disapprove_reason")
     private String disapproveReason;
@@ -68,11 +80,17 @@ public class User {
     @JsonManagedReference // Serialize subordinates
     private List<User> subordinates;
 
-    @Column(name = "employee_id", nullable = false, unique = true)
+    @Column(name = "employee_id", nullable = false)
     private String employeeId;
 
+    // Bumped by every leave mutation (see LeaveMutationGuard), so concurrent balance updates conflict instead of overwriting each other
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     // Getters and Setters (unchanged)
     public Long getId() { return id; }
+    public long getVersion() { return version; }
     public void setId(Long id) { this.id = id; }
     public String getFullName() { return fullName; }
     public void setFullName(String fullName) { this.fullName = fullName; }
@@ -93,12 +111,12 @@ public class User {
     public void setJoinDate(LocalDate joinDate) { this.joinDate = joinDate; }
     public String getRole() { return role; }
     public void setRole(String role) { this.role = role; }
-    public String getGender() { return gender; }
-    public void setGender(String gender) { this.gender = gender; }
+    public Gender getGender() { return gender; }
+    public void setGender(Gender gender) { this.gender = gender; }
     public LeaveBalance getLeaveBalance() { return leaveBalance; }
     public void setLeaveBalance(LeaveBalance leaveBalance) { this.leaveBalance = leaveBalance; }
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public UserStatus getStatus() { return status; }
+    public void setStatus(UserStatus status) { this.status = status; }
     public String getDisapproveReason() { return disapproveReason; }
     public void setDisapproveReason(String disapproveReason) { this.disapproveReason = disapproveReason; }
     public Double getLeaveWithoutPayment() { return leaveWithoutPayment; }
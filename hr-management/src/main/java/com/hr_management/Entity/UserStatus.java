@@ -0,0 +1,44 @@
+package com.hr_management.Entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Locale;
+
+// User account statuses, stored as a one-letter code by UserStatusConverter
+public enum UserStatus {
+    PENDING("P"),
+    ACTIVE("A"),
+    INACTIVE("I");
+
+    private final String code;
+
+    UserStatus(String code) {
+        this.code = code;
+    }
+
+    public String code() { return code; }
+
+    public static UserStatus fromCode(String code) {
+        return switch (code) {
+            case "P" -> PENDING;
+            case "A" -> ACTIVE;
+            case "I" -> INACTIVE;
+            default -> throw new IllegalArgumentException("Unknown user status code " + code);
+        };
+    }
+
+    // Accepts the name in any case or the stored code
+    @JsonCreator
+    public static UserStatus parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        for (UserStatus status : values()) {
+            if (status.name().equals(normalized) || status.code.equals(normalized)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown user status " + value);
+    }
+}
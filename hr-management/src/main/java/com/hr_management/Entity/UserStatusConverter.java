@@ -0,0 +1,18 @@
+package com.hr_management.Entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class UserStatusConverter implements AttributeConverter<UserStatus, String> {
+
+    @Override
+    public String convertToDatabaseColumn(UserStatus status) {
+        return status != null ? status.code() : null;
+    }
+
+    @Override
+    public UserStatus convertToEntityAttribute(String code) {
+        return code != null ? UserStatus.fromCode(code) : null;
+    }
+}
@@ -1,12 +1,32 @@
 package com.hr_management.Repository;
 
 import com.hr_management.Entity.Department;
+import com.hr_management.Entity.LeaveType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
     Optional<Department> findByName(String name);
     Optional<Department> findById(Long id); // This is already provided by JpaRepository
+
+    // Each row: [Department, employeeCount, onLeaveCount]. Users on approved leave covering :today
+    // are counted once; leave types in :workingDayTypes only count when :workingDay is true.
+    @Query("SELECT d, " +
+            "(SELECT COUNT(u) FROM User u WHERE u.department = d.name), " +
+            "(SELECT COUNT(DISTINCT la.user.id) FROM LeaveApplication la WHERE la.user.department = d.name " +
+            "AND la.status = com.hr_management.Entity.LeaveStatus.APPROVED " +
+            "AND la.startDate <= :today AND COALESCE(la.endDate, la.startDate) >= :today " +
+            "AND (:workingDay = true OR la.leaveType NOT IN :workingDayTypes)) " +
+            "FROM Department d ORDER BY d.id")
+    List<Object[]> findAllWithCounts(@Param("today") LocalDate today,
+                                     @Param("workingDay") boolean workingDay,
+                                     @Param("workingDayTypes") Collection<LeaveType> workingDayTypes);
 }
\ No newline at end of file
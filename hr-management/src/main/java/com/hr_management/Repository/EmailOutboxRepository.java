@@ -0,0 +1,33 @@
+package com.hr_management.Repository;
+
+import com.hr_management.Entity.EmailOutboxMessage;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // Due messages, including SENDING ones whose lease ran out. Rows another dispatcher has locked are
+    // skipped (lock timeout -2 is SKIP LOCKED), so several instances can drain the outbox side by side.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM EmailOutboxMessage m WHERE m.status IN ('PENDING', 'SENDING') AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt")
+    List<EmailOutboxMessage> lockDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(String status);
+
+    // Retention purge: messages sent before :sentBefore and dead messages created before :deadBefore
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE (m.status = 'SENT' AND m.sentAt < :sentBefore) " +
+            "OR (m.status = 'DEAD' AND m.createdAt < :deadBefore)")
+    int deleteExpired(@Param("sentBefore") LocalDateTime sentBefore, @Param("deadBefore") LocalDateTime deadBefore);
+}
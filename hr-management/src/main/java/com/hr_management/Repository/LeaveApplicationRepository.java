@@ -1,50 +1,62 @@
 package com.hr_management.Repository;
 
 import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
 import com.hr_management.Entity.User;
+import com.hr_management.dto.LeaveExportRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LeaveApplicationRepository extends JpaRepository<LeaveApplication, Long> {
 
     List<LeaveApplication> findByUser(User user);
 
-    @Query("SELECT la FROM LeaveApplication la WHERE la.user.department = :department AND la.status = 'PENDING'")
+    @Query("SELECT la FROM LeaveApplication la WHERE la.user.department = :department " +
+            "AND la.status = com.hr_management.Entity.LeaveStatus.PENDING")
     List<LeaveApplication> findPendingByDepartment(@Param("department") String department);
 
-    @Query("SELECT la FROM LeaveApplication la WHERE la.user.department = :department AND la.status = 'APPROVED' AND CURRENT_DATE BETWEEN la.startDate AND la.endDate")
+    @Query("SELECT la FROM LeaveApplication la WHERE la.user.department = :department " +
+            "AND la.status = com.hr_management.Entity.LeaveStatus.APPROVED AND CURRENT_DATE BETWEEN la.startDate AND la.endDate")
     List<LeaveApplication> findCurrentlyOnLeaveByDepartment(@Param("department") String department);
 
     @Query("SELECT la FROM LeaveApplication la WHERE la.status = :status AND la.user.role = :role")
-    List<LeaveApplication> findByStatusAndUserRole(@Param("status") String status, @Param("role") String role);
+    List<LeaveApplication> findByStatusAndUserRole(@Param("status") LeaveStatus status, @Param("role") String role);
 
     @Query("SELECT COUNT(la) FROM LeaveApplication la WHERE la.status = :status AND la.user.role = :role")
-    long countByStatusAndUserRole(@Param("status") String status, @Param("role") String role);
+    long countByStatusAndUserRole(@Param("status") LeaveStatus status, @Param("role") String role);
 
-    @Query("SELECT la FROM LeaveApplication la WHERE la.status = 'APPROVED' AND la.user.role = 'EMPLOYEE' AND :date BETWEEN la.startDate AND la.endDate")
+    @Query("SELECT la FROM LeaveApplication la WHERE la.status = com.hr_management.Entity.LeaveStatus.APPROVED " +
+            "AND la.user.role = 'EMPLOYEE' AND :date BETWEEN la.startDate AND la.endDate")
     List<LeaveApplication> findApprovedLeavesOnDate(@Param("date") LocalDate date);
 
-    List<LeaveApplication> findByUserIdAndStatus(Long userId, String status);
-    List<LeaveApplication> findByUserIdInAndStatus(List<Long> userIds, String status);
+    List<LeaveApplication> findByUserIdAndStatus(Long userId, LeaveStatus status);
+    List<LeaveApplication> findByUserIdInAndStatus(List<Long> userIds, LeaveStatus status);
 
-    List<LeaveApplication> findByUserAndStatus(User user, String status);
+    List<LeaveApplication> findByUserAndStatus(User user, LeaveStatus status);
 
     @Query("SELECT la FROM LeaveApplication la WHERE la.approverId = :approverId AND la.status = :status")
-    List<LeaveApplication> findByApproverIdAndStatus(@Param("approverId") Long approverId, @Param("status") String status);
+    List<LeaveApplication> findByApproverIdAndStatus(@Param("approverId") Long approverId, @Param("status") LeaveStatus status);
 
     @Query("SELECT COUNT(la) FROM LeaveApplication la WHERE la.approverId = :approverId AND la.status = :status")
-    long countByApproverIdAndStatus(@Param("approverId") Long approverId, @Param("status") String status);
+    long countByApproverIdAndStatus(@Param("approverId") Long approverId, @Param("status") LeaveStatus status);
 
     List<LeaveApplication> findByUserAndStartDate(@Param("user") User user, @Param("startDate") LocalDate startDate);
 
     @Query("SELECT la FROM LeaveApplication la WHERE la.user = :user " +
-            "AND la.status IN ('PENDING', 'APPROVED') " +
+            "AND la.status IN (com.hr_management.Entity.LeaveStatus.PENDING, com.hr_management.Entity.LeaveStatus.APPROVED) " +
             "AND la.startDate <= :endDate AND la.endDate >= :startDate")
     List<LeaveApplication> findOverlappingLeaves(
             @Param("user") User user,
@@ -54,21 +66,113 @@ public interface LeaveApplicationRepository extends JpaRepository<LeaveApplicati
     @Query("SELECT la FROM LeaveApplication la WHERE la.user = :user " +
             "AND la.leaveType IN :leaveTypes " +
             "AND la.startDate BETWEEN :startDate AND :endDate " +
-            "AND (la.status = 'APPROVED' OR (:includePending = true AND la.status = 'PENDING'))")
+            "AND (la.status = com.hr_management.Entity.LeaveStatus.APPROVED " +
+            "OR (:includePending = true AND la.status = com.hr_management.Entity.LeaveStatus.PENDING))")
     List<LeaveApplication> findByUserAndLeaveTypeInAndStartDateBetween(
             @Param("user") User user,
-            @Param("leaveTypes") List<String> leaveTypes,
+            @Param("leaveTypes") Collection<LeaveType> leaveTypes,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate,
             @Param("includePending") boolean includePending);
 
-    @Query("SELECT COUNT(la) FROM LeaveApplication la WHERE la.user.id IN :userIds AND la.status = :status")
-    long countByUserIdInAndStatus(@Param("userIds") List<Long> userIds, @Param("status") String status);
+    // Everything LeaveServiceImpl.applyLeave validates against, in one round trip
+    @Query("SELECT la FROM LeaveApplication la WHERE la.user = :user AND (la.status = com.hr_management.Entity.LeaveStatus.PENDING " +
+            "OR (la.status = com.hr_management.Entity.LeaveStatus.APPROVED AND COALESCE(la.endDate, la.startDate) >= :from))")
+    List<LeaveApplication> findValidationSnapshot(@Param("user") User user, @Param("from") LocalDate from);
+
+    // Each row: [userId, leaveType, startDate, endDate, isHalfDay, status] of the approved and pending
+    // leaves starting in [startDate, endDate]; what LeaveUsageService.reconcile counts, without the entities
+    @Query("SELECT la.user.id, la.leaveType, la.startDate, la.endDate, la.isHalfDay, la.status FROM LeaveApplication la " +
+            "WHERE la.status IN (com.hr_management.Entity.LeaveStatus.APPROVED, com.hr_management.Entity.LeaveStatus.PENDING) " +
+            "AND la.startDate BETWEEN :startDate AND :endDate")
+    List<Object[]> findActiveDaysByStartDateBetween(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    // Same rows for one user
+    @Query("SELECT la.user.id, la.leaveType, la.startDate, la.endDate, la.isHalfDay, la.status FROM LeaveApplication la " +
+            "WHERE la.user.id = :userId " +
+            "AND la.status IN (com.hr_management.Entity.LeaveStatus.APPROVED, com.hr_management.Entity.LeaveStatus.PENDING) " +
+            "AND la.startDate BETWEEN :startDate AND :endDate")
+    List<Object[]> findActiveDaysByUserIdAndStartDateBetween(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
 
-    @Query("SELECT la FROM LeaveApplication la WHERE la.approverId = :approverId AND la.status = 'APPROVED' " +
+    // Approved leaves of a set of users, optionally limited to those overlapping [from, to]
+    @Query("SELECT la FROM LeaveApplication la JOIN FETCH la.user u WHERE u.id IN :userIds " +
+            "AND la.status = com.hr_management.Entity.LeaveStatus.APPROVED " +
+            "AND (:from IS NULL OR COALESCE(la.endDate, la.startDate) >= :from) " +
+            "AND (:to IS NULL OR la.startDate <= :to) ORDER BY la.startDate")
+    List<LeaveApplication> findApprovedByUserIdInAndWindow(
+            @Param("userIds") List<Long> userIds,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    // {user id, start date, end date, leave type} of the approved leaves in a department overlapping [from, to],
+    // for the absence calendar; reportingToId, when set, narrows it to that manager's direct reports
+    @Query("SELECT u.id, la.startDate, COALESCE(la.endDate, la.startDate), la.leaveType FROM LeaveApplication la JOIN la.user u " +
+            "WHERE u.department = :department AND (:reportingToId IS NULL OR u.reportingTo.id = :reportingToId) " +
+            "AND la.status = com.hr_management.Entity.LeaveStatus.APPROVED " +
+            "AND la.startDate <= :to AND COALESCE(la.endDate, la.startDate) >= :from")
+    List<Object[]> findApprovedIntervalsByDepartment(
+            @Param("department") String department,
+            @Param("reportingToId") Long reportingToId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    // Pending leaves of everyone anywhere under the manager, through the reporting_closure table
+    @Query("SELECT la FROM LeaveApplication la JOIN FETCH la.user u JOIN ReportingClosure c ON c.descendantId = u.id " +
+            "WHERE c.ancestorId = :managerId AND c.depth > 0 AND la.status = com.hr_management.Entity.LeaveStatus.PENDING " +
+            "ORDER BY la.startDate, la.id")
+    List<LeaveApplication> findPendingInSubtree(@Param("managerId") Long managerId);
+
+    // {status, count} per status over the leaves of a manager's direct reports, in one round trip
+    @Query("SELECT la.status, COUNT(la) FROM LeaveApplication la WHERE la.user.reportingTo.id = :managerId " +
+            "GROUP BY la.status")
+    List<Object[]> countByReportingToIdGroupByStatus(@Param("managerId") Long managerId);
+
+    @Query("SELECT la FROM LeaveApplication la WHERE la.approverId = :approverId " +
+            "AND la.status = com.hr_management.Entity.LeaveStatus.APPROVED " +
             "AND la.endDate >= :currentDate AND la.endDate <= :cancellationDeadline")
     List<LeaveApplication> findCancellableLeavesByApproverId(
             @Param("approverId") Long approverId,
             @Param("currentDate") LocalDate currentDate,
             @Param("cancellationDeadline") LocalDate cancellationDeadline);
-}
\ No newline at end of file
+
+    // Every pending leave with an approver, grouped by approver, for ApproverDigestJob
+    @Query("SELECT la FROM LeaveApplication la JOIN FETCH la.user WHERE la.status = com.hr_management.Entity.LeaveStatus.PENDING " +
+            "AND la.approverId IS NOT NULL ORDER BY la.approverId, la.startDate, la.id")
+    List<LeaveApplication> findPendingForDigest();
+
+    // Owner of a leave, to pick the per-user lock before the leave itself is loaded
+    @Query("SELECT la.user.id FROM LeaveApplication la WHERE la.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    // {leave id, owner id} rows, for the same purpose in batch decisions
+    @Query("SELECT la.id, la.user.id FROM LeaveApplication la WHERE la.id IN :ids")
+    List<Object[]> findUserIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT la FROM LeaveApplication la JOIN FETCH la.user u LEFT JOIN FETCH u.reportingTo " +
+            "LEFT JOIN FETCH u.departmentEntity WHERE la.id IN :ids")
+    List<LeaveApplication> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Forward-only export of leaves overlapping [from, to]. Rows are fetched from the database in blocks
+    // of the hinted fetch size (MySQL needs useCursorFetch=true for that) and must be consumed inside a
+    // read-only transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.hr_management.dto.LeaveExportRow(la.id, u.employeeId, u.fullName, COALESCE(d.name, u.department), " +
+            "la.leaveType, la.startDate, la.endDate, la.isHalfDay, la.status, la.appliedOn, la.approverId) " +
+            "FROM LeaveApplication la JOIN la.user u LEFT JOIN u.departmentEntity d " +
+            "WHERE la.startDate <= :to AND COALESCE(la.endDate, la.startDate) >= :from " +
+            "AND (:status IS NULL OR la.status = :status) AND (:allTypes = true OR la.leaveType IN :leaveTypes) " +
+            "ORDER BY la.startDate, la.id")
+    Stream<LeaveExportRow> streamForExport(@Param("from") LocalDate from,
+                                           @Param("to") LocalDate to,
+                                           @Param("status") LeaveStatus status,
+                                           @Param("allTypes") boolean allTypes,
+                                           @Param("leaveTypes") Collection<LeaveType> leaveTypes);
+}
@@ -0,0 +1,20 @@
+package com.hr_management.Repository;
+
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.LeaveUsageCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface LeaveUsageCounterRepository extends JpaRepository<LeaveUsageCounter, Long> {
+
+    List<LeaveUsageCounter> findByUserIdAndLeaveYear(Long userId, int leaveYear);
+
+    List<LeaveUsageCounter> findByUserIdInAndLeaveYear(Collection<Long> userIds, int leaveYear);
+
+    Optional<LeaveUsageCounter> findByUserIdAndLeaveYearAndLeaveTypeAndHalfYear(Long userId, int leaveYear, LeaveType leaveType, int halfYear);
+
+    List<LeaveUsageCounter> findByLeaveYear(int leaveYear);
+}
@@ -0,0 +1,27 @@
+package com.hr_management.Repository;
+
+import com.hr_management.Entity.ReportingClosure;
+import com.hr_management.dto.ReportingPersonDTO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReportingClosureRepository extends JpaRepository<ReportingClosure, ReportingClosure.Key> {
+
+    // Number of people anywhere under the user
+    @Query("SELECT COUNT(c) FROM ReportingClosure c WHERE c.ancestorId = :userId AND c.depth > 0")
+    long countSubtree(@Param("userId") Long userId);
+
+    // The user's management chain, direct manager first
+    @Query("SELECT new com.hr_management.dto.ReportingPersonDTO(u.id, u.fullName, u.role, u.email) " +
+            "FROM ReportingClosure c JOIN User u ON u.id = c.ancestorId " +
+            "WHERE c.descendantId = :userId AND c.depth > 0 ORDER BY c.depth")
+    List<ReportingPersonDTO> findAncestors(@Param("userId") Long userId);
+
+    // True when descendantId is ancestorId or anywhere under them
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+}
@@ -1,6 +1,10 @@
 package com.hr_management.Repository;
 
 import com.hr_management.Entity.User;
+import com.hr_management.Entity.UserStatus;
+import com.hr_management.dto.CurrentUserSummary;
+import com.hr_management.dto.UserListItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,10 +16,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsername(String username);
 
+    @Query("SELECT new com.hr_management.dto.CurrentUserSummary(u.id, u.username, u.role, u.department, d.id) " +
+            "FROM User u LEFT JOIN u.departmentEntity d WHERE u.username = :username")
+    Optional<CurrentUserSummary> findSummaryByUsername(@Param("username") String username);
+
+    // Keyset page of the user listing: ids greater than afterId, in id order, optional filters
+    @Query("SELECT new com.hr_management.dto.UserListItem(u.id, u.fullName, u.role, u.status, COALESCE(d.name, u.department)) " +
+            "FROM User u LEFT JOIN u.departmentEntity d WHERE u.id > :afterId " +
+            "AND (:department IS NULL OR COALESCE(d.name, u.department) = :department) " +
+            "AND (:role IS NULL OR u.role = :role) AND (:status IS NULL OR u.status = :status) ORDER BY u.id")
+    List<UserListItem> findListItemsAfter(@Param("afterId") long afterId,
+                                          @Param("department") String department,
+                                          @Param("role") String role,
+                                          @Param("status") UserStatus status,
+                                          Pageable pageable);
+
     List<User> findByDepartment(String department);
 
     long countByDepartment(String department);
 
+    long countByDepartmentAndStatus(String department, UserStatus status);
+
     long countByRole(String role);
 
     Optional<User> findByDepartmentAndRole(String department, String role);
@@ -29,11 +50,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     List<User> findByRoleIgnoreCase(String role);
-    List<User> findByRoleIgnoreCaseAndStatus(String role, String status);
-    List<User> findByRoleIgnoreCaseAndDepartmentAndStatus(String role, String department, String status);
+    List<User> findByRoleIgnoreCaseAndStatus(String role, UserStatus status);
+    List<User> findByRoleIgnoreCaseAndDepartmentAndStatus(String role, String department, UserStatus status);
 
     @Query("SELECT u FROM User u WHERE u.department = :department AND u.reportingTo.id = :reportingToId")
     List<User> findByDepartmentAndReportingToId(@Param("department") String department, @Param("reportingToId") Long reportingToId);
 
-    List<User> findByStatus(String status);
+    List<User> findByDepartmentOrderById(String department, Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.department = :department AND u.reportingTo.id = :reportingToId ORDER BY u.id")
+    List<User> findByDepartmentAndReportingToId(@Param("department") String department, @Param("reportingToId") Long reportingToId, Pageable pageable);
+
+    List<User> findByStatus(UserStatus status);
+
+    // Keyset paging for batch jobs: next page of ids after the last one processed
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.leaveBalance.monthlyClAccrual " +
+            "LEFT JOIN FETCH u.departmentEntity LEFT JOIN FETCH u.reportingTo WHERE u.id IN :ids ORDER BY u.id")
+    List<User> findWithClAccrualByIdIn(@Param("ids") List<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.hr_management.Util;
+
+import java.util.Date;
+
+// The claims the application reads from a token, extracted once per request by JwtUtil.parseToken
+public final class JwtClaims {
+
+    private final String subject;
+    private final String role;
+    private final String department;
+    private final Date expiration;
+
+    public JwtClaims(String subject, String role, String department, Date expiration) {
+        this.subject = subject;
+        this.role = role;
+        this.department = department;
+        this.expiration = expiration != null ? new Date(expiration.getTime()) : null;
+    }
+
+    public String getSubject() { return subject; }
+    public String getRole() { return role; }
+    public String getDepartment() { return department; }
+    public Date getExpiration() { return expiration != null ? new Date(expiration.getTime()) : null; }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() < System.currentTimeMillis();
+    }
+}
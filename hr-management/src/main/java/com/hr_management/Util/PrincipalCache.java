@@ -0,0 +1,125 @@
+package com.hr_management.Util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Bounded LRU cache of UserDetails keyed by username, so JwtAuthenticationFilter does not hit the
+// users table on every request. Entries expire after security.principal-cache.ttl-seconds and are
+// dropped explicitly whenever a user's status, password or role changes.
+// Hit/miss/eviction counts are published as principal.cache.* metrics.
+@Component
+public class PrincipalCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Bumped by every invalidation, under the entries lock; a load that overlapped one is not cached
+    private long invalidations;
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > PrincipalCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns the cached principal, or loads it (outside the lock) and caches it unless an
+    // invalidation ran while it was loading, in which case the loaded copy may already be stale
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        long now = System.currentTimeMillis();
+        long invalidationsAtLoad;
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return entry.userDetails;
+            }
+            if (entry != null) {
+                entries.remove(username);
+                evictions.incrementAndGet();
+            }
+            invalidationsAtLoad = invalidations;
+        }
+        misses.incrementAndGet();
+        UserDetails userDetails = loader.apply(username);
+        synchronized (entries) {
+            if (invalidations == invalidationsAtLoad) {
+                entries.put(username, new Entry(userDetails, now + ttlMillis));
+            }
+        }
+        return userDetails;
+    }
+
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.remove(username);
+            invalidations++;
+        }
+        logger.debug("Invalidated cached principal for {}", username);
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            invalidations++;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("principal.cache.hits", hits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("principal.cache.misses", misses, AtomicLong::get).register(registry);
+        FunctionCounter.builder("principal.cache.evictions", evictions, AtomicLong::get).register(registry);
+        Gauge.builder("principal.cache.size", this, PrincipalCache::size).register(registry);
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    private static final class Entry {
+        private final UserDetails userDetails;
+        private final long expiresAt;
+
+        private Entry(UserDetails userDetails, long expiresAt) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
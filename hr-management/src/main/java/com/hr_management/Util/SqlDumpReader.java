@@ -0,0 +1,236 @@
+package com.hr_management.Util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Streaming reader for mysqldump output such as Leave.sql. Column names come from each CREATE TABLE,
+// and every tuple of an INSERT ... VALUES statement is handed over as soon as it is parsed, so even
+// single-line extended inserts are never held in memory whole. Other statements are skipped.
+public class SqlDumpReader {
+
+    public interface RowHandler {
+        void row(String table, List<String> columns, List<String> values);
+    }
+
+    private static final Pattern INSERT_HEAD = Pattern.compile(
+            "^INSERT\\s+INTO\\s+`?(\\w+)`?\\s*(?:\\(([^)]*)\\))?\\s*VALUES$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CREATE_HEAD = Pattern.compile(
+            "^CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?`?(\\w+)`?\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+    private final BufferedReader reader;
+    private final Map<String, List<String>> columnsByTable = new HashMap<>();
+    private int pushedBack = -2;
+
+    public SqlDumpReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    public void read(RowHandler handler) throws IOException {
+        StringBuilder statement = new StringBuilder();
+        int c;
+        while ((c = next()) != -1) {
+            if (statement.length() == 0) {
+                if (Character.isWhitespace(c) || c == ';') {
+                    continue;
+                }
+                if (c == '-' && peek() == '-') {
+                    skipLine();
+                    continue;
+                }
+                if (c == '/' && peek() == '*') {
+                    skipBlockComment();
+                    continue;
+                }
+            }
+            if (c == '\'' || c == '"' || c == '`') {
+                statement.append((char) c);
+                copyQuoted(c, statement);
+                continue;
+            }
+            if (c == ';') {
+                handleStatement(statement.toString());
+                statement.setLength(0);
+                continue;
+            }
+            statement.append((char) c);
+            if ((c == 'S' || c == 's') && statement.length() < 4096) {
+                Matcher insert = INSERT_HEAD.matcher(statement.toString().trim());
+                if (insert.matches()) {
+                    String table = insert.group(1);
+                    List<String> columns = insert.group(2) != null ? parseColumnList(insert.group(2)) : columnsByTable.get(table);
+                    readTuples(table, columns, handler);
+                    statement.setLength(0);
+                }
+            }
+        }
+    }
+
+    private void handleStatement(String statement) {
+        Matcher create = CREATE_HEAD.matcher(statement.trim());
+        if (!create.find()) {
+            return;
+        }
+        List<String> columns = new ArrayList<>();
+        for (String line : statement.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("`")) {
+                int end = trimmed.indexOf('`', 1);
+                if (end > 1) {
+                    columns.add(trimmed.substring(1, end));
+                }
+            }
+        }
+        columnsByTable.put(create.group(1), columns);
+    }
+
+    private void readTuples(String table, List<String> columns, RowHandler handler) throws IOException {
+        while (true) {
+            int c = nextNonWhitespace();
+            if (c == -1 || c == ';') {
+                return;
+            }
+            if (c == ',') {
+                continue;
+            }
+            if (c != '(') {
+                throw new IOException("Malformed INSERT for table " + table + ": expected '(' but found '" + (char) c + "'");
+            }
+            List<String> values = new ArrayList<>();
+            while (true) {
+                values.add(readValue());
+                int delimiter = nextNonWhitespace();
+                if (delimiter == ')') {
+                    break;
+                }
+                if (delimiter != ',') {
+                    throw new IOException("Malformed tuple for table " + table);
+                }
+            }
+            handler.row(table, columns, values);
+        }
+    }
+
+    // NULL becomes null; _binary '...' and b'...' literals yield their quoted content
+    private String readValue() throws IOException {
+        int c = nextNonWhitespace();
+        if (c == '\'') {
+            return readQuoted();
+        }
+        StringBuilder token = new StringBuilder();
+        while (c != -1 && c != ',' && c != ')') {
+            if (c == '\'') {
+                return readQuoted();
+            }
+            if (!Character.isWhitespace(c)) {
+                token.append((char) c);
+            }
+            c = next();
+        }
+        pushBack(c);
+        String value = token.toString();
+        return value.equalsIgnoreCase("NULL") ? null : value;
+    }
+
+    private String readQuoted() throws IOException {
+        StringBuilder value = new StringBuilder();
+        int c;
+        while ((c = next()) != -1) {
+            if (c == '\\') {
+                int escaped = next();
+                switch (escaped) {
+                    case '0' -> value.append('\0');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'Z' -> value.append((char) 26);
+                    case -1 -> throw new IOException("Unterminated string literal");
+                    default -> value.append((char) escaped);
+                }
+            } else if (c == '\'') {
+                if (peek() == '\'') {
+                    next();
+                    value.append('\'');
+                } else {
+                    return value.toString();
+                }
+            } else {
+                value.append((char) c);
+            }
+        }
+        throw new IOException("Unterminated string literal");
+    }
+
+    private void copyQuoted(int quote, StringBuilder target) throws IOException {
+        int c;
+        while ((c = next()) != -1) {
+            target.append((char) c);
+            if (c == '\\' && quote != '`') {
+                int escaped = next();
+                if (escaped == -1) {
+                    return;
+                }
+                target.append((char) escaped);
+            } else if (c == quote) {
+                return;
+            }
+        }
+    }
+
+    private static List<String> parseColumnList(String columnList) {
+        return Arrays.stream(columnList.split(",")).map(column -> column.trim().replace("`", "")).toList();
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = next()) != -1 && c != '\n') {
+            // skip
+        }
+    }
+
+    private void skipBlockComment() throws IOException {
+        next();
+        int previous = 0;
+        int c;
+        while ((c = next()) != -1) {
+            if (previous == '*' && c == '/') {
+                return;
+            }
+            previous = c;
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = next();
+        } while (c != -1 && Character.isWhitespace(c));
+        return c;
+    }
+
+    private int next() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        int c = next();
+        pushBack(c);
+        return c;
+    }
+
+    private void pushBack(int c) {
+        pushedBack = c;
+    }
+}
@@ -1,6 +1,7 @@
 package com.hr_management.config;
 
 import com.hr_management.Util.JwtUtil;
+import com.hr_management.Util.PrincipalCache;
 import com.hr_management.filter.JwtAuthenticationFilter;
 import com.hr_management.Repository.UserRepository;
 import com.hr_management.Entity.User;
@@ -32,6 +33,9 @@ public class SecurityConfig {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Bean
     public BCryptPasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -52,7 +56,7 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtUtil, userDetailsService());
+        return new JwtAuthenticationFilter(jwtUtil, userDetailsService(), principalCache);
     }
 
     @Bean
@@ -61,6 +65,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:5173"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("X-Next-After-Id"));
         configuration.setAllowCredentials(true);
 
         System.out.println("CORS Allowed Origins: " + configuration.getAllowedOrigins());
@@ -87,6 +92,10 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/departments/stats").hasRole("DIRECTOR")
                         .requestMatchers(HttpMethod.GET, "/api/users/hods").hasRole("DIRECTOR")
                         .requestMatchers(HttpMethod.PATCH, "/api/users/*/status").hasRole("DIRECTOR")
+                        .requestMatchers(HttpMethod.PATCH, "/api/users/*/reporting-to").hasAnyRole("HR", "DIRECTOR")
+                        .requestMatchers(HttpMethod.GET, "/api/hr/departments/*/absence-calendar")
+                                .hasAnyRole("HR", "DIRECTOR", "ASSISTANT_DIRECTOR", "PROJECT_MANAGER")
+                        .requestMatchers(HttpMethod.POST, "/api/hr/import/*").hasAnyRole("HR", "DIRECTOR", "SUPER_ADMIN")
                         .requestMatchers("/api/hr/**").hasAnyRole("HR", "DIRECTOR")
                         .requestMatchers(HttpMethod.GET, "/api/hr/pending-signups").hasRole("HR")
                         .requestMatchers(HttpMethod.POST, "/api/hr/approve-signup/*").hasRole("HR")
@@ -98,9 +107,12 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/leaves").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/leaves/balance").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/leaves/pending").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/leaves/pending/subtree").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/leaves/stats").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/leaves/*/approve").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/leaves/*/reject").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/leaves/approve-batch").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/leaves/reject-batch").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/users/subordinates").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/users/me").authenticated()
                         .anyRequest().authenticated()
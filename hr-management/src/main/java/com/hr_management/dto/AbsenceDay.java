@@ -0,0 +1,19 @@
+package com.hr_management.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// One day of a department absence calendar: who is on approved leave that day, ids ascending.
+public class AbsenceDay {
+    private final LocalDate date;
+    private final List<Long> userIds;
+
+    public AbsenceDay(LocalDate date, List<Long> userIds) {
+        this.date = date;
+        this.userIds = userIds;
+    }
+
+    public LocalDate getDate() { return date; }
+    public int getCount() { return userIds.size(); }
+    public List<Long> getUserIds() { return userIds; }
+}
@@ -0,0 +1,25 @@
+package com.hr_management.dto;
+
+// The handful of current-user fields most controllers need for access checks,
+// loaded with a single-row projection instead of the full User entity.
+public class CurrentUserSummary {
+    private final Long id;
+    private final String username;
+    private final String role;
+    private final String department;
+    private final Long departmentId;
+
+    public CurrentUserSummary(Long id, String username, String role, String department, Long departmentId) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.department = department;
+        this.departmentId = departmentId;
+    }
+
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getRole() { return role; }
+    public String getDepartment() { return department; }
+    public Long getDepartmentId() { return departmentId; }
+}
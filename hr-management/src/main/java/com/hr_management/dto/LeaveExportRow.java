@@ -0,0 +1,50 @@
+package com.hr_management.dto;
+
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+
+import java.time.LocalDate;
+
+// One leave application as exported for payroll, read by a constructor-expression query so the
+// export never materializes LeaveApplication or User entities.
+public class LeaveExportRow {
+    private final Long leaveId;
+    private final String employeeId;
+    private final String employeeName;
+    private final String department;
+    private final LeaveType leaveType;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final boolean halfDay;
+    private final LeaveStatus status;
+    private final LocalDate appliedOn;
+    private final Long approverId;
+
+    public LeaveExportRow(Long leaveId, String employeeId, String employeeName, String department, LeaveType leaveType,
+                          LocalDate startDate, LocalDate endDate, boolean halfDay, LeaveStatus status, LocalDate appliedOn,
+                          Long approverId) {
+        this.leaveId = leaveId;
+        this.employeeId = employeeId;
+        this.employeeName = employeeName;
+        this.department = department;
+        this.leaveType = leaveType;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.halfDay = halfDay;
+        this.status = status;
+        this.appliedOn = appliedOn;
+        this.approverId = approverId;
+    }
+
+    public Long getLeaveId() { return leaveId; }
+    public String getEmployeeId() { return employeeId; }
+    public String getEmployeeName() { return employeeName; }
+    public String getDepartment() { return department; }
+    public LeaveType getLeaveType() { return leaveType; }
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public boolean isHalfDay() { return halfDay; }
+    public LeaveStatus getStatus() { return status; }
+    public LocalDate getAppliedOn() { return appliedOn; }
+    public Long getApproverId() { return approverId; }
+}
@@ -0,0 +1,27 @@
+package com.hr_management.dto;
+
+import com.hr_management.Entity.UserStatus;
+
+// Row of the public user listing (GET /api/auth/users): only what the signup page needs to pick a
+// reporting person, read straight from a constructor-expression query.
+public class UserListItem {
+    private final Long id;
+    private final String fullName;
+    private final String role;
+    private final UserStatus status;
+    private final String department;
+
+    public UserListItem(Long id, String fullName, String role, UserStatus status, String department) {
+        this.id = id;
+        this.fullName = fullName;
+        this.role = role;
+        this.status = status;
+        this.department = department;
+    }
+
+    public Long getId() { return id; }
+    public String getFullName() { return fullName; }
+    public String getRole() { return role; }
+    public UserStatus getStatus() { return status; }
+    public String getDepartment() { return department; }
+}
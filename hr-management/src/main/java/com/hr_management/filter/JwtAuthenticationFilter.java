@@ -1,6 +1,8 @@
 package com.hr_management.filter;
 
+import com.hr_management.Util.JwtClaims;
 import com.hr_management.Util.JwtUtil;
+import com.hr_management.Util.PrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,10 +29,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter implements Ord
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService, PrincipalCache principalCache) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -62,8 +66,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter implements Ord
         String token = header.substring(7);
 
         try {
-            String username = jwtUtil.extractUsername(token);
-            String role = jwtUtil.extractRole(token);
+            // Signature and expiry are verified once here; everything below reads the parsed claims
+            JwtClaims claims = jwtUtil.parseToken(token);
+            String username = claims.getSubject();
+            String role = claims.getRole();
             logger.debug("Extracted username: {}, role: {} from token for request: {}", username, role, requestPath);
 
             if (username == null || role == null) {
@@ -75,9 +81,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter implements Ord
             }
 
             if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = principalCache.get(username, userDetailsService::loadUserByUsername);
 
-                if (jwtUtil.validateToken(token, userDetails)) {
+                if (jwtUtil.validateToken(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails,
@@ -0,0 +1,85 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// With leave.notifications.mode=digest (opt-in; the default is off), approvers get one email a day listing
+// every leave still waiting for them instead of one email per application. A digest does not combine only
+// the applications made since the previous run: it repeats every leave that is still pending, each day,
+// until the leave is decided. That is what lets the job keep no state of its own: each run reads the
+// pending leaves in one query, so a skipped or repeated run loses nothing.
+@Component
+public class ApproverDigestJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApproverDigestJob.class);
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${leave.notifications.mode:off}")
+    private String notificationMode;
+
+    // 08:00 on weekdays
+    @Scheduled(cron = "${leave.notifications.digest-cron:0 0 8 * * MON-FRI}")
+    public void runScheduled() {
+        if (!"digest".equals(notificationMode)) {
+            return;
+        }
+        try {
+            run();
+        } catch (RuntimeException e) {
+            logger.error("Approver digest failed", e);
+        }
+    }
+
+    // Queues one digest per approver with pending leaves, all in one transaction; returns the number queued
+    public int run() {
+        Integer queued = transactionTemplate.execute(status -> {
+            Map<Long, List<LeaveApplication>> byApprover = new LinkedHashMap<>();
+            for (LeaveApplication leave : leaveApplicationRepository.findPendingForDigest()) {
+                byApprover.computeIfAbsent(leave.getApproverId(), id -> new ArrayList<>()).add(leave);
+            }
+            Map<Long, User> approvers = new HashMap<>();
+            for (User approver : userRepository.findAllById(byApprover.keySet())) {
+                approvers.put(approver.getId(), approver);
+            }
+            int count = 0;
+            for (Map.Entry<Long, List<LeaveApplication>> entry : byApprover.entrySet()) {
+                User approver = approvers.get(entry.getKey());
+                if (approver == null || approver.getEmail() == null) {
+                    logger.warn("Skipping digest for approver {}: no such user or no email", entry.getKey());
+                    continue;
+                }
+                emailService.sendApproverDigestEmail(approver, entry.getValue());
+                count++;
+            }
+            return count;
+        });
+        logger.info("Queued {} approver digest emails", queued);
+        return queued;
+    }
+}
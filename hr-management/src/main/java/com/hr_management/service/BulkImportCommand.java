@@ -0,0 +1,72 @@
+package com.hr_management.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Command-line entry point for BulkImportService, e.g.
+//   java -jar hr-management.jar --spring.main.web-application-type=none --import.dump=Leave.sql
+// Accepts --import.dump, --import.users and --import.leaves (users before leaves when both are given)
+// and exits once the import is done. Without any of them the application starts normally.
+@Component
+public class BulkImportCommand implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportCommand.class);
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String dump = option(args, "import.dump");
+        String users = option(args, "import.users");
+        String leaves = option(args, "import.leaves");
+        if (dump == null && users == null && leaves == null) {
+            return;
+        }
+        int code = importFiles(dump, users, leaves);
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+
+    // The exit code; whoever can start the application from its jar is trusted like a Super Admin, so a
+    // dump's Super Admin and Administration HR accounts are imported too
+    int importFiles(String dump, String users, String leaves) {
+        int exitCode = 0;
+        try {
+            if (dump != null) {
+                exitCode = Math.max(exitCode, log("dump " + dump, bulkImportService.importDump(new FileSystemResource(dump), true)));
+            }
+            if (users != null) {
+                exitCode = Math.max(exitCode, log("users " + users, bulkImportService.importUsersCsv(new FileSystemResource(users), true)));
+            }
+            if (leaves != null) {
+                exitCode = Math.max(exitCode, log("leaves " + leaves, bulkImportService.importLeavesCsv(new FileSystemResource(leaves))));
+            }
+        } catch (Exception e) {
+            logger.error("Import failed", e);
+            exitCode = 1;
+        }
+        return exitCode;
+    }
+
+    // 0 when every row was imported, 2 when some were rejected
+    private int log(String what, Map<String, Object> report) {
+        logger.info("Imported {}: {}", what, report);
+        return ((Number) report.get("rejected")).intValue() > 0 ? 2 : 0;
+    }
+
+    private static String option(ApplicationArguments args, String name) {
+        return args.containsOption(name) && !args.getOptionValues(name).isEmpty() ? args.getOptionValues(name).get(0) : null;
+    }
+}
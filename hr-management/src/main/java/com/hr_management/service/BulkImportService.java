@@ -0,0 +1,737 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Department;
+import com.hr_management.Entity.Gender;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.UserStatus;
+import com.hr_management.Repository.DepartmentRepository;
+import com.hr_management.Util.CsvReader;
+import com.hr_management.Util.SqlDumpReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+// Bulk import of users and leave applications from CSV rosters or a mysqldump file such as Leave.sql.
+// Instead of going through signup row by row, uniqueness is checked against username/email/employee id
+// sets loaded once up front, plaintext passwords are hashed on a worker pool, and rows are written with
+// JDBC batch inserts, one transaction per chunk of import.batch-size rows, with ids taken a block at a
+// time from IdBlockAllocator. A failed chunk is reported
+// and skipped; chunks already committed stay. No emails are sent.
+@Service
+public class BulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    // Never produced by BCrypt, so nobody can log in until the password is reset
+    private static final String UNUSABLE_PASSWORD = "!";
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users (id, full_name, username, password, email, department, "
+            + "department_id, role, gender, join_date, employee_id, status, disapprove_reason, casual_leave_used, "
+            + "casual_leave_remaining, earned_leave_used_first_half, earned_leave_used_second_half, earned_leave_remaining, "
+            + "maternity_leave_used, maternity_leave_remaining, paternity_leave_used, paternity_leave_remaining, "
+            + "last_initialized_year, leave_without_payment, half_day_lwp, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_LEAVE_SQL = "INSERT INTO leave_applications (id, user_id, leave_type, start_date, "
+            + "end_date, reason, is_half_day, status, applied_on, remaining_leaves, approver_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private LeaveUsageService leaveUsageService;
+
+    @Autowired
+    private StaffingCalendar staffingCalendar;
+
+    @Autowired
+    private ReportingHierarchyService reportingHierarchyService;
+
+    @Value("${import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${import.hash-threads:0}")
+    private int hashThreads;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Columns (case and underscores ignored): fullName, username, email, password, role, department, gender,
+    // joinDate, employeeId, status, reportingTo (the manager's employee id). password may already be a BCrypt hash.
+    // Only a privileged import (a Super Admin or the command line) may create Super Admins and Administration HRs.
+    public Map<String, Object> importUsersCsv(InputStreamSource source, boolean privileged) throws IOException {
+        return runExclusively("users CSV", privileged, run -> {
+            try (CsvReader csv = new CsvReader(open(source))) {
+                Map<String, Integer> header = readHeader(csv);
+                requireColumns(header, "fullname", "username", "email", "role", "employeeid", "gender", "joindate");
+                List<String> record;
+                while ((record = csv.readRecord()) != null) {
+                    addCsvUser(run, header, record, csv.getRecordNumber());
+                }
+            }
+            flushUsers(run);
+            resolveManagers(run);
+        });
+    }
+
+    // Columns: employeeId, leaveType, startDate, endDate, halfDay, reason, status, appliedOn, approverEmployeeId.
+    // The approver defaults to the employee's reporting person. status may not be APPROVED: the rows would
+    // bypass the charge to the user's balance that approval makes.
+    public Map<String, Object> importLeavesCsv(InputStreamSource source) throws IOException {
+        return runExclusively("leaves CSV", false, run -> {
+            try (CsvReader csv = new CsvReader(open(source))) {
+                Map<String, Integer> header = readHeader(csv);
+                requireColumns(header, "employeeid", "leavetype", "startdate");
+                List<String> record;
+                while ((record = csv.readRecord()) != null) {
+                    addCsvLeave(run, header, record, csv.getRecordNumber());
+                }
+            }
+            flushLeaves(run);
+            reconcileTouchedYears(run);
+        });
+    }
+
+    // departments, users and leave_applications from a mysqldump file; dump ids are remapped to new ones.
+    // The dump lists tables alphabetically (leaves before users), so the file is read twice. Approved leaves
+    // are taken as they are: their users come from the same dump, with balances that already include them.
+    // privileged as for importUsersCsv.
+    public Map<String, Object> importDump(InputStreamSource source, boolean privileged) throws IOException {
+        return runExclusively("SQL dump", privileged, run -> {
+            try (Reader reader = open(source)) {
+                new SqlDumpReader(reader).read((table, columns, values) -> {
+                    if ("departments".equals(table)) {
+                        addDumpDepartment(run, row(table, columns, values));
+                    } else if ("users".equals(table)) {
+                        addDumpUser(run, row(table, columns, values));
+                    }
+                });
+            }
+            flushUsers(run);
+            resolveManagers(run);
+            try (Reader reader = open(source)) {
+                new SqlDumpReader(reader).read((table, columns, values) -> {
+                    if ("leave_applications".equals(table)) {
+                        addDumpLeave(run, row(table, columns, values));
+                    }
+                });
+            }
+            flushLeaves(run);
+            reconcileTouchedYears(run);
+        });
+    }
+
+    public boolean isRunning() { return running.get(); }
+
+    private interface ImportBody {
+        void run(ImportRun run) throws IOException;
+    }
+
+    private Map<String, Object> runExclusively(String kind, boolean privileged, ImportBody body) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An import is already running");
+        }
+        long startedAt = System.currentTimeMillis();
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        ExecutorService hashPool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "import-hash");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ImportRun run = new ImportRun(hashPool);
+        run.privileged = privileged;
+        try {
+            preload(run);
+            logger.info("Starting {} import ({} existing users, {} hash threads)", kind, run.userIdByEmployeeId.size(), threads);
+            body.run(run);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("departmentsCreated", run.departmentsCreated);
+            report.put("usersImported", run.usersImported);
+            report.put("leavesImported", run.leavesImported);
+            report.put("rejected", run.errorCount);
+            report.put("errors", run.errors);
+            report.put("durationMs", System.currentTimeMillis() - startedAt);
+            logger.info("{} import finished: {} departments, {} users, {} leaves, {} rejected in {} ms", kind,
+                    run.departmentsCreated, run.usersImported, run.leavesImported, run.errorCount, report.get("durationMs"));
+            return report;
+        } finally {
+            // Also after a failure, for the chunks that were committed before it. Imported users and approved
+            // leaves bypass the staffing counts
+            if (run.usersImported > 0 || run.approvedLeavesImported > 0) {
+                staffingCalendar.clear();
+            }
+            // and reporting_to is written directly, so the closure table is recomputed
+            if (run.usersImported > 0) {
+                reportingHierarchyService.rebuild();
+            }
+            hashPool.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private void preload(ImportRun run) {
+        jdbcTemplate.query("SELECT name FROM roles", rs -> {
+            addKey(run.roles, rs.getString(1));
+        });
+        jdbcTemplate.query("SELECT id, username, email, employee_id, reporting_to FROM users", rs -> {
+            long id = rs.getLong(1);
+            addKey(run.usernames, rs.getString(2));
+            addKey(run.emails, rs.getString(3));
+            run.userIdByEmployeeId.put(key(rs.getString(4)), id);
+            long reportingTo = rs.getLong(5);
+            if (!rs.wasNull()) {
+                run.reportingToByUserId.put(id, reportingTo);
+            }
+        });
+        // Signups waiting for approval already claim their username, email and employee id
+        jdbcTemplate.query("SELECT username, email, employee_id FROM pending_signups WHERE status = 'PENDING'", rs -> {
+            addKey(run.usernames, rs.getString(1));
+            addKey(run.emails, rs.getString(2));
+            addKey(run.pendingEmployeeIds, rs.getString(3));
+        });
+        for (Department department : departmentRepository.findAll()) {
+            run.departmentIdByName.put(key(department.getName()), department.getId());
+        }
+    }
+
+    private void addCsvUser(ImportRun run, Map<String, Integer> header, List<String> record, long recordNumber) {
+        String where = "Record " + recordNumber;
+        try {
+            UserRow user = new UserRow();
+            user.fullName = required(header, record, "fullname");
+            user.username = required(header, record, "username");
+            user.email = required(header, record, "email");
+            user.employeeId = required(header, record, "employeeid");
+            user.role = required(header, record, "role").toUpperCase(Locale.ROOT);
+            user.gender = Gender.parse(required(header, record, "gender"));
+            user.joinDate = parseDate(required(header, record, "joindate"), "joinDate");
+            String status = field(header, record, "status");
+            user.status = status != null ? UserStatus.parse(status) : UserStatus.ACTIVE;
+            user.password = field(header, record, "password");
+            setDepartment(run, user, field(header, record, "department"));
+            checkRole(run, user);
+            setDefaultBalance(user);
+            String manager = field(header, record, "reportingto");
+            if (manager != null) {
+                user.managerEmployeeId = key(manager);
+            }
+            addUser(run, user);
+        } catch (IllegalArgumentException e) {
+            reject(run, where + ": " + e.getMessage());
+        }
+    }
+
+    private void addDumpUser(ImportRun run, Map<String, String> row) {
+        String where = "users row id=" + row.get("id");
+        try {
+            UserRow user = new UserRow();
+            user.fullName = requiredValue(row.get("full_name"), "full_name");
+            user.username = requiredValue(row.get("username"), "username");
+            user.email = requiredValue(row.get("email"), "email");
+            user.employeeId = requiredValue(row.get("employee_id"), "employee_id");
+            user.role = requiredValue(row.get("role"), "role").toUpperCase(Locale.ROOT);
+            user.gender = Gender.parse(row.get("gender"));
+            user.joinDate = row.get("join_date") != null ? parseDate(row.get("join_date"), "join_date") : LocalDate.now();
+            user.status = row.get("status") != null ? UserStatus.parse(row.get("status")) : UserStatus.PENDING;
+            user.disapproveReason = row.get("disapprove_reason");
+            user.password = row.get("password");
+            user.dumpId = parseLong(row.get("id"));
+            Long dumpDepartmentId = parseLong(row.get("department_id"));
+            Long departmentId = dumpDepartmentId != null ? run.departmentIdByDumpId.get(dumpDepartmentId) : null;
+            if (departmentId != null) {
+                user.department = row.get("department");
+                user.departmentId = departmentId;
+            } else {
+                setDepartment(run, user, row.get("department"));
+            }
+            checkRole(run, user);
+            user.casualLeaveUsed = parseDouble(row.get("casual_leave_used"), 0.0);
+            user.casualLeaveRemaining = parseDouble(row.get("casual_leave_remaining"), 0.0);
+            user.earnedLeaveUsedFirstHalf = parseDouble(row.get("earned_leave_used_first_half"), 0.0);
+            user.earnedLeaveUsedSecondHalf = parseDouble(row.get("earned_leave_used_second_half"), 0.0);
+            user.earnedLeaveRemaining = parseDouble(row.get("earned_leave_remaining"), 0.0);
+            user.maternityLeaveUsed = parseDouble(row.get("maternity_leave_used"), 0.0);
+            user.maternityLeaveRemaining = parseDouble(row.get("maternity_leave_remaining"), 0.0);
+            user.paternityLeaveUsed = parseDouble(row.get("paternity_leave_used"), 0.0);
+            user.paternityLeaveRemaining = parseDouble(row.get("paternity_leave_remaining"), 0.0);
+            user.lastInitializedYear = row.get("last_initialized_year") != null ? Integer.valueOf(row.get("last_initialized_year")) : null;
+            user.leaveWithoutPayment = parseDouble(row.get("leave_without_payment"), 0.0);
+            user.halfDayLwp = parseDouble(row.get("half_day_lwp"), 0.0);
+            user.managerDumpId = parseLong(row.get("reporting_to"));
+            addUser(run, user);
+        } catch (IllegalArgumentException e) {
+            reject(run, where + ": " + e.getMessage());
+        }
+    }
+
+    private void addDumpDepartment(ImportRun run, Map<String, String> row) {
+        String name = row.get("name");
+        Long dumpId = parseLong(row.get("id"));
+        if (name == null || dumpId == null) {
+            reject(run, "departments row id=" + row.get("id") + ": name is required");
+            return;
+        }
+        Long id = run.departmentIdByName.get(key(name));
+        if (id == null) {
+            Department department = new Department();
+            department.setName(name);
+            department.setDescription(row.get("description"));
+            id = departmentRepository.save(department).getId();
+            run.departmentIdByName.put(key(name), id);
+            run.departmentsCreated++;
+        }
+        run.departmentIdByDumpId.put(dumpId, id);
+    }
+
+    // Same rules as signup: Directors and Super Admins have no department, everyone else needs an existing one
+    private void setDepartment(ImportRun run, UserRow user, String department) {
+        if ("DIRECTOR".equals(user.role) || "SUPER_ADMIN".equals(user.role)) {
+            return;
+        }
+        if (department == null || department.isBlank()) {
+            throw new IllegalArgumentException("Department is required for non-Director roles");
+        }
+        String normalized = UserService.normalizeDepartment(department.trim());
+        Long departmentId = run.departmentIdByName.get(key(normalized));
+        if (departmentId == null) {
+            throw new IllegalArgumentException("Department not found: " + normalized);
+        }
+        user.department = normalized;
+        user.departmentId = departmentId;
+    }
+
+    // Roles must exist in the roles table, and the accounts approveUser keeps to Super Admins stay that way
+    private static void checkRole(ImportRun run, UserRow user) {
+        if (!run.roles.contains(key(user.role))) {
+            throw new IllegalArgumentException("Unknown role " + user.role);
+        }
+        if (run.privileged) {
+            return;
+        }
+        if ("SUPER_ADMIN".equals(user.role)) {
+            throw new IllegalArgumentException("Only Super Admin can import Super Admin accounts");
+        }
+        if ("HR".equals(user.role) && user.department != null
+                && "Admin (Administration)".equals(UserService.normalizeDepartment(user.department.trim()))) {
+            throw new IllegalArgumentException("Only Super Admin can import HR accounts in Admin (Administration)");
+        }
+    }
+
+    // The balance approveUser gives a newly approved user
+    private static void setDefaultBalance(UserRow user) {
+        user.casualLeaveRemaining = "ASSISTANT_DIRECTOR".equals(user.role) ? 12.0 : 10.0;
+        user.maternityLeaveRemaining = user.gender == Gender.FEMALE ? 182.0 : 0.0;
+        user.paternityLeaveRemaining = user.gender == Gender.MALE ? 15.0 : 0.0;
+    }
+
+    private void addUser(ImportRun run, UserRow user) {
+        if (run.usernames.contains(key(user.username))) {
+            throw new IllegalArgumentException("Username already taken");
+        }
+        if (run.emails.contains(key(user.email))) {
+            throw new IllegalArgumentException("Email already registered");
+        }
+        if (run.userIdByEmployeeId.containsKey(key(user.employeeId)) || run.pendingEmployeeIds.contains(key(user.employeeId))) {
+            throw new IllegalArgumentException("Employee ID already registered");
+        }
+        run.usernames.add(key(user.username));
+        run.emails.add(key(user.email));
+        run.pendingEmployeeIds.add(key(user.employeeId));
+        run.pendingUsers.add(user);
+        if (run.pendingUsers.size() >= batchSize) {
+            flushUsers(run);
+        }
+    }
+
+    private void flushUsers(ImportRun run) {
+        List<UserRow> users = run.pendingUsers;
+        if (users.isEmpty()) {
+            return;
+        }
+        run.pendingUsers = new ArrayList<>();
+        hashPasswords(run, users);
+        List<String> keys = users.stream().map(user -> user.employeeId).toList();
+        try {
+            long firstId = idBlockAllocator.allocate("users", users.size());
+            List<Object[]> params = new ArrayList<>(users.size());
+            for (int i = 0; i < users.size(); i++) {
+                params.add(users.get(i).insertParams(firstId + i));
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER_SQL, params));
+            for (int i = 0; i < users.size(); i++) {
+                UserRow user = users.get(i);
+                long id = firstId + i;
+                run.pendingEmployeeIds.remove(key(user.employeeId));
+                run.userIdByEmployeeId.put(key(user.employeeId), id);
+                if (user.dumpId != null) {
+                    run.userIdByDumpId.put(user.dumpId, id);
+                }
+                if (user.managerEmployeeId != null || user.managerDumpId != null) {
+                    run.managerRefs.add(new Object[] {id, user.managerEmployeeId != null ? user.managerEmployeeId : user.managerDumpId});
+                }
+            }
+            run.usersImported += users.size();
+        } catch (DataAccessException e) {
+            logger.error("User import batch of {} rows failed", users.size(), e);
+            rejectBatch(run, users.size(), "A batch of " + users.size() + " users (employee ids " + keys.get(0) + " to "
+                    + keys.get(keys.size() - 1) + ") failed: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // Plaintext passwords are hashed in parallel; existing BCrypt hashes are kept as they are
+    private void hashPasswords(ImportRun run, List<UserRow> users) {
+        List<Future<?>> hashes = new ArrayList<>();
+        for (UserRow user : users) {
+            if (user.password == null || user.password.isBlank()) {
+                user.password = UNUSABLE_PASSWORD;
+            } else if (!BCRYPT_HASH.matcher(user.password).matches()) {
+                String plain = user.password;
+                hashes.add(run.hashPool.submit(() -> user.password = passwordEncoder.encode(plain)));
+            }
+        }
+        try {
+            for (Future<?> hash : hashes) {
+                hash.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void resolveManagers(ImportRun run) {
+        List<Object[]> updates = new ArrayList<>();
+        for (Object[] ref : run.managerRefs) {
+            Long userId = (Long) ref[0];
+            Long managerId = ref[1] instanceof String employeeId ? run.userIdByEmployeeId.get(employeeId)
+                    : run.userIdByDumpId.get((Long) ref[1]);
+            if (managerId == null) {
+                reject(run, "Reporting person " + ref[1] + " of user id " + userId + " was not found; left unset");
+                continue;
+            }
+            run.reportingToByUserId.put(userId, managerId);
+            updates.add(new Object[] {managerId, userId});
+        }
+        run.managerRefs.clear();
+        for (int from = 0; from < updates.size(); from += batchSize) {
+            List<Object[]> chunk = updates.subList(from, Math.min(from + batchSize, updates.size()));
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate("UPDATE users SET reporting_to = ? WHERE id = ?", chunk));
+        }
+    }
+
+    private void addCsvLeave(ImportRun run, Map<String, Integer> header, List<String> record, long recordNumber) {
+        try {
+            String employeeId = required(header, record, "employeeid");
+            Long userId = run.userIdByEmployeeId.get(key(employeeId));
+            if (userId == null) {
+                throw new IllegalArgumentException("Unknown employee id " + employeeId);
+            }
+            String approver = field(header, record, "approveremployeeid");
+            Long approverId = null;
+            if (approver != null) {
+                approverId = run.userIdByEmployeeId.get(key(approver));
+                if (approverId == null) {
+                    throw new IllegalArgumentException("Unknown approver employee id " + approver);
+                }
+            }
+            String status = field(header, record, "status");
+            if (status != null && LeaveStatus.parse(status) == LeaveStatus.APPROVED) {
+                throw new IllegalArgumentException("Approved leaves cannot be imported from CSV; import them as PENDING and approve them");
+            }
+            String endDate = field(header, record, "enddate");
+            String appliedOn = field(header, record, "appliedon");
+            addLeave(run, userId, required(header, record, "leavetype"),
+                    parseDate(required(header, record, "startdate"), "startDate"),
+                    endDate != null ? parseDate(endDate, "endDate") : null,
+                    field(header, record, "reason"), parseBoolean(field(header, record, "halfday")),
+                    status, appliedOn != null ? parseDate(appliedOn, "appliedOn") : null, approverId);
+        } catch (IllegalArgumentException e) {
+            reject(run, "Record " + recordNumber + ": " + e.getMessage());
+        }
+    }
+
+    private void addDumpLeave(ImportRun run, Map<String, String> row) {
+        try {
+            Long dumpUserId = parseLong(row.get("user_id"));
+            Long userId = dumpUserId != null ? run.userIdByDumpId.get(dumpUserId) : null;
+            if (userId == null) {
+                throw new IllegalArgumentException("employee (users id=" + dumpUserId + ") was not imported");
+            }
+            Long dumpApproverId = parseLong(row.get("approver_id"));
+            Long approverId = dumpApproverId != null ? run.userIdByDumpId.get(dumpApproverId) : null;
+            addLeave(run, userId, requiredValue(row.get("leave_type"), "leave_type"),
+                    parseDate(requiredValue(row.get("start_date"), "start_date"), "start_date"),
+                    row.get("end_date") != null ? parseDate(row.get("end_date"), "end_date") : null,
+                    row.get("reason"), parseBoolean(row.get("is_half_day")), row.get("status"),
+                    row.get("applied_on") != null ? parseDate(row.get("applied_on"), "applied_on") : null, approverId);
+        } catch (IllegalArgumentException e) {
+            reject(run, "leave_applications row id=" + row.get("id") + ": " + e.getMessage());
+        }
+    }
+
+    private void addLeave(ImportRun run, Long userId, String leaveType, LocalDate startDate, LocalDate endDate, String reason,
+                          boolean halfDay, String status, LocalDate appliedOn, Long approverId) {
+        LocalDate end = endDate != null ? endDate : startDate;
+        if (end.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date is before start date");
+        }
+        // Raw JDBC bypasses the JPA converters, so write the column codes directly
+        LeaveStatus leaveStatus = status != null ? LeaveStatus.parse(status) : LeaveStatus.PENDING;
+        run.pendingLeaves.add(new Object[] {null, userId, LeaveType.parse(leaveType).code(), startDate, end, reason, halfDay,
+                leaveStatus.code(), appliedOn != null ? appliedOn : startDate, 0.0,
+                approverId != null ? approverId : run.reportingToByUserId.get(userId)});
+        for (int year = startDate.getYear(); year <= end.getYear(); year++) {
+            run.touchedYears.add(year);
+        }
+        if (run.pendingLeaves.size() >= batchSize) {
+            flushLeaves(run);
+        }
+    }
+
+    private void flushLeaves(ImportRun run) {
+        List<Object[]> leaves = run.pendingLeaves;
+        if (leaves.isEmpty()) {
+            return;
+        }
+        run.pendingLeaves = new ArrayList<>();
+        try {
+            long firstId = idBlockAllocator.allocate("leave_applications", leaves.size());
+            for (int i = 0; i < leaves.size(); i++) {
+                leaves.get(i)[0] = firstId + i;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_LEAVE_SQL, leaves));
+            run.leavesImported += leaves.size();
+            run.approvedLeavesImported += (int) leaves.stream().filter(leave -> LeaveStatus.APPROVED.code().equals(leave[7])).count();
+        } catch (DataAccessException e) {
+            logger.error("Leave import batch of {} rows failed", leaves.size(), e);
+            rejectBatch(run, leaves.size(), "A batch of " + leaves.size() + " leave applications failed: "
+                    + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // The rows bypassed LeaveUsageService, so rebuild its counters for every year they touch
+    private void reconcileTouchedYears(ImportRun run) {
+        if (run.leavesImported == 0) {
+            return;
+        }
+        for (int year : run.touchedYears) {
+            leaveUsageService.reconcile(year);
+        }
+    }
+
+    private void reject(ImportRun run, String error) {
+        rejectBatch(run, 1, error);
+    }
+
+    private void rejectBatch(ImportRun run, int rows, String error) {
+        run.errorCount += rows;
+        if (run.errors.size() < MAX_REPORTED_ERRORS) {
+            run.errors.add(error);
+        }
+    }
+
+    private static Reader open(InputStreamSource source) throws IOException {
+        return new InputStreamReader(source.getInputStream(), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Integer> readHeader(CsvReader csv) throws IOException {
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", "")
+                    .replace("\uFEFF", ""), i);
+        }
+        return columns;
+    }
+
+    private static void requireColumns(Map<String, Integer> header, String... columns) {
+        for (String column : columns) {
+            if (!header.containsKey(column)) {
+                throw new IllegalArgumentException("Missing column: " + column);
+            }
+        }
+    }
+
+    private static Map<String, String> row(String table, List<String> columns, List<String> values) {
+        if (columns == null || columns.size() != values.size()) {
+            throw new IllegalArgumentException("Column list for table " + table + " does not match its values");
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            row.put(columns.get(i), values.get(i));
+        }
+        return row;
+    }
+
+    // Blank fields are treated as missing
+    private static String field(Map<String, Integer> header, List<String> record, String column) {
+        Integer index = header.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String required(Map<String, Integer> header, List<String> record, String column) {
+        return requiredValue(field(header, record, column), column);
+    }
+
+    private static String requiredValue(String value, String column) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return value.trim();
+    }
+
+    private static LocalDate parseDate(String value, String column) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static Long parseLong(String value) {
+        return value == null || value.isBlank() ? null : Long.valueOf(value.trim());
+    }
+
+    private static double parseDouble(String value, double defaultValue) {
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    // Accepts true/false, yes/no, 1/0 and the single-byte values mysqldump writes for bit(1)
+    private static boolean parseBoolean(String value) {
+        if (value == null) {
+            return false;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return normalized.equals("true") || normalized.equals("yes") || normalized.equals("1") || normalized.equals("\u0001");
+    }
+
+    private static String key(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void addKey(Set<String> keys, String value) {
+        if (value != null) {
+            keys.add(key(value));
+        }
+    }
+
+    // Everything one import keeps in memory: the uniqueness keys, id mappings and the chunk being filled
+    private static class ImportRun {
+        final ExecutorService hashPool;
+        final Set<String> roles = new HashSet<>();
+        final Set<String> usernames = new HashSet<>();
+        final Set<String> emails = new HashSet<>();
+        final Set<String> pendingEmployeeIds = new HashSet<>();
+        final Map<String, Long> userIdByEmployeeId = new HashMap<>();
+        final Map<Long, Long> reportingToByUserId = new HashMap<>();
+        final Map<String, Long> departmentIdByName = new HashMap<>();
+        final Map<Long, Long> departmentIdByDumpId = new HashMap<>();
+        final Map<Long, Long> userIdByDumpId = new HashMap<>();
+        final List<Object[]> managerRefs = new ArrayList<>();
+        final Set<Integer> touchedYears = new TreeSet<>();
+        final List<String> errors = new ArrayList<>();
+        List<UserRow> pendingUsers = new ArrayList<>();
+        List<Object[]> pendingLeaves = new ArrayList<>();
+        boolean privileged;
+        int departmentsCreated;
+        int usersImported;
+        int leavesImported;
+        int approvedLeavesImported;
+        int errorCount;
+
+        ImportRun(ExecutorService hashPool) {
+            this.hashPool = hashPool;
+        }
+    }
+
+    private static class UserRow {
+        String fullName;
+        String username;
+        volatile String password;
+        String email;
+        String department;
+        Long departmentId;
+        String role;
+        Gender gender;
+        LocalDate joinDate;
+        String employeeId;
+        UserStatus status;
+        String disapproveReason;
+        double casualLeaveUsed;
+        double casualLeaveRemaining;
+        double earnedLeaveUsedFirstHalf;
+        double earnedLeaveUsedSecondHalf;
+        double earnedLeaveRemaining;
+        double maternityLeaveUsed;
+        double maternityLeaveRemaining;
+        double paternityLeaveUsed;
+        double paternityLeaveRemaining;
+        Integer lastInitializedYear;
+        double leaveWithoutPayment;
+        double halfDayLwp;
+        Long dumpId;
+        Long managerDumpId;
+        String managerEmployeeId;
+
+        Object[] insertParams(long id) {
+            return new Object[] {id, fullName, username, password, email, department, departmentId, role,
+                    gender != null ? gender.code() : null, joinDate, employeeId, status.code(), disapproveReason, casualLeaveUsed, casualLeaveRemaining, earnedLeaveUsedFirstHalf,
+                    earnedLeaveUsedSecondHalf, earnedLeaveRemaining, maternityLeaveUsed, maternityLeaveRemaining,
+                    paternityLeaveUsed, paternityLeaveRemaining, lastInitializedYear, leaveWithoutPayment, halfDayLwp};
+        }
+    }
+}
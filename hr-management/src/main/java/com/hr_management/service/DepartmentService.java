@@ -2,15 +2,26 @@ package com.hr_management.service;
 
 import com.hr_management.Entity.*;
 import com.hr_management.Repository.*;
+import com.hr_management.dto.AbsenceDay;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,11 +39,22 @@ public class DepartmentService {
     private LeaveApplicationRepository leaveApplicationRepository;
 
     @Autowired
-    private HolidayService holidayService; // New dependency
+    private WorkingDayCalculator workingDayCalculator;
+
+    @Autowired
+    private StaffingCalendar staffingCalendar;
+
+    @Value("${departments.cache-ttl-ms:30000}")
+    private long departmentsCacheTtlMs;
+
+    // Leave types that only count as "on leave" on working days
+    private static final Set<LeaveType> WORKING_DAY_LEAVE_TYPES = EnumSet.of(LeaveType.LWP, LeaveType.HALF_DAY_CL, LeaveType.HALF_DAY_LWP);
+
+    private volatile CachedDepartments cachedDepartments;
 
     // Helper method to check if a date is a working day
     private boolean isWorkingDay(LocalDate date) {
-        return !holidayService.isHoliday(date); // Use HolidayService to check for holidays
+        return workingDayCalculator.isWorkingDay(date);
     }
 
     // Add a new department
@@ -41,6 +63,7 @@ public class DepartmentService {
             logger.error("Attempted to add a department with null or empty name.");
             throw new IllegalArgumentException("Department name cannot be empty");
         }
+        validateMinStaffing(department.getMinStaffing());
 
         Optional<Department> existingDepartment = departmentRepository.findByName(department.getName());
         if (existingDepartment.isPresent()) {
@@ -50,6 +73,7 @@ public class DepartmentService {
 
         try {
             Department savedDepartment = departmentRepository.save(department);
+            cachedDepartments = null;
             logger.info("Successfully added department: {}", savedDepartment.getName());
             return savedDepartment;
         } catch (Exception e) {
@@ -58,6 +82,25 @@ public class DepartmentService {
         }
     }
 
+    // Sets or clears (null) the number of employees that must be present on every working day
+    public Department updateMinStaffing(Long deptId, Integer minStaffing) {
+        validateMinStaffing(minStaffing);
+        Department department = departmentRepository.findById(deptId)
+                .orElseThrow(() -> new IllegalArgumentException("Department not found with id: " + deptId));
+        department.setMinStaffing(minStaffing);
+        Department savedDepartment = departmentRepository.save(department);
+        cachedDepartments = null;
+        staffingCalendar.departmentChanged(savedDepartment.getName());
+        logger.info("Minimum staffing of department '{}' set to {}", savedDepartment.getName(), minStaffing);
+        return savedDepartment;
+    }
+
+    private static void validateMinStaffing(Integer minStaffing) {
+        if (minStaffing != null && minStaffing < 0) {
+            throw new IllegalArgumentException("Minimum staffing cannot be negative");
+        }
+    }
+
     // Get total number of departments
     public int getTotalDepartments() {
         return (int) departmentRepository.count();
@@ -68,47 +111,46 @@ public class DepartmentService {
         return (int) userRepository.countByRole("HOD");
     }
 
-    // Fetch all departments with employeeCount and onLeaveCount
+    // Fetch all departments with employeeCount and onLeaveCount in a single query
     public List<Department> getAllDepartments() {
-        List<Department> departments = departmentRepository.findAll();
         LocalDate today = LocalDate.now();
-
-        for (Department dept : departments) {
-            // Fetch users in the department
-            List<User> deptUsers = userRepository.findByDepartment(dept.getName());
-            dept.setEmployeeCount(deptUsers.size());
-
-            // Fetch leave applications for users in this department
-            List<Long> userIds = deptUsers.stream().map(User::getId).collect(Collectors.toList());
-            List<LeaveApplication> leaveApplications = userIds.isEmpty() ? List.of() :
-                    leaveApplicationRepository.findByUserIdInAndStatus(userIds, "APPROVED");
-
-            // Calculate onLeaveCount (approved leaves active today)
-            Set<Long> onLeaveUserIds = leaveApplications.stream()
-                    .filter(la -> {
-                        LocalDate startDate = la.getStartDate();
-                        LocalDate endDate = la.getEndDate() != null ? la.getEndDate() : startDate;
-                        boolean overlapsToday = (startDate.isEqual(today) || startDate.isBefore(today)) &&
-                                (endDate.isEqual(today) || endDate.isAfter(today));
-                        if (!overlapsToday) return false;
-
-                        // Apply working day logic for CASUAL, LWP, HALF_DAY_CL, HALF_DAY_LWP
-                        String leaveType = la.getLeaveType();
-                        if (List.of("CASUAL", "LWP", "HALF_DAY_CL", "HALF_DAY_LWP").contains(leaveType)) {
-                            return isWorkingDay(today);
-                        }
-                        return true;
-                    })
-                    .map(la -> la.getUser().getId())
-                    .collect(Collectors.toSet());
-            dept.setOnLeaveCount(onLeaveUserIds.size());
-
+        List<Object[]> rows = departmentRepository.findAllWithCounts(today, isWorkingDay(today), WORKING_DAY_LEAVE_TYPES);
+        List<Department> departments = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Department dept = (Department) row[0];
+            dept.setEmployeeCount(((Number) row[1]).intValue());
+            dept.setOnLeaveCount(((Number) row[2]).intValue());
+            departments.add(dept);
             logger.debug("Department '{}': employeeCount={}, onLeaveCount={}", dept.getName(), dept.getEmployeeCount(), dept.getOnLeaveCount());
         }
+        return departments;
+    }
 
+    // Same as getAllDepartments but served from a snapshot for up to departments.cache-ttl-ms;
+    // used by the public department list. Adding a department drops the snapshot.
+    public List<Department> getAllDepartmentsCached() {
+        CachedDepartments cached = cachedDepartments;
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.loadedAt < departmentsCacheTtlMs && cached.day.equals(LocalDate.now())) {
+            return cached.departments;
+        }
+        List<Department> departments = List.copyOf(getAllDepartments());
+        cachedDepartments = new CachedDepartments(departments, now, LocalDate.now());
         return departments;
     }
 
+    private static final class CachedDepartments {
+        private final List<Department> departments;
+        private final long loadedAt;
+        private final LocalDate day;
+
+        private CachedDepartments(List<Department> departments, long loadedAt, LocalDate day) {
+            this.departments = departments;
+            this.loadedAt = loadedAt;
+            this.day = day;
+        }
+    }
+
     // Get Department by Name
     public Optional<Department> getDepartmentByName(String name) {
         return departmentRepository.findByName(name);
@@ -141,9 +183,78 @@ public class DepartmentService {
         return employees;
     }
 
-    // Fetch leave applications by user ID
-    public List<LeaveApplication> getLeaveApplicationsByUserId(Long userId) {
-        return leaveApplicationRepository.findByUserIdAndStatus(userId, "APPROVED");
+    // Same as above, one page of employees ordered by id
+    public List<User> getEmployeesByDepartmentId(Long deptId, Long currentUserId, String userRole, int page, int size) {
+        Optional<Department> departmentOpt = departmentRepository.findById(deptId);
+        if (departmentOpt.isEmpty()) {
+            logger.warn("Department not found with id: {}", deptId);
+            return List.of();
+        }
+        String departmentName = departmentOpt.get().getName();
+        PageRequest pageRequest = PageRequest.of(page, size);
+        if ("PROJECT_MANAGER".equals(userRole)) {
+            return userRepository.findByDepartmentAndReportingToId(departmentName, currentUserId, pageRequest);
+        }
+        return userRepository.findByDepartmentOrderById(departmentName, pageRequest);
+    }
+
+    // Approved leaves of all the given users in one query, grouped by user id. from/to are optional
+    // and limit the result to leaves overlapping that window.
+    public Map<Long, List<LeaveApplication>> getApprovedLeavesByUserIds(List<Long> userIds, LocalDate from, LocalDate to) {
+        Map<Long, List<LeaveApplication>> leavesByUser = new LinkedHashMap<>();
+        if (userIds.isEmpty()) {
+            return leavesByUser;
+        }
+        for (LeaveApplication leave : leaveApplicationRepository.findApprovedByUserIdInAndWindow(userIds, from, to)) {
+            leavesByUser.computeIfAbsent(leave.getUser().getId(), id -> new ArrayList<>()).add(leave);
+        }
+        return leavesByUser;
+    }
+
+    // Who is on approved leave on each day of [from, to], from one range query. The intervals are swept in
+    // start order while a heap ordered by end date retires finished ones, so each day costs only the leaves
+    // starting or ending on it plus the output. A user counts once per day even with overlapping leaves,
+    // and working-day-only types (LWP, half days) are skipped on holidays as in onLeaveCount.
+    // PROJECT_MANAGERs see only their direct reports.
+    public List<AbsenceDay> getAbsenceCalendar(Long deptId, Long currentUserId, String userRole, LocalDate from, LocalDate to) {
+        Department department = departmentRepository.findById(deptId)
+                .orElseThrow(() -> new IllegalArgumentException("Department not found with id: " + deptId));
+        Long reportingToId = "PROJECT_MANAGER".equals(userRole) ? currentUserId : null;
+        List<Object[]> intervals = new ArrayList<>(leaveApplicationRepository.findApprovedIntervalsByDepartment(
+                department.getName(), reportingToId, from, to));
+        intervals.sort(Comparator.comparing(row -> (LocalDate) row[1]));
+        PriorityQueue<Object[]> active = new PriorityQueue<>(Comparator.comparing(row -> (LocalDate) row[2]));
+        // user id -> number of active leaves, so overlapping leaves of one user are added and retired independently
+        Map<Long, Integer> everyDay = new HashMap<>();
+        Map<Long, Integer> workingDaysOnly = new HashMap<>();
+
+        List<AbsenceDay> days = new ArrayList<>();
+        int next = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            while (next < intervals.size() && !((LocalDate) intervals.get(next)[1]).isAfter(day)) {
+                Object[] interval = intervals.get(next++);
+                activeSet(interval, everyDay, workingDaysOnly).merge((Long) interval[0], 1, Integer::sum);
+                active.add(interval);
+            }
+            while (!active.isEmpty() && ((LocalDate) active.peek()[2]).isBefore(day)) {
+                Object[] interval = active.poll();
+                activeSet(interval, everyDay, workingDaysOnly).computeIfPresent((Long) interval[0],
+                        (userId, count) -> count > 1 ? count - 1 : null);
+            }
+            TreeSet<Long> absent = new TreeSet<>(everyDay.keySet());
+            if (!workingDaysOnly.isEmpty() && isWorkingDay(day)) {
+                absent.addAll(workingDaysOnly.keySet());
+            }
+            days.add(new AbsenceDay(day, List.copyOf(absent)));
+        }
+        logger.debug("Absence calendar for department '{}' from {} to {}: {} leave intervals",
+                department.getName(), from, to, intervals.size());
+        return days;
+    }
+
+    private static Map<Long, Integer> activeSet(Object[] interval, Map<Long, Integer> everyDay,
+                                                Map<Long, Integer> workingDaysOnly) {
+        return WORKING_DAY_LEAVE_TYPES.contains((LeaveType) interval[3]) ? workingDaysOnly : everyDay;
     }
 
     // Fetch department-specific metrics
@@ -171,7 +282,7 @@ public class DepartmentService {
         // Fetch leave applications for users in this department
         List<Long> userIds = deptUsers.stream().map(User::getId).collect(Collectors.toList());
         List<LeaveApplication> leaveApplications = userIds.isEmpty() ? List.of() :
-                leaveApplicationRepository.findByUserIdInAndStatus(userIds, "APPROVED");
+                leaveApplicationRepository.findByUserIdInAndStatus(userIds, LeaveStatus.APPROVED);
 
         // On Leave Today (approved leaves that overlap with today)
         Set<Long> onLeaveUserIds = leaveApplications.stream()
@@ -182,9 +293,8 @@ public class DepartmentService {
                             (endDate.isEqual(today) || endDate.isAfter(today));
                     if (!overlapsToday) return false;
 
-                    // Apply working day logic for CASUAL, LWP, HALF_DAY_CL, HALF_DAY_LWP
-                    String leaveType = la.getLeaveType();
-                    if (List.of("CASUAL", "LWP", "HALF_DAY_CL", "HALF_DAY_LWP").contains(leaveType)) {
+                    // Apply working day logic for LWP, HALF_DAY_CL, HALF_DAY_LWP
+                    if (WORKING_DAY_LEAVE_TYPES.contains(la.getLeaveType())) {
                         return isWorkingDay(today);
                     }
                     return true;
@@ -0,0 +1,248 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.EmailOutboxMessage;
+import com.hr_management.Repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drains the email outbox in the background. Each round claims up to mail.outbox.batch-size due messages
+// (SKIP LOCKED, so instances never claim the same rows), commits the claim, sends them over one SMTP
+// connection and records the outcome. Failures are retried with exponential backoff and end up DEAD
+// after mail.outbox.max-attempts. Delivery is at-least-once: a crash between send and commit resends
+// the message once its lease expires. Sent messages (whose bodies may hold live password-reset links) are
+// deleted after mail.outbox.sent-retention-hours, dead ones after mail.outbox.dead-retention-days.
+// Publishes mail.outbox.pending/dead (queue depth), mail.outbox.send (SMTP time per batch),
+// mail.outbox.delivery (enqueue to sent) and mail.outbox.sent/failed.
+@Component
+public class EmailOutboxDispatcher implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${mail.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${mail.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    // How long a claimed message is reserved for the dispatcher that claimed it
+    @Value("${mail.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${mail.outbox.sent-retention-hours:24}")
+    private long sentRetentionHours;
+
+    // Long enough to look into why they failed
+    @Value("${mail.outbox.dead-retention-days:30}")
+    private long deadRetentionDays;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+
+    // Replaced by the application registry in bindTo; the defaults keep the class usable on its own
+    private Timer sendTimer = Timer.builder("mail.outbox.send").register(new SimpleMeterRegistry());
+    private Timer deliveryTimer = Timer.builder("mail.outbox.delivery").register(new SimpleMeterRegistry());
+    private Counter sentCounter = Counter.builder("mail.outbox.sent").register(new SimpleMeterRegistry());
+    private Counter failedCounter = Counter.builder("mail.outbox.failed").register(new SimpleMeterRegistry());
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mail.outbox.pending", pending, AtomicLong::get).register(registry);
+        Gauge.builder("mail.outbox.dead", dead, AtomicLong::get).register(registry);
+        sendTimer = Timer.builder("mail.outbox.send").register(registry);
+        deliveryTimer = Timer.builder("mail.outbox.delivery").register(registry);
+        sentCounter = Counter.builder("mail.outbox.sent").register(registry);
+        failedCounter = Counter.builder("mail.outbox.failed").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:5000}", initialDelayString = "${mail.outbox.initial-delay-ms:10000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            logger.error("Email outbox dispatch failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${mail.outbox.purge-cron:0 45 3 * * *}")
+    public void purgeOnSchedule() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            logger.error("Email outbox purge failed", e);
+        }
+    }
+
+    // Deletes the messages past their retention; returns how many
+    public int purge() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = transactionTemplate.execute(status -> emailOutboxRepository.deleteExpired(
+                now.minusHours(sentRetentionHours), now.minusDays(deadRetentionDays)));
+        logger.info("Purged {} sent or dead emails from the outbox", deleted);
+        refreshQueueDepth();
+        return deleted;
+    }
+
+    // Sends everything currently due; returns the number of messages sent
+    public int dispatch() {
+        int sent = 0;
+        List<EmailOutboxMessage> batch;
+        do {
+            batch = claim();
+            if (!batch.isEmpty()) {
+                sent += send(batch);
+            }
+        } while (batch.size() == batchSize);
+        refreshQueueDepth();
+        return sent;
+    }
+
+    public void refreshQueueDepth() {
+        pending.set(emailOutboxRepository.countByStatus("PENDING") + emailOutboxRepository.countByStatus("SENDING"));
+        dead.set(emailOutboxRepository.countByStatus("DEAD"));
+    }
+
+    private List<EmailOutboxMessage> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutboxMessage> due = emailOutboxRepository.lockDue(now, PageRequest.of(0, batchSize));
+            for (EmailOutboxMessage message : due) {
+                message.setStatus("SENDING");
+                message.setAttempts(message.getAttempts() + 1);
+                message.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            }
+            return due;
+        });
+    }
+
+    private int send(List<EmailOutboxMessage> batch) {
+        SimpleMailMessage[] mails = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            mails[i] = toMail(batch.get(i));
+        }
+        Map<Object, Exception> failures = new HashMap<>();
+        long startedAt = System.nanoTime();
+        try {
+            mailSender.send(mails);
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                for (SimpleMailMessage mail : mails) {
+                    failures.put(mail, e);
+                }
+            } else {
+                failures.putAll(e.getFailedMessages());
+            }
+        } catch (MailException e) {
+            for (SimpleMailMessage mail : mails) {
+                failures.put(mail, e);
+            }
+        }
+        sendTimer.record(Duration.ofNanos(System.nanoTime() - startedAt));
+
+        List<Long> sentIds = new ArrayList<>();
+        Map<Long, Exception> failedById = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Exception failure = failures.get(mails[i]);
+            if (failure == null) {
+                sentIds.add(batch.get(i).getId());
+            } else {
+                failedById.put(batch.get(i).getId(), failure);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> recordOutcome(sentIds, failedById));
+        return sentIds.size();
+    }
+
+    private void recordOutcome(List<Long> sentIds, Map<Long, Exception> failedById) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>(sentIds);
+        ids.addAll(failedById.keySet());
+        for (EmailOutboxMessage message : emailOutboxRepository.findAllById(ids)) {
+            Exception failure = failedById.get(message.getId());
+            if (failure == null) {
+                message.setStatus("SENT");
+                message.setSentAt(now);
+                message.setLastError(null);
+                deliveryTimer.record(Duration.between(message.getCreatedAt(), now));
+                sentCounter.increment();
+                continue;
+            }
+            failedCounter.increment();
+            message.setLastError(truncate(failure.getMessage()));
+            if (message.getAttempts() >= maxAttempts) {
+                message.setStatus("DEAD");
+                logger.error("Email {} to {} is dead after {} attempts: {}", message.getId(), message.getRecipient(),
+                        message.getAttempts(), failure.getMessage());
+            } else {
+                long backoff = Math.min(maxBackoffSeconds, initialBackoffSeconds << Math.min(message.getAttempts() - 1, 20));
+                message.setStatus("PENDING");
+                message.setNextAttemptAt(now.plusSeconds(backoff));
+                logger.warn("Email {} to {} failed (attempt {} of {}), retrying in {} s: {}", message.getId(),
+                        message.getRecipient(), message.getAttempts(), maxAttempts, backoff, failure.getMessage());
+            }
+        }
+    }
+
+    private SimpleMailMessage toMail(EmailOutboxMessage message) {
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setFrom(fromEmail);
+        mail.setTo(message.getRecipient());
+        mail.setSubject(message.getSubject());
+        mail.setText(message.getBody());
+        return mail;
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+}
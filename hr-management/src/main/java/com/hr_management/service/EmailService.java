@@ -1,71 +1,107 @@
 package com.hr_management.service;
 
+import com.hr_management.Entity.EmailOutboxMessage;
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.EmailOutboxRepository;
+import com.hr_management.service.EmailTemplateRegistry.EmailTemplate;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Emails are rendered from the templates in EmailTemplateRegistry and written to the email_outbox table,
+// inside the caller's transaction when there is one, and sent in the background by EmailOutboxDispatcher,
+// so SMTP never blocks or fails a request.
 @Service
 public class EmailService {
 
+    private static final List<String> TEMPLATES = List.of("password-reset", "signup-confirmation", "signup-approval",
+            "signup-rejection", "leave-request", "approver-digest", "approver-digest-item");
+    private static final int MAX_DIGEST_ITEMS = 100;
+
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxRepository emailOutboxRepository;
 
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    @Autowired
+    private EmailTemplateRegistry templates;
 
     @Value("${frontend.url}")
     private String frontendUrl;
 
+    // Fail at startup rather than on the first email if a template is missing
+    @PostConstruct
+    void checkTemplates() {
+        TEMPLATES.forEach(templates::get);
+    }
+
     public void sendPasswordResetEmail(String toEmail, String token) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(toEmail);
-        message.setSubject("BISAG-N HR System - Password Reset Request");
-        message.setText("Dear User,\n\n" +
-                "You requested a password reset for your BISAG-N HR Management System account.\n" +
-                "Please click the following link to reset your password:\n" +
-                frontendUrl + "/reset-password?token=" + token + "\n\n" +
-                "This link will expire in 1 hour. If you did not request a password reset, please ignore this email.\n\n" +
-                "Best regards,\nBISAG-N Team");
-        message.setFrom(fromEmail);
-        mailSender.send(message);
+        send(toEmail, "password-reset", Map.of("frontendUrl", frontendUrl, "token", token));
     }
 
     public void sendSignupConfirmationEmail(String toEmail, String fullName) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(toEmail);
-        message.setSubject("BISAG-N HR System - Signup Request Submitted");
-        message.setText("Dear " + fullName + ",\n\n" +
-                "Your signup request for the BISAG-N HR Management System has been successfully submitted.\n" +
-                "It is currently awaiting approval from our HR team. You will be notified once your account is reviewed.\n\n" +
-                "Best regards,\nBISAG-N Team");
-        message.setFrom(fromEmail);
-        mailSender.send(message);
+        send(toEmail, "signup-confirmation", Map.of("fullName", fullName));
     }
 
     public void sendSignupApprovalEmail(String toEmail, String fullName) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(toEmail);
-        message.setSubject("BISAG-N HR System - Account Approved");
-        message.setText("Dear " + fullName + ",\n\n" +
-                "Congratulations! Your account for the BISAG-N HR Management System has been approved.\n" +
-                "You can now log in using your credentials at: " + frontendUrl + "\n\n" +
-                "Best regards,\nBISAG-N Team");
-        message.setFrom(fromEmail);
-        mailSender.send(message);
+        send(toEmail, "signup-approval", Map.of("fullName", fullName, "frontendUrl", frontendUrl));
     }
 
     public void sendSignupRejectionEmail(String toEmail, String fullName, String reason) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(toEmail);
-        message.setSubject("BISAG-N HR System - Account Request Rejected");
-        message.setText("Dear " + fullName + ",\n\n" +
-                "We regret to inform you that your signup request for the BISAG-N HR Management System has been rejected.\n" +
-                "Reason: " + reason + "\n\n" +
-                "If you have any questions, please contact our HR team.\n\n" +
-                "Best regards,\nBISAG-N Team");
-        message.setFrom(fromEmail);
-        mailSender.send(message);
+        send(toEmail, "signup-rejection", Map.of("fullName", fullName, "reason", reason != null ? reason : ""));
+    }
+
+    // Sent per application only when leave.notifications.mode=immediate; otherwise ApproverDigestJob covers it
+    public void sendLeaveRequestEmail(User approver, LeaveApplication leave) {
+        send(approver.getEmail(), "leave-request", Map.of(
+                "approverName", approver.getFullName(),
+                "employeeName", leave.getUser().getFullName(),
+                "leaveType", leave.getLeaveType(),
+                "startDate", leave.getStartDate(),
+                "endDate", leave.getEndDate() != null ? leave.getEndDate() : leave.getStartDate(),
+                "reason", leave.getReason() != null ? leave.getReason() : "",
+                "frontendUrl", frontendUrl));
+    }
+
+    // One email listing every pending leave awaiting the approver, oldest start date first
+    public void sendApproverDigestEmail(User approver, List<LeaveApplication> pendingLeaves) {
+        EmailTemplate item = templates.get("approver-digest-item");
+        StringBuilder items = new StringBuilder(pendingLeaves.size() * 96);
+        int listed = Math.min(pendingLeaves.size(), MAX_DIGEST_ITEMS);
+        for (int i = 0; i < listed; i++) {
+            LeaveApplication leave = pendingLeaves.get(i);
+            item.appendBody(items, Map.of(
+                    "employeeName", leave.getUser().getFullName(),
+                    "leaveType", leave.getLeaveType(),
+                    "startDate", leave.getStartDate(),
+                    "endDate", leave.getEndDate() != null ? leave.getEndDate() : leave.getStartDate(),
+                    "appliedOn", leave.getAppliedOn() != null ? leave.getAppliedOn() : ""));
+        }
+        if (pendingLeaves.size() > listed) {
+            items.append("... and ").append(pendingLeaves.size() - listed).append(" more\n");
+        }
+        send(approver.getEmail(), "approver-digest", Map.of(
+                "approverName", approver.getFullName(),
+                "count", pendingLeaves.size(),
+                "items", items,
+                "frontendUrl", frontendUrl));
+    }
+
+    private void send(String toEmail, String templateName, Map<String, ?> values) {
+        EmailTemplate template = templates.get(templateName);
+        enqueue(toEmail, template.renderSubject(values), template.renderBody(values));
+    }
+
+    public void enqueue(String toEmail, String subject, String body) {
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setRecipient(toEmail);
+        message.setSubject(subject);
+        message.setBody(body);
+        message.setNextAttemptAt(LocalDateTime.now());
+        emailOutboxRepository.save(message);
     }
-}
\ No newline at end of file
+}
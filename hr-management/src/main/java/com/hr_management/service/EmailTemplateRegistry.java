@@ -0,0 +1,145 @@
+package com.hr_management.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Email templates from classpath:email-templates/*.txt, parsed once at startup. An optional first line
+// "Subject: ..." is the subject and the rest (after one blank line) the body; both may use {{name}}
+// placeholders. Parsing splits each template into literal and placeholder parts, so rendering is a
+// single pass into a pre-sized StringBuilder. A malformed template fails startup.
+@Component
+public class EmailTemplateRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateRegistry.class);
+
+    private static final String LOCATION = "classpath:email-templates/*.txt";
+    private static final String SUBJECT_PREFIX = "Subject:";
+
+    private final Map<String, EmailTemplate> templates = new HashMap<>();
+
+    @PostConstruct
+    void load() throws IOException {
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            String filename = resource.getFilename();
+            String name = filename.substring(0, filename.length() - ".txt".length());
+            String source = resource.getContentAsString(StandardCharsets.UTF_8).replace("\r\n", "\n");
+            templates.put(name, parse(name, source));
+        }
+        logger.info("Loaded {} email templates", templates.size());
+    }
+
+    public EmailTemplate get(String name) {
+        EmailTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("No email template named " + name);
+        }
+        return template;
+    }
+
+    static EmailTemplate parse(String name, String source) {
+        String subject = null;
+        String body = source;
+        if (source.startsWith(SUBJECT_PREFIX)) {
+            int lineEnd = source.indexOf('\n');
+            subject = (lineEnd < 0 ? source.substring(SUBJECT_PREFIX.length()) : source.substring(SUBJECT_PREFIX.length(), lineEnd)).trim();
+            body = lineEnd < 0 ? "" : source.substring(lineEnd + 1);
+            if (body.startsWith("\n")) {
+                body = body.substring(1);
+            }
+        }
+        return new EmailTemplate(name, subject != null ? compile(name, subject) : null, compile(name, body));
+    }
+
+    private static Part[] compile(String name, String text) {
+        List<Part> parts = new ArrayList<>();
+        int position = 0;
+        while (position < text.length()) {
+            int open = text.indexOf("{{", position);
+            if (open < 0) {
+                parts.add(new Part(text.substring(position), false));
+                break;
+            }
+            int close = text.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalStateException("Unclosed placeholder in email template " + name);
+            }
+            if (open > position) {
+                parts.add(new Part(text.substring(position, open), false));
+            }
+            String placeholder = text.substring(open + 2, close).trim();
+            if (placeholder.isEmpty()) {
+                throw new IllegalStateException("Empty placeholder in email template " + name);
+            }
+            parts.add(new Part(placeholder, true));
+            position = close + 2;
+        }
+        return parts.toArray(new Part[0]);
+    }
+
+    private record Part(String text, boolean placeholder) {
+    }
+
+    public static final class EmailTemplate {
+        private final String name;
+        private final Part[] subject;
+        private final Part[] body;
+        private final int bodyLiteralLength;
+
+        private EmailTemplate(String name, Part[] subject, Part[] body) {
+            this.name = name;
+            this.subject = subject;
+            this.body = body;
+            int length = 0;
+            for (Part part : body) {
+                length += part.placeholder() ? 16 : part.text().length();
+            }
+            this.bodyLiteralLength = length;
+        }
+
+        public String renderSubject(Map<String, ?> values) {
+            if (subject == null) {
+                throw new IllegalStateException("Email template " + name + " has no subject");
+            }
+            return render(subject, values, 64).toString();
+        }
+
+        public String renderBody(Map<String, ?> values) {
+            return render(body, values, bodyLiteralLength).toString();
+        }
+
+        // Appends the body to an existing builder, for templates repeated inside another one
+        public void appendBody(StringBuilder out, Map<String, ?> values) {
+            append(out, body, values);
+        }
+
+        private StringBuilder render(Part[] parts, Map<String, ?> values, int capacity) {
+            StringBuilder out = new StringBuilder(capacity);
+            append(out, parts, values);
+            return out;
+        }
+
+        private void append(StringBuilder out, Part[] parts, Map<String, ?> values) {
+            for (Part part : parts) {
+                if (!part.placeholder()) {
+                    out.append(part.text());
+                    continue;
+                }
+                if (!values.containsKey(part.text())) {
+                    throw new IllegalArgumentException("No value for {{" + part.text() + "}} in email template " + name);
+                }
+                out.append(values.get(part.text()));
+            }
+        }
+    }
+}
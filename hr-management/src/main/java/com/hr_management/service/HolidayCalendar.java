@@ -0,0 +1,92 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Holiday;
+import com.hr_management.Repository.HolidayRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory index of the holidays table, one entry per year.
+// A year is loaded with a single query the first time it is needed and reloaded whenever
+// a holiday in that year is added or deleted through HolidayService.
+@Component
+public class HolidayCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(HolidayCalendar.class);
+
+    @Autowired
+    private HolidayRepository holidayRepository;
+
+    private final Map<Integer, YearCalendar> calendarsByYear = new ConcurrentHashMap<>();
+
+    public boolean isHoliday(LocalDate date) {
+        return yearCalendar(date.getYear()).holidays.get(date.getDayOfYear() - 1);
+    }
+
+    // Number of non-holiday days in [start, end], both inclusive
+    public int countWorkingDays(LocalDate start, LocalDate end) {
+        if (start == null || end == null || end.isBefore(start)) {
+            return 0;
+        }
+        int workingDays = 0;
+        for (int year = start.getYear(); year <= end.getYear(); year++) {
+            YearCalendar calendar = yearCalendar(year);
+            int fromIndex = (year == start.getYear()) ? start.getDayOfYear() - 1 : 0;
+            int toIndex = (year == end.getYear()) ? end.getDayOfYear() : calendar.length();
+            workingDays += calendar.workingDaysBefore[toIndex] - calendar.workingDaysBefore[fromIndex];
+        }
+        return workingDays;
+    }
+
+    // Makes sure every year in [fromYear, toYear] is loaded so later lookups are pure memory reads
+    public void preload(int fromYear, int toYear) {
+        for (int year = fromYear; year <= toYear; year++) {
+            yearCalendar(year);
+        }
+    }
+
+    public void refresh(int year) {
+        calendarsByYear.put(year, load(year));
+    }
+
+    private YearCalendar yearCalendar(int year) {
+        return calendarsByYear.computeIfAbsent(year, this::load);
+    }
+
+    private YearCalendar load(int year) {
+        List<Holiday> holidays = holidayRepository.findByDateBetween(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+        BitSet holidayBits = new BitSet(Year.of(year).length());
+        for (Holiday holiday : holidays) {
+            holidayBits.set(holiday.getDate().getDayOfYear() - 1);
+        }
+        logger.debug("Loaded holiday calendar for {}: {} holidays", year, holidayBits.cardinality());
+        return new YearCalendar(holidayBits, Year.of(year).length());
+    }
+
+    // Immutable snapshot of one year: the holiday bitset and the cumulative working-day count,
+    // where workingDaysBefore[i] is the number of working days among the first i days of the year.
+    private static final class YearCalendar {
+        private final BitSet holidays;
+        private final int[] workingDaysBefore;
+
+        private YearCalendar(BitSet holidays, int daysInYear) {
+            this.holidays = holidays;
+            this.workingDaysBefore = new int[daysInYear + 1];
+            for (int day = 0; day < daysInYear; day++) {
+                workingDaysBefore[day + 1] = workingDaysBefore[day] + (holidays.get(day) ? 0 : 1);
+            }
+        }
+
+        private int length() {
+            return workingDaysBefore.length - 1;
+        }
+    }
+}
@@ -14,6 +14,9 @@ public class HolidayService {
     @Autowired
     private HolidayRepository holidayRepository;
 
+    @Autowired
+    private HolidayCalendar holidayCalendar;
+
     public List<Holiday> getAllHolidays() {
         return holidayRepository.findAll();
     }
@@ -26,17 +29,23 @@ public class HolidayService {
         if (holidayRepository.existsByDate(holiday.getDate())) {
             throw new IllegalArgumentException("A holiday already exists on this date.");
         }
-        return holidayRepository.save(holiday);
+        Holiday savedHoliday = holidayRepository.save(holiday);
+        holidayCalendar.refresh(savedHoliday.getDate().getYear());
+        return savedHoliday;
     }
 
     public void deleteHoliday(Long id) {
-        if (!holidayRepository.existsById(id)) {
-            throw new IllegalArgumentException("Holiday not found.");
-        }
-        holidayRepository.deleteById(id);
+        Holiday holiday = holidayRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Holiday not found."));
+        holidayRepository.delete(holiday);
+        holidayCalendar.refresh(holiday.getDate().getYear());
     }
 
     public boolean isHoliday(LocalDate date) {
-        return holidayRepository.findByDate(date) != null;
+        return holidayCalendar.isHoliday(date);
+    }
+
+    public int countWorkingDays(LocalDate startDate, LocalDate endDate) {
+        return holidayCalendar.countWorkingDays(startDate, endDate);
     }
 }
\ No newline at end of file
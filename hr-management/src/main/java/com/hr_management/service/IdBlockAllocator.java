@@ -0,0 +1,84 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.PooledTableIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Owns the id_generators rows behind PooledTableIdGenerator. At startup every row is raised above the
+// table's current MAX(id), so ids already handed out by AUTO_INCREMENT are never reused. Plain JDBC
+// writers (BulkImportService) reserve whole blocks here; Hibernate and they update the same row under
+// a row lock, so their ranges never overlap.
+@Component
+public class IdBlockAllocator implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdBlockAllocator.class);
+
+    static final List<String> TABLES = List.of("users", "leave_applications", "holidays", "pending_signups",
+            "password_reset_tokens", "departments", "roles", "leave_usage_counters", "email_outbox");
+
+    private static final String SELECT_SQL = "SELECT " + PooledTableIdGenerator.VALUE_COLUMN + " FROM "
+            + PooledTableIdGenerator.TABLE_NAME + " WHERE " + PooledTableIdGenerator.SEGMENT_COLUMN + " = ? FOR UPDATE";
+    private static final String UPDATE_SQL = "UPDATE " + PooledTableIdGenerator.TABLE_NAME + " SET "
+            + PooledTableIdGenerator.VALUE_COLUMN + " = ? WHERE " + PooledTableIdGenerator.SEGMENT_COLUMN + " = ?";
+    private static final String INSERT_SQL = "INSERT INTO " + PooledTableIdGenerator.TABLE_NAME + " ("
+            + PooledTableIdGenerator.SEGMENT_COLUMN + ", " + PooledTableIdGenerator.VALUE_COLUMN + ") VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate requiresNew;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        // Reservations commit on their own so the row lock is held only briefly
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String table : TABLES) {
+            requiresNew.executeWithoutResult(status -> {
+                long next = lockedNextId(table);
+                logger.debug("Next id for {} is {}", table, next);
+            });
+        }
+    }
+
+    // Reserves count consecutive ids for the table and returns the first one
+    public long allocate(String table, int count) {
+        if (!TABLES.contains(table)) {
+            throw new IllegalArgumentException("No id generator for table " + table);
+        }
+        return requiresNew.execute(status -> {
+            long first = lockedNextId(table);
+            jdbcTemplate.update(UPDATE_SQL, first + count, table);
+            return first;
+        });
+    }
+
+    // Current value of the row, raised past MAX(id) (and created) if needed; the row stays locked
+    private long lockedNextId(String table) {
+        long floor = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Long.class);
+        List<Long> current = jdbcTemplate.queryForList(SELECT_SQL, Long.class, table);
+        if (current.isEmpty()) {
+            jdbcTemplate.update(INSERT_SQL, table, floor);
+            return floor;
+        }
+        if (current.get(0) < floor) {
+            logger.info("Raising the id generator for {} from {} to {}", table, current.get(0), floor);
+            jdbcTemplate.update(UPDATE_SQL, floor, table);
+            return floor;
+        }
+        return current.get(0);
+    }
+}
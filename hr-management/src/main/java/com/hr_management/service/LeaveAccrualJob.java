@@ -0,0 +1,209 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Runs the year rollover, monthly CL accrual and EL snapshot refresh for every user ahead of time,
+// so user requests never pay for it. Users are walked in id order, one transaction per chunk.
+// Each user is idempotent (LeaveAccrualService.rollover is a no-op once done), so a run that fails
+// part-way can simply be run again; with resume=true it continues after the last committed chunk.
+@Component
+public class LeaveAccrualJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveAccrualJob.class);
+
+    private static final int UNCHANGED = -1;
+    private static final int UPDATED = 1;
+    private static final int SKIPPED = 2;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveAccrualService leaveAccrualService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LeaveMutationGuard leaveMutationGuard;
+
+    @Autowired
+    private LeaveUsageService leaveUsageService;
+
+    @Value("${leave.accrual.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${leave.accrual.run-on-startup:true}")
+    private boolean runOnStartup;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile String state = "IDLE";
+    private volatile LocalDate runDate;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long lastProcessedId;
+    private volatile int processed;
+    private volatile int updated;
+    private volatile int skipped;
+    private volatile String lastError;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(2) // after LeaveUsageReconciler, whose counters the EL snapshot is computed from
+    public void runOnStartup() {
+        if (runOnStartup) {
+            runMonthly();
+        }
+    }
+
+    // 00:05 on the first of every month; the January run is the year rollover
+    @Scheduled(cron = "${leave.accrual.cron:0 5 0 1 * *}")
+    public void runMonthly() {
+        run(LocalDate.now(), false);
+    }
+
+    // Returns false if a run is already in progress
+    public boolean run(LocalDate date, boolean resume) {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Leave accrual job already running, ignoring request for {}", date);
+            return false;
+        }
+        try {
+            long afterId = (resume && date.equals(runDate)) ? lastProcessedId : 0L;
+            if (afterId == 0L) {
+                processed = 0;
+                updated = 0;
+                skipped = 0;
+            }
+            runDate = date;
+            lastProcessedId = afterId;
+            startedAt = LocalDateTime.now();
+            finishedAt = null;
+            lastError = null;
+            state = "RUNNING";
+            logger.info("Leave accrual job started for {} after user id {}, chunk size {}", date, afterId, chunkSize);
+
+            long startNanos = System.nanoTime();
+            while (true) {
+                long afterChunk = lastProcessedId;
+                long[] counts;
+                try {
+                    counts = transactionTemplate.execute(status -> processChunk(afterChunk, date));
+                } catch (ConcurrencyFailureException e) {
+                    // A leave mutation changed a user of this chunk meanwhile; redo it one user at a time
+                    logger.warn("Leave accrual chunk after user id {} conflicted with a concurrent update, retrying per user", afterChunk);
+                    counts = processChunkPerUser(afterChunk, date);
+                }
+                if (counts == null || counts[0] == 0) {
+                    break;
+                }
+                // Only advanced once the chunk has committed, so resume never skips a user
+                lastProcessedId = counts[3];
+                processed += (int) counts[0];
+                updated += (int) counts[1];
+                skipped += (int) counts[2];
+                double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+                logger.info("Leave accrual progress: {} users processed ({} updated, {} skipped), last id {}, {} users/s",
+                        processed, updated, skipped, lastProcessedId, String.format("%.1f", processed / Math.max(seconds, 0.001)));
+            }
+            state = "COMPLETED";
+            logger.info("Leave accrual job for {} finished: {}", date, getStatus());
+            return true;
+        } catch (RuntimeException e) {
+            state = "FAILED";
+            lastError = e.getMessage();
+            logger.error("Leave accrual job for {} failed after user id {}: {}", date, lastProcessedId, e.getMessage(), e);
+            return true;
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    // One chunk in one transaction: {processed, updated, skipped, last id}
+    private long[] processChunk(long afterId, LocalDate date) {
+        List<Long> ids = userRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return new long[] {0, 0, 0, afterId};
+        }
+        long[] counts = {ids.size(), 0, 0, ids.get(ids.size() - 1)};
+        Map<Long, LeaveUsage> usage = leaveUsageService.loadUsageByUser(ids, date.getYear());
+        for (User user : userRepository.findWithClAccrualByIdIn(ids)) {
+            int outcome = processUser(user, date, usage.get(user.getId()));
+            if (outcome != UNCHANGED) {
+                counts[outcome]++;
+            }
+        }
+        return counts;
+    }
+
+    // Same chunk, each user in its own transaction under the leave lock, which retries on conflict
+    private long[] processChunkPerUser(long afterId, LocalDate date) {
+        List<Long> ids = userRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return new long[] {0, 0, 0, afterId};
+        }
+        long[] counts = {ids.size(), 0, 0, ids.get(ids.size() - 1)};
+        for (Long id : ids) {
+            int outcome = leaveMutationGuard.execute(id, () -> userRepository.findWithClAccrualByIdIn(List.of(id)).stream()
+                    .mapToInt(user -> processUser(user, date, leaveUsageService.loadUsage(id, date.getYear())))
+                    .findFirst().orElse(UNCHANGED));
+            if (outcome != UNCHANGED) {
+                counts[outcome]++;
+            }
+        }
+        return counts;
+    }
+
+    // Index into the chunk counts of what happened to the user: UPDATED, SKIPPED, or UNCHANGED (not counted)
+    private int processUser(User user, LocalDate date, LeaveUsage usage) {
+        if ("ADMIN".equals(user.getRole()) || user.getJoinDate() == null) {
+            return SKIPPED;
+        }
+        if (leaveAccrualService.rollover(user, date, usage)) {
+            userRepository.save(user);
+            return UPDATED;
+        }
+        return UNCHANGED;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("runDate", runDate);
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        status.put("lastProcessedId", lastProcessedId);
+        status.put("processed", processed);
+        status.put("updated", updated);
+        status.put("skipped", skipped);
+        if (startedAt != null) {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            double seconds = Duration.between(startedAt, end).toMillis() / 1000.0;
+            status.put("usersPerSecond", Math.round(processed / Math.max(seconds, 0.001) * 10.0) / 10.0);
+        }
+        status.put("lastError", lastError);
+        return status;
+    }
+}
@@ -0,0 +1,136 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveBalance;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+// Owns the yearly state stored on LeaveBalance: the year rollover and the monthly CL accrual map.
+// LeaveAccrualJob and the mutating paths call initializeYear; balance reads use monthlyClAccrual,
+// which derives the same map in memory when the stored one has not been rolled over yet.
+@Service
+public class LeaveAccrualService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveAccrualService.class);
+    private static final double MONTHLY_CL_ACCRUAL = 1.0;
+
+    @Autowired
+    private LeaveUsageService leaveUsageService;
+
+    // Brings the user's LeaveBalance up to the given year. Returns true if anything was changed,
+    // in which case the caller is responsible for saving the user.
+    public boolean initializeYear(User user, int year) {
+        boolean changed = false;
+        LeaveBalance leaveBalance = user.getLeaveBalance();
+        if (leaveBalance == null) {
+            leaveBalance = new LeaveBalance();
+            user.setLeaveBalance(leaveBalance);
+            changed = true;
+        }
+        LocalDate joinDate = requireJoinDate(user);
+
+        if (leaveBalance.getLastInitializedYear() == null || leaveBalance.getLastInitializedYear() != year) {
+            leaveBalance.setCasualLeaveUsed(0.0);
+            leaveBalance.setMonthlyClAccrual(new HashMap<>());
+            leaveBalance.setLastInitializedYear(year);
+            changed = true;
+        }
+
+        Map<Integer, Double> monthlyClAccrual = leaveBalance.getMonthlyClAccrual();
+        for (int month = firstAccrualMonth(joinDate, year); month <= 12; month++) {
+            if (monthlyClAccrual.putIfAbsent(month, MONTHLY_CL_ACCRUAL) == null) {
+                changed = true;
+            }
+        }
+        if (changed) {
+            logger.debug("Initialized leave year {} for user {}", year, user.getId());
+        }
+        return changed;
+    }
+
+    // CL accrual per month for the given year, without touching the entity
+    public Map<Integer, Double> monthlyClAccrual(User user, int year) {
+        LocalDate joinDate = requireJoinDate(user);
+        Map<Integer, Double> accrual = new HashMap<>();
+        LeaveBalance leaveBalance = user.getLeaveBalance();
+        if (leaveBalance != null && Integer.valueOf(year).equals(leaveBalance.getLastInitializedYear())) {
+            accrual.putAll(leaveBalance.getMonthlyClAccrual());
+        }
+        for (int month = firstAccrualMonth(joinDate, year); month <= 12; month++) {
+            accrual.putIfAbsent(month, MONTHLY_CL_ACCRUAL);
+        }
+        return accrual;
+    }
+
+    // Year initialization plus a refresh of the stored CL/EL snapshot on LeaveBalance, as run by
+    // LeaveAccrualJob. Returns true if the user needs saving; a second run on the same day is a no-op.
+    public boolean rollover(User user, LocalDate date) {
+        return rollover(user, date, leaveUsageService.loadUsage(user.getId(), date.getYear()));
+    }
+
+    // Same, with the user's counters for date's year already loaded (LeaveAccrualJob loads a chunk at a time)
+    public boolean rollover(User user, LocalDate date, LeaveUsage usage) {
+        boolean changed = initializeYear(user, date.getYear());
+        LeaveBalance leaveBalance = user.getLeaveBalance();
+
+        double clUsed = usage.approved(LeaveType.CL);
+        double clRemaining = Math.max(0, accruedCl(user, date.getYear(), date.getMonthValue()) - clUsed);
+        double x = usage.used(LeaveType.EL, 1, false);
+        double y = usage.used(LeaveType.EL, 2, true);
+        double elRemaining = availableEl(x, y, date.getMonthValue());
+
+        if (leaveBalance.getCasualLeaveUsed() != clUsed || leaveBalance.getCasualLeaveRemaining() != clRemaining
+                || leaveBalance.getEarnedLeaveUsedFirstHalf() != x || leaveBalance.getEarnedLeaveUsedSecondHalf() != y
+                || leaveBalance.getEarnedLeaveRemaining() != elRemaining) {
+            leaveBalance.setCasualLeaveUsed(clUsed);
+            leaveBalance.setCasualLeaveRemaining(clRemaining);
+            leaveBalance.setEarnedLeaveUsedFirstHalf(x);
+            leaveBalance.setEarnedLeaveUsedSecondHalf(y);
+            leaveBalance.setEarnedLeaveRemaining(elRemaining);
+            changed = true;
+        }
+        return changed;
+    }
+
+    // CL accrued from the first accrual month of the year up to and including upToMonth
+    public double accruedCl(User user, int year, int upToMonth) {
+        LocalDate joinDate = requireJoinDate(user);
+        if (year < joinDate.getYear()) return 0.0;
+        Map<Integer, Double> accrual = monthlyClAccrual(user, year);
+        double total = 0.0;
+        for (int month = firstAccrualMonth(joinDate, year); month <= Math.min(12, upToMonth); month++) {
+            total += accrual.getOrDefault(month, 0.0);
+        }
+        return total;
+    }
+
+    // EL still available given first-half usage x and second-half usage y (including pending).
+    // Unused first-half EL carries over into the second half.
+    public double availableEl(double x, double y, int month) {
+        if (month <= 6) {
+            return Math.max(0, LeaveBalance.EL_TOTAL_ANNUAL - x - y);
+        }
+        double carryover = Math.max(0, LeaveBalance.EL_FIRST_HALF - x - y);
+        return Math.max(0, (LeaveBalance.EL_SECOND_HALF + carryover) - y);
+    }
+
+    private int firstAccrualMonth(LocalDate joinDate, int year) {
+        return (joinDate.getYear() == year) ? joinDate.getMonthValue() : 1;
+    }
+
+    private LocalDate requireJoinDate(User user) {
+        LocalDate joinDate = user.getJoinDate();
+        if (joinDate == null) {
+            logger.error("Join date is null for user: {}", user.getId());
+            throw new RuntimeException("User join date is not set. Please contact HR.");
+        }
+        return joinDate;
+    }
+}
@@ -0,0 +1,64 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.StringJoiner;
+
+// Rewrites leave rows still holding the old full names ('APPROVED', 'HALF_DAY_CL', ...) to the short codes
+// the converters read. Runs before the startup reconcile, and is a no-op once nothing is left to rewrite.
+// db/leave-codes.sql does the same and also narrows the columns.
+@Component
+public class LeaveCodeMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveCodeMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int[] updated = transactionTemplate.execute(status -> new int[] {
+                jdbcTemplate.update(statusUpdate("leave_applications")),
+                jdbcTemplate.update(leaveTypeUpdate("leave_applications")),
+                jdbcTemplate.update(leaveTypeUpdate("leave_usage_counters"))
+        });
+        if (updated[0] + updated[1] + updated[2] > 0) {
+            logger.info("Migrated leave codes: {} statuses, {} leave types, {} usage counters",
+                    updated[0], updated[1], updated[2]);
+        }
+    }
+
+    static String statusUpdate(String table) {
+        StringBuilder cases = new StringBuilder();
+        StringJoiner names = new StringJoiner(", ");
+        for (LeaveStatus status : LeaveStatus.values()) {
+            cases.append(" WHEN '").append(status.name()).append("' THEN '").append(status.code()).append('\'');
+            names.add("'" + status.name() + "'");
+        }
+        return "UPDATE " + table + " SET status = CASE status" + cases + " END WHERE status IN (" + names + ")";
+    }
+
+    // Types whose code equals the name (CL, EL, ...) need no rewrite
+    static String leaveTypeUpdate(String table) {
+        StringBuilder cases = new StringBuilder();
+        StringJoiner names = new StringJoiner(", ");
+        for (LeaveType type : LeaveType.values()) {
+            if (!type.name().equals(type.code())) {
+                cases.append(" WHEN '").append(type.name()).append("' THEN '").append(type.code()).append('\'');
+                names.add("'" + type.name() + "'");
+            }
+        }
+        return "UPDATE " + table + " SET leave_type = CASE leave_type" + cases + " END WHERE leave_type IN (" + names + ")";
+    }
+}
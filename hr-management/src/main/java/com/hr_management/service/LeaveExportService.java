@@ -0,0 +1,152 @@
+package com.hr_management.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.dto.LeaveExportRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.stream.Stream;
+
+// Payroll export of leave applications overlapping a date range, written row by row to the response
+// as CSV or NDJSON. Rows come from a forward-only projection stream and day counts from the in-memory
+// HolidayCalendar, so memory use and query count do not depend on the number of rows.
+@Service
+public class LeaveExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveExportService.class);
+
+    private static final String[] COLUMNS = {"leaveId", "employeeId", "employeeName", "department", "leaveType",
+            "startDate", "endDate", "halfDay", "status", "appliedOn", "approverId", "days", "daysInRange"};
+    private static final int FLUSH_EVERY = 1000;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private WorkingDayCalculator workingDayCalculator;
+
+    @Autowired
+    private HolidayCalendar holidayCalendar;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Called before the response is committed, so a bad request still gets a 400
+    public void validateRequest(LocalDate from, LocalDate to, String format) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("A valid from/to date range is required");
+        }
+        if (!"csv".equalsIgnoreCase(format) && !"ndjson".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format + " (use csv or ndjson)");
+        }
+    }
+
+    // status null exports every status; leaveTypes null or empty exports every type
+    @Transactional(readOnly = true)
+    public long export(LocalDate from, LocalDate to, LeaveStatus status, Collection<LeaveType> leaveTypes, String format, OutputStream out) throws IOException {
+        validateRequest(from, to, format);
+        boolean csv = "csv".equalsIgnoreCase(format);
+        boolean allTypes = leaveTypes == null || leaveTypes.isEmpty();
+        holidayCalendar.preload(from.getYear(), to.getYear());
+
+        long startedAt = System.currentTimeMillis();
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator generator = csv ? null : objectMapper.getFactory().createGenerator(writer);
+        if (generator != null) {
+            // One object per line: no root separator, and flushing the generator must not flush the socket
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            generator.setRootValueSeparator(null);
+        }
+        if (csv) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\n");
+        }
+        try (Stream<LeaveExportRow> stream = leaveApplicationRepository.streamForExport(
+                from, to, status, allTypes, allTypes ? EnumSet.allOf(LeaveType.class) : leaveTypes)) {
+            for (LeaveExportRow row : (Iterable<LeaveExportRow>) stream::iterator) {
+                Object[] values = values(row, from, to);
+                if (csv) {
+                    writeCsvLine(writer, values);
+                } else {
+                    writeJsonLine(generator, writer, values);
+                }
+                if (++rows % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        if (generator != null) {
+            generator.close();
+        }
+        writer.flush();
+        logger.info("Exported {} leave applications from {} to {} as {} in {} ms",
+                rows, from, to, format, System.currentTimeMillis() - startedAt);
+        return rows;
+    }
+
+    private Object[] values(LeaveExportRow row, LocalDate from, LocalDate to) {
+        LocalDate endDate = row.getEndDate() != null ? row.getEndDate() : row.getStartDate();
+        double days = workingDayCalculator.requiredDays(row.getLeaveType(), row.getStartDate(), endDate, row.isHalfDay());
+        LocalDate clippedStart = row.getStartDate().isBefore(from) ? from : row.getStartDate();
+        LocalDate clippedEnd = endDate.isAfter(to) ? to : endDate;
+        double daysInRange = workingDayCalculator.requiredDays(row.getLeaveType(), clippedStart, clippedEnd, row.isHalfDay());
+        return new Object[] {row.getLeaveId(), row.getEmployeeId(), row.getEmployeeName(), row.getDepartment(),
+                row.getLeaveType(), row.getStartDate(), row.getEndDate(), row.isHalfDay(), row.getStatus(),
+                row.getAppliedOn(), row.getApproverId(), days, daysInRange};
+    }
+
+    private void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvField(values[i].toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void writeJsonLine(JsonGenerator generator, Writer writer, Object[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            generator.writeFieldName(COLUMNS[i]);
+            Object value = values[i];
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof Number || value instanceof Boolean) {
+                generator.writeObject(value);
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.flush();
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,91 @@
+package com.hr_management.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Serializes leave mutations (apply, approve, reject, cancel, batch decisions) and other writes to a User
+// row (status, password, reporting line) per employee. Within this instance a striped lock keyed by the
+// employee's id queues them up; across instances the User version column makes the losing transaction
+// fail on commit, and it is retried up to leave.mutation.max-attempts times against fresh state. Must be
+// called outside any surrounding transaction so each attempt gets its own.
+@Component
+public class LeaveMutationGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveMutationGuard.class);
+
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${leave.mutation.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${leave.mutation.lock-timeout-ms:10000}")
+    private long lockTimeoutMs;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public LeaveMutationGuard() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T execute(Long userId, Supplier<T> mutation) {
+        return execute(List.of(userId), mutation);
+    }
+
+    // One transaction covering several employees; stripes are always taken in ascending order so two
+    // overlapping batches cannot deadlock
+    public <T> T execute(Collection<Long> userIds, Supplier<T> mutation) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Long userId : userIds) {
+            stripes.add(Math.floorMod(userId.hashCode(), STRIPES));
+        }
+        List<ReentrantLock> held = new ArrayList<>();
+        try {
+            for (int stripe : stripes) {
+                ReentrantLock lock = locks[stripe];
+                try {
+                    if (!lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        logger.warn("Timed out waiting for the leave lock of users {}", userIds);
+                        throw new RuntimeException("Another leave request for this employee is being processed. Please try again.");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for the leave lock", e);
+                }
+                held.add(lock);
+            }
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> mutation.get());
+                } catch (ConcurrencyFailureException e) {
+                    if (attempt >= maxAttempts) {
+                        logger.error("Leave update for users {} still conflicting after {} attempts", userIds, attempt);
+                        throw new RuntimeException("The leave balance was changed concurrently. Please try again.", e);
+                    }
+                    logger.warn("Concurrent leave update for users {} (attempt {} of {}), retrying", userIds, attempt, maxAttempts);
+                }
+            }
+        } finally {
+            for (ReentrantLock lock : held) {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -11,7 +11,10 @@ public interface LeaveService {
     void approveLeave(Long leaveId);
     void rejectLeave(Long leaveId);
     void cancelLeave(Long leaveId);
+    List<Map<String, Object>> approveLeaves(List<Long> leaveIds);
+    List<Map<String, Object>> rejectLeaves(List<Long> leaveIds);
     List<LeaveApplicationDTO> getPendingLeavesForCurrentUser();
+    List<LeaveApplicationDTO> getSubtreePendingLeavesForCurrentUser();
     List<LeaveApplicationDTO> getCancellableLeavesForCurrentUser();
     Map<String, Integer> getLeaveStatsForCurrentUser();
     List<LeaveApplication> getUserLeaves();
@@ -1,21 +1,36 @@
 package com.hr_management.service;
 
+import com.hr_management.Entity.Gender;
 import com.hr_management.Entity.LeaveApplication;
 import com.hr_management.Entity.LeaveApplicationDTO;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
 import com.hr_management.Entity.User;
 import com.hr_management.Entity.LeaveBalance;
 import com.hr_management.Repository.LeaveApplicationRepository;
 import com.hr_management.Repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.DoubleSupplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,20 +50,55 @@ public class LeaveServiceImpl implements LeaveService {
     @Autowired
     private HolidayService holidayService;
 
+    @Autowired
+    private WorkingDayCalculator workingDayCalculator;
+
+    @Autowired
+    private LeaveUsageService leaveUsageService;
+
+    @Autowired
+    private LeaveAccrualService leaveAccrualService;
+
+    @Autowired
+    private LeaveMutationGuard leaveMutationGuard;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private StaffingCalendar staffingCalendar;
+
+    // immediate: one email per application; digest: ApproverDigestJob batches them; off: none
+    @Value("${leave.notifications.mode:off}")
+    private String notificationMode;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private static final double LWP_ANNUAL_LIMIT = 300.0;
-    private static final double EL_FIRST_HALF = 10.0;
-    private static final double EL_SECOND_HALF = 10.0;
-    private static final double EL_TOTAL_ANNUAL = EL_FIRST_HALF + EL_SECOND_HALF;
     private static final double CL_TOTAL = 12.0;
+    private static final int MAX_BATCH_SIZE = 500;
 
     @Override
-    @Transactional
     public LeaveApplication applyLeave(LeaveApplication application) {
-        logger.info("Applying leave for user: {}, type: {}", userService.getCurrentUser().getId(), application.getLeaveType());
-        User user = userService.getCurrentUser();
+        // Only the id before the lock: the User itself is read inside the guarded transaction
+        Long userId = userService.getCurrentUserSummary().getId();
+        return leaveMutationGuard.execute(userId, () -> doApplyLeave(application, lockForLeaveUpdate(userId)));
+    }
+
+    private LeaveApplication doApplyLeave(LeaveApplication application, User user) {
+        // A retried attempt has to insert afresh
+        application.setId(null);
+        logger.info("Applying leave for user: {}, type: {}", user.getId(), application.getLeaveType());
+
+        // One query for everything the rules below look at: all pending applications plus approved
+        // ones from the start of the earlier of this year and the application's year onwards
+        LocalDate snapshotFrom = LocalDate.of(Math.min(LocalDate.now().getYear(), application.getStartDate().getYear()), 1, 1);
+        LeaveSnapshot snapshot = new LeaveSnapshot(
+                leaveApplicationRepository.findValidationSnapshot(user, snapshotFrom), workingDayCalculator);
 
         // Check for existing pending leave applications
-        List<LeaveApplication> pendingLeaves = leaveApplicationRepository.findByUserAndStatus(user, "PENDING");
+        List<LeaveApplication> pendingLeaves = snapshot.withStatus(LeaveStatus.PENDING);
         if (!pendingLeaves.isEmpty()) {
             StringBuilder errorMessage = new StringBuilder(
                     "You have pending leave applications that must be approved or rejected before applying for a new leave:\n");
@@ -78,12 +128,12 @@ public class LeaveServiceImpl implements LeaveService {
         }
 
         application.setUser(user);
-        application.setStatus("PENDING");
+        application.setStatus(LeaveStatus.PENDING);
         application.setAppliedOn(LocalDate.now());
 
         LocalDate today = LocalDate.now();
         LocalDate earliestAllowedDate = today.minusDays(6);
-        if (application.getLeaveType().equals("CL") || application.getLeaveType().equals("HALF_DAY_CL")) {
+        if (application.getLeaveType().fullDayType() == LeaveType.CL) {
             if (application.getStartDate().isBefore(earliestAllowedDate)) {
                 logger.warn("Attempted to apply CL with start date {} before allowed period (from {}) for user: {}",
                         application.getStartDate(), earliestAllowedDate, user.getId());
@@ -101,29 +151,29 @@ public class LeaveServiceImpl implements LeaveService {
             logger.warn("User {} attempted to apply {} starting on a holiday: {}", user.getId(), application.getLeaveType(), application.getStartDate());
             throw new RuntimeException(application.getLeaveType() + " cannot start on a holiday.");
         }
-        if (!application.getLeaveType().startsWith("HALF_DAY") && application.getEndDate() != null && holidayService.isHoliday(application.getEndDate())) {
+        if (!application.getLeaveType().isHalfDay() && application.getEndDate() != null && holidayService.isHoliday(application.getEndDate())) {
             logger.warn("User {} attempted to apply {} ending on a holiday: {}", user.getId(), application.getLeaveType(), application.getEndDate());
             throw new RuntimeException(application.getLeaveType() + " cannot end on a holiday.");
         }
 
-        if (application.getLeaveType().equals("ML")) {
-            if (!"FEMALE".equalsIgnoreCase(user.getGender())) {
+        if (application.getLeaveType() == LeaveType.ML) {
+            if (user.getGender() != Gender.FEMALE) {
                 logger.warn("User {} (gender: {}) attempted to apply for maternity leave", user.getId(), user.getGender());
                 throw new RuntimeException("Maternity leave is only available for female employees");
             }
             application.setEndDate(application.getStartDate().plusDays(181)); // 182 days inclusive
-            double requiredDays = calculateRequiredDays("ML", application.getStartDate(), application.getEndDate(), false);
+            double requiredDays = calculateRequiredDays(LeaveType.ML, application.getStartDate(), application.getEndDate(), false);
             if (requiredDays != 182.0) {
                 logger.error("ML duration mismatch for user: {}, calculated: {}, expected: 182", user.getId(), requiredDays);
                 throw new RuntimeException("Maternity leave must be exactly 182 days");
             }
-        } else if (application.getLeaveType().equals("PL")) {
-            if (!"MALE".equalsIgnoreCase(user.getGender())) {
+        } else if (application.getLeaveType() == LeaveType.PL) {
+            if (user.getGender() != Gender.MALE) {
                 logger.warn("User {} (gender: {}) attempted to apply for paternity leave", user.getId(), user.getGender());
                 throw new RuntimeException("Paternity leave is only available for male employees");
             }
             application.setEndDate(application.getStartDate().plusDays(14)); // 15 days inclusive
-            double requiredDays = calculateRequiredDays("PL", application.getStartDate(), application.getEndDate(), false);
+            double requiredDays = calculateRequiredDays(LeaveType.PL, application.getStartDate(), application.getEndDate(), false);
             if (requiredDays != 15.0) {
                 logger.error("PL duration mismatch for user: {}, calculated: {}, expected: 15", user.getId(), requiredDays);
                 throw new RuntimeException("Paternity leave must be exactly 15 days");
@@ -138,16 +188,18 @@ public class LeaveServiceImpl implements LeaveService {
 
         application.setApproverId(approver.getId());
 
-        LeaveBalance leaveBalance = initializeLeaveBalance(user);
+        // Normally a no-op, LeaveAccrualJob has already rolled the year over
+        if (leaveAccrualService.initializeYear(user, today.getYear())) {
+            userRepository.save(user);
+        }
 
-        if (application.getLeaveType().startsWith("HALF_DAY")) {
+        if (application.getLeaveType().isHalfDay()) {
             application.setEndDate(application.getStartDate());
             application.setHalfDay(true);
         }
 
         LocalDate effectiveEndDate = application.getEndDate();
-        List<LeaveApplication> overlappingLeaves = leaveApplicationRepository.findOverlappingLeaves(
-                user, application.getStartDate(), effectiveEndDate);
+        List<LeaveApplication> overlappingLeaves = snapshot.overlapping(application.getStartDate(), effectiveEndDate);
         if (!overlappingLeaves.isEmpty()) {
             StringBuilder errorMessage = new StringBuilder(
                     "You already have a pending or approved leave application overlapping with the dates " +
@@ -161,67 +213,73 @@ public class LeaveServiceImpl implements LeaveService {
             throw new RuntimeException(errorMessage.toString());
         }
 
-        if (application.getLeaveType().startsWith("HALF_DAY")) {
+        if (application.getLeaveType().isHalfDay()) {
             LocalDate startDate = application.getStartDate();
-            List<LeaveApplication> existingLeaves = leaveApplicationRepository.findByUserAndStartDate(user, startDate);
-            boolean hasHalfDayLeave = existingLeaves.stream()
-                    .anyMatch(leave -> leave.getLeaveType().startsWith("HALF_DAY") &&
-                            (leave.getStatus().equals("PENDING") || leave.getStatus().equals("APPROVED")));
-            if (hasHalfDayLeave) {
+            if (snapshot.hasHalfDayOn(startDate)) {
                 logger.warn("User {} already has a half-day leave on date: {}", user.getId(), startDate);
                 throw new RuntimeException("You already have a half-day leave application on " + startDate);
             }
         }
 
-        Map<String, Double> balance = calculateLeaveBalance(user);
-        String effectiveLeaveType = application.getLeaveType();
-        if (application.getLeaveType().equals("HALF_DAY_CL")) effectiveLeaveType = "CL";
-        else if (application.getLeaveType().equals("HALF_DAY_EL")) effectiveLeaveType = "EL";
-        else if (application.getLeaveType().equals("HALF_DAY_LWP")) effectiveLeaveType = "LWP";
+        Map<LeaveType, Double> balance = calculateLeaveBalance(user, snapshot);
+        LeaveType effectiveLeaveType = application.getLeaveType().fullDayType();
 
         double requiredDays = calculateRequiredDays(application.getLeaveType(), application.getStartDate(),
                 application.getEndDate(), application.isHalfDay());
         logger.info("Calculated required days for leave application: {}, type: {}: {}",
                 application.getId(), application.getLeaveType(), requiredDays);
 
-        if (effectiveLeaveType.equals("CL")) {
-            validateClApplication(user, application.getStartDate(), application.getEndDate(), requiredDays, balance.get("CL"));
-        }
-
-        if (effectiveLeaveType.equals("EL")) {
-            validateElApplication(user, application.getStartDate(), requiredDays, balance.get("EL"));
+        switch (effectiveLeaveType) {
+            case CL -> validateClApplication(user, application.getStartDate(), application.getEndDate(), requiredDays,
+                    balance.get(LeaveType.CL), snapshot);
+            case EL -> validateElApplication(user, application.getStartDate(), requiredDays, balance.get(LeaveType.EL),
+                    snapshot.usage(today.getYear()));
+            default -> { }
         }
 
         double remainingLeaves = balance.getOrDefault(effectiveLeaveType, 0.0);
-        if (!effectiveLeaveType.equals("LWP") && remainingLeaves < requiredDays) {
+        if (effectiveLeaveType != LeaveType.LWP && remainingLeaves < requiredDays) {
             logger.warn("Insufficient leave balance for user: {}, type: {}, remaining: {}, required: {}",
                     user.getId(), application.getLeaveType(), remainingLeaves, requiredDays);
             throw new RuntimeException("Insufficient " + effectiveLeaveType + " balance. Requested: " + requiredDays);
         }
 
-        if (application.getLeaveType().equals("ML")) {
-            double totalMaternityLeaveUsed = leaveBalance.getMaternityLeaveUsed() + requiredDays;
-            if (totalMaternityLeaveUsed > 182.0) {
+        if (application.getLeaveType() == LeaveType.ML) {
+            double maternityLeaveUsed = snapshot.approvedDays(LeaveType.ML, LocalDate.of(today.getYear(), 1, 1), today);
+            if (maternityLeaveUsed + requiredDays > 182.0) {
                 logger.warn("Total maternity leave exceeds 182 days for user: {}", user.getId());
-                throw new RuntimeException("Total maternity leave cannot exceed 182 days. Used: " + leaveBalance.getMaternityLeaveUsed());
+                throw new RuntimeException("Total maternity leave cannot exceed 182 days. Used: " + maternityLeaveUsed);
             }
-        } else if (application.getLeaveType().equals("PL")) {
-            double totalPaternityLeaveUsed = leaveBalance.getPaternityLeaveUsed() + requiredDays;
-            if (totalPaternityLeaveUsed > 15.0) {
+        } else if (application.getLeaveType() == LeaveType.PL) {
+            double paternityLeaveUsed = snapshot.approvedDays(LeaveType.PL, LocalDate.of(today.getYear(), 1, 1), today);
+            if (paternityLeaveUsed + requiredDays > 15.0) {
                 logger.warn("Total paternity leave exceeds 15 days for user: {}", user.getId());
-                throw new RuntimeException("Total paternity leave cannot exceed 15 days. Used: " + leaveBalance.getPaternityLeaveUsed());
+                throw new RuntimeException("Total paternity leave cannot exceed 15 days. Used: " + paternityLeaveUsed);
             }
         }
 
+        // Already-approved absences only; the rule is enforced again when the leave is approved
+        staffingCalendar.check(application);
+
         application.setRemainingLeaves(remainingLeaves);
         LeaveApplication savedApplication = leaveApplicationRepository.save(application);
+        leaveUsageService.recordStatusChange(savedApplication, null, LeaveStatus.PENDING, requiredDays);
         logger.info("Leave application saved: ID {}", savedApplication.getId());
+        if ("immediate".equals(notificationMode)) {
+            emailService.sendLeaveRequestEmail(approver, savedApplication);
+        }
         return savedApplication;
     }
 
     @Override
-    @Transactional
     public void approveLeave(Long leaveId) {
+        leaveMutationGuard.execute(leaveOwnerId(leaveId), () -> {
+            doApproveLeave(leaveId);
+            return null;
+        });
+    }
+
+    private void doApproveLeave(Long leaveId) {
         logger.info("Approving leave application with ID: {}", leaveId);
         LeaveApplication leave = leaveApplicationRepository.findById(leaveId)
                 .orElseThrow(() -> new RuntimeException("Leave application not found"));
@@ -232,48 +290,29 @@ public class LeaveServiceImpl implements LeaveService {
             logger.warn("User {} attempted to approve leave {} they are not authorized for", currentUser.getId(), leaveId);
             throw new RuntimeException("You are not authorized to approve this leave");
         }
-        if (!leave.getStatus().equals("PENDING")) {
+        if (leave.getStatus() != LeaveStatus.PENDING) {
             logger.warn("Leave application {} is already processed with status: {}", leaveId, leave.getStatus());
             throw new RuntimeException("Leave application is already processed");
         }
 
-        leave.setStatus("APPROVED");
-        User user = leave.getUser();
+        staffingCalendar.reserve(leave);
+        leave.setStatus(LeaveStatus.APPROVED);
+        User user = lockForLeaveUpdate(leave.getUser().getId());
         double requiredDays = calculateRequiredDays(leave.getLeaveType(), leave.getStartDate(),
                 leave.getEndDate(), leave.isHalfDay());
+        leaveUsageService.recordStatusChange(leave, LeaveStatus.PENDING, LeaveStatus.APPROVED, requiredDays);
 
         LeaveBalance leaveBalance = initializeLeaveBalance(user);
         LocalDate currentDate = LocalDate.now();
-        if (leave.getLeaveType().equals("CL") || leave.getLeaveType().equals("HALF_DAY_CL")) {
-            if (!leave.getStartDate().isAfter(currentDate)) {
-                leaveBalance.setCasualLeaveUsed(leaveBalance.getCasualLeaveUsed() + requiredDays);
-            }
-            leaveBalance.setCasualLeaveRemaining(calculateAvailableCl(user, currentDate));
-        } else if (leave.getLeaveType().equals("EL") || leave.getLeaveType().equals("HALF_DAY_EL")) {
-            LocalDate startDate = leave.getStartDate();
-            if (startDate.getMonthValue() <= 6) {
-                leaveBalance.setEarnedLeaveUsedFirstHalf(leaveBalance.getEarnedLeaveUsedFirstHalf() + requiredDays);
-            } else {
-                leaveBalance.setEarnedLeaveUsedSecondHalf(leaveBalance.getEarnedLeaveUsedSecondHalf() + requiredDays);
-            }
-            leaveBalance.setEarnedLeaveRemaining(calculateAvailableEl(user, currentDate));
-        } else if (leave.getLeaveType().equals("ML")) {
-            leaveBalance.setMaternityLeaveUsed(leaveBalance.getMaternityLeaveUsed() + requiredDays);
-            leaveBalance.setMaternityLeaveRemaining(182.0 - leaveBalance.getMaternityLeaveUsed());
-        } else if (leave.getLeaveType().equals("PL")) {
-            leaveBalance.setPaternityLeaveUsed(leaveBalance.getPaternityLeaveUsed() + requiredDays);
-            leaveBalance.setPaternityLeaveRemaining(15.0 - leaveBalance.getPaternityLeaveUsed());
-        } else if (leave.getLeaveType().equals("LWP") || leave.getLeaveType().equals("HALF_DAY_LWP")) {
-            user.setLeaveWithoutPayment(user.getLeaveWithoutPayment() + (leave.getLeaveType().equals("LWP") ? requiredDays : 0));
-            user.setHalfDayLwp(user.getHalfDayLwp() + (leave.getLeaveType().equals("HALF_DAY_LWP") ? requiredDays : 0));
-        }
-
-        Map<String, Double> updatedBalance = calculateLeaveBalance(user);
-        String effectiveLeaveType = leave.getLeaveType();
-        if (leave.getLeaveType().equals("HALF_DAY_CL")) effectiveLeaveType = "CL";
-        else if (leave.getLeaveType().equals("HALF_DAY_EL")) effectiveLeaveType = "EL";
-        else if (leave.getLeaveType().equals("HALF_DAY_LWP")) effectiveLeaveType = "LWP";
-        leave.setRemainingLeaves(updatedBalance.getOrDefault(effectiveLeaveType, 0.0));
+        chargeApprovedLeave(user, leaveBalance, leave, requiredDays, currentDate);
+        switch (leave.getLeaveType().fullDayType()) {
+            case CL -> leaveBalance.setCasualLeaveRemaining(calculateAvailableCl(user, currentDate));
+            case EL -> leaveBalance.setEarnedLeaveRemaining(calculateAvailableEl(user, currentDate));
+            default -> { }
+        }
+
+        Map<LeaveType, Double> updatedBalance = calculateLeaveBalance(user);
+        leave.setRemainingLeaves(updatedBalance.getOrDefault(leave.getLeaveType().fullDayType(), 0.0));
 
         leaveApplicationRepository.save(leave);
         userRepository.save(user);
@@ -282,8 +321,14 @@ public class LeaveServiceImpl implements LeaveService {
     }
 
     @Override
-    @Transactional
     public void rejectLeave(Long leaveId) {
+        leaveMutationGuard.execute(leaveOwnerId(leaveId), () -> {
+            doRejectLeave(leaveId);
+            return null;
+        });
+    }
+
+    private void doRejectLeave(Long leaveId) {
         logger.info("Rejecting leave application with ID: {}", leaveId);
         LeaveApplication leave = leaveApplicationRepository.findById(leaveId)
                 .orElseThrow(() -> new RuntimeException("Leave application not found"));
@@ -294,14 +339,28 @@ public class LeaveServiceImpl implements LeaveService {
             logger.warn("User {} attempted to reject leave {} they are not authorized for", currentUser.getId(), leaveId);
             throw new RuntimeException("You are not authorized to reject this leave");
         }
-        leave.setStatus("REJECTED");
+        // Approved leaves hold staffing days and charged balance; they are undone through cancelLeave
+        if (leave.getStatus() != LeaveStatus.PENDING) {
+            logger.warn("Leave application {} is already processed with status: {}", leaveId, leave.getStatus());
+            throw new RuntimeException("Leave application is already processed");
+        }
+        lockForLeaveUpdate(leave.getUser().getId());
+        leave.setStatus(LeaveStatus.REJECTED);
+        leaveUsageService.recordStatusChange(leave, LeaveStatus.PENDING, LeaveStatus.REJECTED,
+                calculateRequiredDays(leave.getLeaveType(), leave.getStartDate(), leave.getEndDate(), leave.isHalfDay()));
         leaveApplicationRepository.save(leave);
         logger.info("Leave rejected for application ID: {}", leaveId);
     }
 
     @Override
-    @Transactional
     public void cancelLeave(Long leaveId) {
+        leaveMutationGuard.execute(leaveOwnerId(leaveId), () -> {
+            doCancelLeave(leaveId);
+            return null;
+        });
+    }
+
+    private void doCancelLeave(Long leaveId) {
         logger.info("Cancelling leave application with ID: {}", leaveId);
         LeaveApplication leave = leaveApplicationRepository.findById(leaveId)
                 .orElseThrow(() -> new RuntimeException("Leave application not found"));
@@ -313,7 +372,7 @@ public class LeaveServiceImpl implements LeaveService {
             throw new RuntimeException("You are not authorized to canceled this leave");
         }
 
-        if (!leave.getStatus().equals("APPROVED")) {
+        if (leave.getStatus() != LeaveStatus.APPROVED) {
             logger.warn("Leave application {} cannot be cancelled as it is not approved, current status: {}", leaveId, leave.getStatus());
             throw new RuntimeException("Only approved leaves can be cancelled");
         }
@@ -326,58 +385,229 @@ public class LeaveServiceImpl implements LeaveService {
             throw new RuntimeException("Leave cannot be cancelled after 15 days from the end date");
         }
 
-        leave.setStatus("CANCELLED");
-        User user = leave.getUser();
+        staffingCalendar.release(leave);
+        leave.setStatus(LeaveStatus.CANCELLED);
+        User user = lockForLeaveUpdate(leave.getUser().getId());
         LeaveBalance leaveBalance = initializeLeaveBalance(user);
         double requiredDays = calculateRequiredDays(leave.getLeaveType(), leave.getStartDate(),
                 leave.getEndDate(), leave.isHalfDay());
+        leaveUsageService.recordStatusChange(leave, LeaveStatus.APPROVED, LeaveStatus.CANCELLED, requiredDays);
 
-        if (leave.getLeaveType().equals("CL") || leave.getLeaveType().equals("HALF_DAY_CL")) {
-            leaveBalance.setCasualLeaveUsed(Math.max(0, leaveBalance.getCasualLeaveUsed() - requiredDays));
-            leaveBalance.setCasualLeaveRemaining(calculateAvailableCl(user, currentDate));
-        } else if (leave.getLeaveType().equals("EL") || leave.getLeaveType().equals("HALF_DAY_EL")) {
-            LocalDate startDate = leave.getStartDate();
-            if (startDate.getMonthValue() <= 6) {
-                leaveBalance.setEarnedLeaveUsedFirstHalf(Math.max(0, leaveBalance.getEarnedLeaveUsedFirstHalf() - requiredDays));
-            } else {
-                leaveBalance.setEarnedLeaveUsedSecondHalf(Math.max(0, leaveBalance.getEarnedLeaveUsedSecondHalf() - requiredDays));
+        switch (leave.getLeaveType()) {
+            case CL, HALF_DAY_CL -> {
+                leaveBalance.setCasualLeaveUsed(Math.max(0, leaveBalance.getCasualLeaveUsed() - requiredDays));
+                leaveBalance.setCasualLeaveRemaining(calculateAvailableCl(user, currentDate));
             }
-            leaveBalance.setEarnedLeaveRemaining(calculateAvailableEl(user, currentDate));
-        } else if (leave.getLeaveType().equals("ML")) {
-            leaveBalance.setMaternityLeaveUsed(Math.max(0, leaveBalance.getMaternityLeaveUsed() - requiredDays));
-            leaveBalance.setMaternityLeaveRemaining(182.0 - leaveBalance.getMaternityLeaveUsed());
-        } else if (leave.getLeaveType().equals("PL")) {
-            leaveBalance.setPaternityLeaveUsed(Math.max(0, leaveBalance.getPaternityLeaveUsed() - requiredDays));
-            leaveBalance.setPaternityLeaveRemaining(15.0 - leaveBalance.getPaternityLeaveUsed());
-        } else if (leave.getLeaveType().equals("LWP") || leave.getLeaveType().equals("HALF_DAY_LWP")) {
-            if (leave.getLeaveType().equals("LWP")) {
-                user.setLeaveWithoutPayment(Math.max(0, user.getLeaveWithoutPayment() - requiredDays));
-            } else {
-                user.setHalfDayLwp(Math.max(0, user.getHalfDayLwp() - requiredDays));
+            case EL, HALF_DAY_EL -> {
+                LocalDate startDate = leave.getStartDate();
+                if (startDate.getMonthValue() <= 6) {
+                    leaveBalance.setEarnedLeaveUsedFirstHalf(Math.max(0, leaveBalance.getEarnedLeaveUsedFirstHalf() - requiredDays));
+                } else {
+                    leaveBalance.setEarnedLeaveUsedSecondHalf(Math.max(0, leaveBalance.getEarnedLeaveUsedSecondHalf() - requiredDays));
+                }
+                leaveBalance.setEarnedLeaveRemaining(calculateAvailableEl(user, currentDate));
+            }
+            case ML -> {
+                leaveBalance.setMaternityLeaveUsed(Math.max(0, leaveBalance.getMaternityLeaveUsed() - requiredDays));
+                leaveBalance.setMaternityLeaveRemaining(182.0 - leaveBalance.getMaternityLeaveUsed());
+            }
+            case PL -> {
+                leaveBalance.setPaternityLeaveUsed(Math.max(0, leaveBalance.getPaternityLeaveUsed() - requiredDays));
+                leaveBalance.setPaternityLeaveRemaining(15.0 - leaveBalance.getPaternityLeaveUsed());
             }
+            case LWP -> user.setLeaveWithoutPayment(Math.max(0, user.getLeaveWithoutPayment() - requiredDays));
+            case HALF_DAY_LWP -> user.setHalfDayLwp(Math.max(0, user.getHalfDayLwp() - requiredDays));
         }
 
-        Map<String, Double> updatedBalance = calculateLeaveBalance(user);
-        String effectiveLeaveType = leave.getLeaveType();
-        if (leave.getLeaveType().equals("HALF_DAY_CL")) effectiveLeaveType = "CL";
-        else if (leave.getLeaveType().equals("HALF_DAY_EL")) effectiveLeaveType = "EL";
-        else if (leave.getLeaveType().equals("HALF_DAY_LWP")) effectiveLeaveType = "LWP";
-        leave.setRemainingLeaves(updatedBalance.getOrDefault(effectiveLeaveType, 0.0));
+        Map<LeaveType, Double> updatedBalance = calculateLeaveBalance(user);
+        leave.setRemainingLeaves(updatedBalance.getOrDefault(leave.getLeaveType().fullDayType(), 0.0));
 
         leaveApplicationRepository.save(leave);
         userRepository.save(user);
         logger.info("Leave cancelled for user: {}. Leave ID: {}, Type: {}, Days: {}", user.getId(), leaveId, leave.getLeaveType());
     }
 
+    // Charges an approved leave to the used-day fields; CL/EL remaining is left to the caller
+    private void chargeApprovedLeave(User user, LeaveBalance leaveBalance, LeaveApplication leave, double requiredDays, LocalDate currentDate) {
+        switch (leave.getLeaveType()) {
+            case CL, HALF_DAY_CL -> {
+                if (!leave.getStartDate().isAfter(currentDate)) {
+                    leaveBalance.setCasualLeaveUsed(leaveBalance.getCasualLeaveUsed() + requiredDays);
+                }
+            }
+            case EL, HALF_DAY_EL -> {
+                LocalDate startDate = leave.getStartDate();
+                if (startDate.getMonthValue() <= 6) {
+                    leaveBalance.setEarnedLeaveUsedFirstHalf(leaveBalance.getEarnedLeaveUsedFirstHalf() + requiredDays);
+                } else {
+                    leaveBalance.setEarnedLeaveUsedSecondHalf(leaveBalance.getEarnedLeaveUsedSecondHalf() + requiredDays);
+                }
+            }
+            case ML -> {
+                leaveBalance.setMaternityLeaveUsed(leaveBalance.getMaternityLeaveUsed() + requiredDays);
+                leaveBalance.setMaternityLeaveRemaining(182.0 - leaveBalance.getMaternityLeaveUsed());
+            }
+            case PL -> {
+                leaveBalance.setPaternityLeaveUsed(leaveBalance.getPaternityLeaveUsed() + requiredDays);
+                leaveBalance.setPaternityLeaveRemaining(15.0 - leaveBalance.getPaternityLeaveUsed());
+            }
+            case LWP -> user.setLeaveWithoutPayment(user.getLeaveWithoutPayment() + requiredDays);
+            case HALF_DAY_LWP -> user.setHalfDayLwp(user.getHalfDayLwp() + requiredDays);
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> approveLeaves(List<Long> leaveIds) {
+        return decideLeaves(leaveIds, LeaveStatus.APPROVED);
+    }
+
+    @Override
+    public List<Map<String, Object>> rejectLeaves(List<Long> leaveIds) {
+        return decideLeaves(leaveIds, LeaveStatus.REJECTED);
+    }
+
+    // Approves or rejects a batch of pending leaves in one transaction: the leaves and their employees
+    // come from one query, and each employee's balance is recomputed once however many of their
+    // leaves are in the batch. Returns one result per requested id, in request order.
+    private List<Map<String, Object>> decideLeaves(List<Long> leaveIds, LeaveStatus decision) {
+        List<Long> ids = leaveIds == null ? List.of()
+                : leaveIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No leave applications given");
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " leave applications can be processed at once");
+        }
+        Long approverId = userService.getCurrentUser().getId();
+        logger.info("User {} deciding {} leave applications as {}", approverId, ids.size(), decision);
+
+        Set<Long> ownerIds = new HashSet<>();
+        for (Object[] row : leaveApplicationRepository.findUserIdsByIdIn(ids)) {
+            ownerIds.add((Long) row[1]);
+        }
+        Map<Long, String> errors = ownerIds.isEmpty() ? Map.of()
+                : leaveMutationGuard.execute(ownerIds, () -> decideLeavesLocked(ids, decision, approverId));
+
+        String verb = decision == LeaveStatus.APPROVED ? "approved" : "rejected";
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Long id : ids) {
+            String error = ownerIds.isEmpty() ? "Leave application not found" : errors.get(id);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("id", id);
+            result.put("success", error == null);
+            result.put("message", error == null ? "Leave " + verb + " successfully" : error);
+            results.add(result);
+        }
+        return results;
+    }
+
+    // Runs inside the guarded transaction; returns the error for every id that was skipped
+    private Map<Long, String> decideLeavesLocked(List<Long> ids, LeaveStatus decision, Long approverId) {
+        Map<Long, LeaveApplication> leavesById = new HashMap<>();
+        for (LeaveApplication leave : leaveApplicationRepository.findWithUserByIdIn(ids)) {
+            leavesById.put(leave.getId(), leave);
+        }
+
+        Map<Long, String> errors = new HashMap<>();
+        Map<Long, List<LeaveApplication>> leavesByEmployee = new LinkedHashMap<>();
+        for (Long id : ids) {
+            LeaveApplication leave = leavesById.get(id);
+            if (leave == null) {
+                errors.put(id, "Leave application not found");
+                continue;
+            }
+            User approver = leave.getUser().getReportingTo();
+            if (approver == null || !approver.getId().equals(approverId)) {
+                logger.warn("User {} attempted to decide leave {} they are not authorized for", approverId, id);
+                errors.put(id, decision == LeaveStatus.APPROVED ? "You are not authorized to approve this leave"
+                        : "You are not authorized to reject this leave");
+                continue;
+            }
+            if (leave.getStatus() != LeaveStatus.PENDING) {
+                errors.put(id, "Leave application is already processed");
+                continue;
+            }
+            if (decision == LeaveStatus.APPROVED) {
+                try {
+                    staffingCalendar.reserve(leave);
+                } catch (RuntimeException e) {
+                    errors.put(id, e.getMessage());
+                    continue;
+                }
+            }
+            leavesByEmployee.computeIfAbsent(leave.getUser().getId(), key -> new ArrayList<>()).add(leave);
+        }
+
+        LocalDate currentDate = LocalDate.now();
+        for (Map.Entry<Long, List<LeaveApplication>> entry : leavesByEmployee.entrySet()) {
+            User user = lockForLeaveUpdate(entry.getKey());
+            List<LeaveApplication> leaves = entry.getValue();
+            if (decision == LeaveStatus.REJECTED) {
+                for (LeaveApplication leave : leaves) {
+                    leave.setStatus(LeaveStatus.REJECTED);
+                    leaveUsageService.recordStatusChange(leave, LeaveStatus.PENDING, LeaveStatus.REJECTED, workingDayCalculator.requiredDays(leave));
+                }
+                leaveApplicationRepository.saveAll(leaves);
+                continue;
+            }
+
+            LeaveBalance leaveBalance = initializeLeaveBalance(user);
+            for (LeaveApplication leave : leaves) {
+                leave.setStatus(LeaveStatus.APPROVED);
+                double requiredDays = workingDayCalculator.requiredDays(leave);
+                leaveUsageService.recordStatusChange(leave, LeaveStatus.PENDING, LeaveStatus.APPROVED, requiredDays);
+                chargeApprovedLeave(user, leaveBalance, leave, requiredDays, currentDate);
+            }
+            LeaveUsage usage = leaveUsageService.loadUsage(user.getId(), currentDate.getYear());
+            leaveBalance.setCasualLeaveRemaining(calculateAvailableCl(user, currentDate, usage));
+            leaveBalance.setEarnedLeaveRemaining(calculateAvailableEl(user, currentDate, usage));
+            Map<LeaveType, Double> updatedBalance = calculateLeaveBalance(user, usage);
+            for (LeaveApplication leave : leaves) {
+                leave.setRemainingLeaves(updatedBalance.getOrDefault(leave.getLeaveType().fullDayType(), 0.0));
+            }
+            leaveApplicationRepository.saveAll(leaves);
+            userRepository.save(user);
+            logger.info("Approved {} leaves for user {} in one batch", leaves.size(), user.getId());
+        }
+        return errors;
+    }
+
+    private Long leaveOwnerId(Long leaveId) {
+        return leaveApplicationRepository.findUserIdById(leaveId)
+                .orElseThrow(() -> new RuntimeException("Leave application not found"));
+    }
+
+    // The employee as of this transaction, with its version bumped on commit: a concurrent leave
+    // mutation for the same employee on another instance then fails and is retried by the guard.
+    // Under open-in-view the request may already hold an older copy, which find would hand back
+    // unchanged, so it is re-read before the version is taken.
+    private User lockForLeaveUpdate(Long userId) {
+        User user = entityManager.find(User.class, userId);
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+        entityManager.refresh(user);
+        entityManager.lock(user, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        return user;
+    }
+
     @Override
     public List<LeaveApplicationDTO> getPendingLeavesForCurrentUser() {
         User currentUser = userService.getCurrentUser();
         List<User> subordinates = currentUser.getSubordinates();
         List<Long> subordinateIds = subordinates.stream().map(User::getId).collect(Collectors.toList());
-        List<LeaveApplication> pendingLeaves = leaveApplicationRepository.findByUserIdInAndStatus(subordinateIds, "PENDING");
+        List<LeaveApplication> pendingLeaves = leaveApplicationRepository.findByUserIdInAndStatus(subordinateIds, LeaveStatus.PENDING);
         return pendingLeaves.stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
+    // Pending leaves of everyone anywhere under the current user, not just direct reports
+    @Override
+    public List<LeaveApplicationDTO> getSubtreePendingLeavesForCurrentUser() {
+        Long managerId = userService.getCurrentUserSummary().getId();
+        return leaveApplicationRepository.findPendingInSubtree(managerId).stream()
+                .map(this::convertToDTO).collect(Collectors.toList());
+    }
+
     @Override
     public List<LeaveApplicationDTO> getCancellableLeavesForCurrentUser() {
         logger.info("Fetching cancellable leaves for current user");
@@ -391,13 +621,18 @@ public class LeaveServiceImpl implements LeaveService {
 
     @Override
     public Map<String, Integer> getLeaveStatsForCurrentUser() {
-        User currentUser = userService.getCurrentUser();
-        List<User> subordinates = currentUser.getSubordinates();
-        List<Long> subordinateIds = subordinates.stream().map(User::getId).collect(Collectors.toList());
+        Long managerId = userService.getCurrentUserSummary().getId();
         Map<String, Integer> stats = new HashMap<>();
-        stats.put("pending", (int) leaveApplicationRepository.countByUserIdInAndStatus(subordinateIds, "PENDING"));
-        stats.put("approved", (int) leaveApplicationRepository.countByUserIdInAndStatus(subordinateIds, "APPROVED"));
-        stats.put("rejected", (int) leaveApplicationRepository.countByUserIdInAndStatus(subordinateIds, "REJECTED"));
+        stats.put("pending", 0);
+        stats.put("approved", 0);
+        stats.put("rejected", 0);
+        for (Object[] row : leaveApplicationRepository.countByReportingToIdGroupByStatus(managerId)) {
+            LeaveStatus status = (LeaveStatus) row[0];
+            String key = status != null ? status.name().toLowerCase() : null;
+            if (key != null && stats.containsKey(key)) {
+                stats.put(key, ((Long) row[1]).intValue());
+            }
+        }
         return stats;
     }
 
@@ -408,6 +643,7 @@ public class LeaveServiceImpl implements LeaveService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Map<String, Object> getLeaveBalance() {
         User user = userService.getCurrentUser();
         logger.info("Fetching leave balance for user: {}, joinDate: {}", user.getId(), user.getJoinDate());
@@ -416,52 +652,28 @@ public class LeaveServiceImpl implements LeaveService {
             return new HashMap<>();
         }
 
-        LeaveBalance leaveBalance = initializeLeaveBalance(user);
+        // Read-only: nothing here is written back to the user row, year rollover is done by LeaveAccrualService
         LocalDate currentDate = LocalDate.now();
         int currentYear = currentDate.getYear();
         int currentMonth = currentDate.getMonthValue();
 
-        double clUsed = calculateTotalUsedDays(user, List.of("CL", "HALF_DAY_CL"),
-                LocalDate.of(currentYear, 1, 1), LocalDate.of(currentYear, 12, 31), false);
-        double x = calculateTotalUsedDays(user, List.of("EL", "HALF_DAY_EL"),
-                LocalDate.of(currentYear, 1, 1), LocalDate.of(currentYear, 6, 30), false);
-        double y = calculateTotalUsedDays(user, List.of("EL", "HALF_DAY_EL"),
-                LocalDate.of(currentYear, 7, 1), LocalDate.of(currentYear, 12, 31), true);
-        double mlUsed = calculateTotalUsedDays(user, List.of("ML"),
-                LocalDate.of(currentYear, 1, 1), LocalDate.of(currentYear, 12, 31), false);
-        double plUsed = calculateTotalUsedDays(user, List.of("PL"),
-                LocalDate.of(currentYear, 1, 1), LocalDate.of(currentYear, 12, 31), false);
+        LeaveUsage usage = leaveUsageService.loadUsage(user.getId(), currentYear);
+        double clUsed = usage.approved(LeaveType.CL);
+        double x = usage.used(LeaveType.EL, 1, false);
+        double y = usage.used(LeaveType.EL, 2, true);
+        double mlUsed = usage.approved(LeaveType.ML);
+        double plUsed = usage.approved(LeaveType.PL);
 
         logger.info("EL balance for user {}: x (first half used)={}, y (second half used including pending)={}, month={}",
                 user.getId(), x, y, currentMonth);
 
-        leaveBalance.setCasualLeaveUsed(clUsed);
-        leaveBalance.setCasualLeaveRemaining(calculateAvailableCl(user, currentDate));
-        leaveBalance.setEarnedLeaveUsedFirstHalf(x);
-        leaveBalance.setEarnedLeaveUsedSecondHalf(y);
-        double elRemaining = calculateAvailableEl(user, currentDate);
-        leaveBalance.setEarnedLeaveRemaining(elRemaining);
-        if ("FEMALE".equalsIgnoreCase(user.getGender())) {
-            leaveBalance.setMaternityLeaveUsed(mlUsed);
-            leaveBalance.setMaternityLeaveRemaining(182.0 - mlUsed);
-        } else {
-            leaveBalance.setPaternityLeaveUsed(plUsed);
-            leaveBalance.setPaternityLeaveRemaining(15.0 - plUsed);
-        }
-        userRepository.save(user);
-
-        LocalDate startOfYear = LocalDate.of(currentYear, 1, 1);
-        LocalDate endOfYear = LocalDate.of(currentYear, 12, 31);
-        List<LeaveApplication> lwpApplications = leaveApplicationRepository.findByUserAndLeaveTypeInAndStartDateBetween(
-                user, List.of("LWP", "HALF_DAY_LWP"), startOfYear, endOfYear, false);
+        double clRemaining = calculateAvailableCl(user, currentDate, usage);
+        double elRemaining = calculateAvailableEl(user, currentDate, usage);
 
-        double totalLwpUsed = lwpApplications.stream()
-                .filter(app -> app.getStatus().equals("APPROVED"))
-                .mapToDouble(app -> calculateRequiredDays(app.getLeaveType(), app.getStartDate(), app.getEndDate(), app.isHalfDay()))
-                .sum();
+        double totalLwpUsed = usage.approved(LeaveType.LWP);
         double remainingLwp = LWP_ANNUAL_LIMIT - totalLwpUsed;
 
-        double carryover = Math.max(0, EL_FIRST_HALF - x - y);
+        double carryover = Math.max(0, LeaveBalance.EL_FIRST_HALF - x - y);
 
         Map<String, Object> result = new HashMap<>();
         int joinYear = user.getJoinDate().getYear();
@@ -469,17 +681,17 @@ public class LeaveServiceImpl implements LeaveService {
         result.put("casualLeave", Map.of(
                 "total", (joinYear == currentYear ? (13 - joinMonth) : CL_TOTAL),
                 "used", Math.round(clUsed * 10.0) / 10.0,
-                "remaining", Math.round(leaveBalance.getCasualLeaveRemaining() * 10.0) / 10.0
+                "remaining", Math.round(clRemaining * 10.0) / 10.0
         ));
         result.put("earnedLeave", Map.of(
-                "total", EL_TOTAL_ANNUAL,
+                "total", LeaveBalance.EL_TOTAL_ANNUAL,
                 "used", Math.round((x + y) * 10.0) / 10.0,
                 "remaining", Math.round(elRemaining * 10.0) / 10.0,
                 "usedFirstHalf", Math.round(x * 10.0) / 10.0,
                 "usedSecondHalf", Math.round(y * 10.0) / 10.0,
                 "carryover", Math.round(carryover * 10.0) / 10.0
         ));
-        if ("FEMALE".equalsIgnoreCase(user.getGender())) {
+        if (user.getGender() == Gender.FEMALE) {
             result.put("maternityLeave", Map.of(
                     "total", 182.0,
                     "used", Math.round(mlUsed * 10.0) / 10.0,
@@ -499,51 +711,30 @@ public class LeaveServiceImpl implements LeaveService {
         ));
 
         logger.info("Fetched leave balance for user {}: CL used {}, remaining {}; EL used x={}, y={}, remaining={}, total={}; LWP used {}, remaining {}",
-                user.getId(), clUsed, leaveBalance.getCasualLeaveRemaining(),
-                x, y, elRemaining, EL_TOTAL_ANNUAL, totalLwpUsed, remainingLwp);
+                user.getId(), clUsed, clRemaining,
+                x, y, elRemaining, LeaveBalance.EL_TOTAL_ANNUAL, totalLwpUsed, remainingLwp);
         return result;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Map<String, Double> getAvailableClForMonth(int year, int month) {
         User user = userService.getCurrentUser();
         double availableCl = calculateAvailableClUpToMonth(user, month, year);
         return Map.of("availableCl", availableCl);
     }
 
+    // Used by the mutating paths only (apply, approve, cancel)
     private LeaveBalance initializeLeaveBalance(User user) {
+        leaveAccrualService.initializeYear(user, LocalDate.now().getYear());
         LeaveBalance leaveBalance = user.getLeaveBalance();
-        if (leaveBalance == null) {
-            leaveBalance = new LeaveBalance();
-            user.setLeaveBalance(leaveBalance);
-        }
-        LocalDate joinDate = user.getJoinDate();
-        if (joinDate == null) {
-            logger.error("Join date is null for user: {}", user.getId());
-            throw new RuntimeException("User join date is not set. Please contact HR.");
-        }
-        int currentYear = LocalDate.now().getYear();
-        int joinYear = joinDate.getYear();
-        int joinMonth = joinDate.getMonthValue();
-
-        if (leaveBalance.getLastInitializedYear() == null || leaveBalance.getLastInitializedYear() != currentYear) {
-            leaveBalance.setCasualLeaveUsed(0.0);
-            leaveBalance.setMonthlyClAccrual(new HashMap<>());
-            leaveBalance.setLastInitializedYear(currentYear);
-        }
-
-        Map<Integer, Double> monthlyClAccrual = leaveBalance.getMonthlyClAccrual();
-        int startMonth = (joinYear == currentYear) ? joinMonth : 1;
-        for (int month = startMonth; month <= 12; month++) {
-            monthlyClAccrual.putIfAbsent(month, 1.0);
-        }
         leaveBalance.setCasualLeaveRemaining(calculateAvailableCl(user, LocalDate.now()));
 
         leaveBalance.setEarnedLeaveUsedFirstHalf(0.0);
         leaveBalance.setEarnedLeaveUsedSecondHalf(0.0);
         leaveBalance.setEarnedLeaveRemaining(calculateAvailableEl(user, LocalDate.now()));
 
-        if ("FEMALE".equalsIgnoreCase(user.getGender())) {
+        if (user.getGender() == Gender.FEMALE) {
             leaveBalance.setMaternityLeaveUsed(0.0);
             leaveBalance.setMaternityLeaveRemaining(182.0);
         } else {
@@ -557,6 +748,10 @@ public class LeaveServiceImpl implements LeaveService {
     }
 
     private double calculateAvailableCl(User user, LocalDate date) {
+        return calculateAvailableCl(user, date, leaveUsageService.loadUsage(user.getId(), date.getYear()));
+    }
+
+    private double calculateAvailableCl(User user, LocalDate date, LeaveUsage usage) {
         LocalDate joinDate = user.getJoinDate();
         if (joinDate == null) {
             logger.error("Join date is null for user: {}", user.getId());
@@ -569,17 +764,9 @@ public class LeaveServiceImpl implements LeaveService {
 
         if (currentYear < joinYear) return 0.0;
 
-        LeaveBalance leaveBalance = user.getLeaveBalance();
-        Map<Integer, Double> monthlyClAccrual = leaveBalance.getMonthlyClAccrual();
-
-        double totalClAccrued = 0.0;
-        int endMonth = (joinYear == currentYear) ? Math.min(12, currentMonth) : currentMonth;
-        for (int month = (joinYear == currentYear) ? joinMonth : 1; month <= endMonth; month++) {
-            totalClAccrued += monthlyClAccrual.getOrDefault(month, 0.0);
-        }
+        double totalClAccrued = leaveAccrualService.accruedCl(user, currentYear, currentMonth);
 
-        double clUsed = calculateTotalUsedDays(user, List.of("CL", "HALF_DAY_CL"),
-                LocalDate.of(currentYear, 1, 1), LocalDate.of(currentYear, 12, 31), false);
+        double clUsed = usage.approved(LeaveType.CL);
         double availableCl = Math.max(0, totalClAccrued - clUsed);
         logger.info("Calculated available CL for user {} on {}: accrued {}, used (approved only) {}, available {}",
                 user.getId(), date, totalClAccrued, clUsed, availableCl);
@@ -587,6 +774,22 @@ public class LeaveServiceImpl implements LeaveService {
     }
 
     private double calculateAvailableClUpToMonth(User user, int targetMonth, int targetYear) {
+        return calculateAvailableClUpToMonth(user, targetMonth, targetYear, () -> calculateTotalUsedDays(user, LeaveType.CL,
+                LocalDate.of(targetYear, 1, 1), clUsedCutoff(targetYear, targetMonth), false));
+    }
+
+    private double calculateAvailableClUpToMonth(User user, int targetMonth, int targetYear, LeaveSnapshot snapshot) {
+        return calculateAvailableClUpToMonth(user, targetMonth, targetYear, () -> snapshot.approvedDays(LeaveType.CL,
+                LocalDate.of(targetYear, 1, 1), clUsedCutoff(targetYear, targetMonth)));
+    }
+
+    // CL used counts approved CL starting up to today's day-of-month within the target month
+    private LocalDate clUsedCutoff(int targetYear, int targetMonth) {
+        YearMonth yearMonth = YearMonth.of(targetYear, targetMonth);
+        return yearMonth.atDay(Math.min(LocalDate.now().getDayOfMonth(), yearMonth.lengthOfMonth()));
+    }
+
+    private double calculateAvailableClUpToMonth(User user, int targetMonth, int targetYear, DoubleSupplier clUsedSupplier) {
         LocalDate joinDate = user.getJoinDate();
         if (joinDate == null) {
             logger.error("Join date is null for user: {}", user.getId());
@@ -597,17 +800,9 @@ public class LeaveServiceImpl implements LeaveService {
 
         if (targetYear < joinYear || (targetYear == joinYear && targetMonth < joinMonth)) return 0.0;
 
-        LeaveBalance leaveBalance = user.getLeaveBalance();
-        Map<Integer, Double> monthlyClAccrual = leaveBalance.getMonthlyClAccrual();
-
-        double totalClAccrued = 0.0;
-        int endMonth = (joinYear == targetYear) ? Math.min(targetMonth, 12) : targetMonth;
-        for (int month = (joinYear == targetYear) ? joinMonth : 1; month <= endMonth; month++) {
-            totalClAccrued += monthlyClAccrual.getOrDefault(month, 0.0);
-        }
+        double totalClAccrued = leaveAccrualService.accruedCl(user, targetYear, targetMonth);
 
-        double clUsed = calculateTotalUsedDays(user, List.of("CL", "HALF_DAY_CL"),
-                LocalDate.of(targetYear, 1, 1), LocalDate.of(targetYear, targetMonth, LocalDate.now().getDayOfMonth()), false);
+        double clUsed = clUsedSupplier.getAsDouble();
         double availableCl = Math.max(0, totalClAccrued - clUsed);
         logger.info("Calculated available CL for user {} up to {}-{}: accrued {}, used (approved only) {}, available {}",
                 user.getId(), targetMonth, targetYear, totalClAccrued, clUsed, availableCl);
@@ -615,6 +810,10 @@ public class LeaveServiceImpl implements LeaveService {
     }
 
     private double calculateAvailableEl(User user, LocalDate date) {
+        return calculateAvailableEl(user, date, leaveUsageService.loadUsage(user.getId(), date.getYear()));
+    }
+
+    private double calculateAvailableEl(User user, LocalDate date, LeaveUsage usage) {
         LocalDate joinDate = user.getJoinDate();
         if (joinDate == null) {
             logger.error("Join date is null for user: {}", user.getId());
@@ -627,23 +826,11 @@ public class LeaveServiceImpl implements LeaveService {
         logger.info("Calculating EL for user: {}, joinYear: {}, currentYear: {}, currentMonth: {}",
                 user.getId(), joinYear, currentYear, currentMonth);
 
-        LeaveBalance leaveBalance = user.getLeaveBalance();
-        if (leaveBalance == null) {
-            leaveBalance = initializeLeaveBalance(user);
-        }
+        double x = usage.used(LeaveType.EL, 1, false);
+        double y = usage.used(LeaveType.EL, 2, true);
+        double carryover = Math.max(0, LeaveBalance.EL_FIRST_HALF - x - y);
 
-        double x = calculateTotalUsedDays(user, List.of("EL", "HALF_DAY_EL"),
-                LocalDate.of(currentYear, 1, 1), LocalDate.of(currentYear, 6, 30), false);
-        double y = calculateTotalUsedDays(user, List.of("EL", "HALF_DAY_EL"),
-                LocalDate.of(currentYear, 7, 1), LocalDate.of(currentYear, 12, 31), true);
-        double carryover = Math.max(0, EL_FIRST_HALF - x - y);
-
-        double available;
-        if (currentMonth <= 6) {
-            available = Math.max(0, EL_TOTAL_ANNUAL - x - y);
-        } else {
-            available = Math.max(0, (EL_SECOND_HALF + carryover) - y);
-        }
+        double available = leaveAccrualService.availableEl(x, y, currentMonth);
 
         logger.info("EL calculation for user {}: x (first half used)={}, y (second half used including pending)={}, carryover={}, available={}",
                 user.getId(), x, y, carryover, available);
@@ -651,7 +838,7 @@ public class LeaveServiceImpl implements LeaveService {
         return available;
     }
 
-    private void validateClApplication(User user, LocalDate startDate, LocalDate endDate, double requiredDays, double availableCl) {
+    private void validateClApplication(User user, LocalDate startDate, LocalDate endDate, double requiredDays, double availableCl, LeaveSnapshot snapshot) {
         LocalDate joinDate = user.getJoinDate();
         if (joinDate == null) {
             logger.error("Join date is null for user: {}", user.getId());
@@ -674,7 +861,7 @@ public class LeaveServiceImpl implements LeaveService {
             throw new RuntimeException("Cannot apply CL for a month before joining date");
         }
 
-        double availableForApplicationMonth = calculateAvailableClUpToMonth(user, applicationMonth, applicationYear);
+        double availableForApplicationMonth = calculateAvailableClUpToMonth(user, applicationMonth, applicationYear, snapshot);
         if (availableForApplicationMonth < requiredDays) {
             logger.warn("User {} insufficient CL balance for month {}: requested {}, available {}", user.getId(), applicationMonth, requiredDays, availableForApplicationMonth);
             throw new RuntimeException("Insufficient CL balance for month " + startDate.getMonth() +
@@ -682,7 +869,7 @@ public class LeaveServiceImpl implements LeaveService {
         }
     }
 
-    private void validateElApplication(User user, LocalDate startDate, double requiredDays, double availableEl) {
+    private void validateElApplication(User user, LocalDate startDate, double requiredDays, double availableEl, LeaveUsage usage) {
         int currentMonth = LocalDate.now().getMonthValue();
         int applicationMonth = startDate.getMonthValue();
         LocalDate joinDate = user.getJoinDate();
@@ -698,25 +885,23 @@ public class LeaveServiceImpl implements LeaveService {
             throw new RuntimeException("Advance EL application is only allowed within the current year");
         }
 
-        double x = calculateTotalUsedDays(user, List.of("EL", "HALF_DAY_EL"),
-                LocalDate.of(currentYear, 1, 1), LocalDate.of(currentYear, 6, 30), false);
-        double y = calculateTotalUsedDays(user, List.of("EL", "HALF_DAY_EL"),
-                LocalDate.of(currentYear, 7, 1), LocalDate.of(currentYear, 12, 31), true);
-        double carryover = Math.max(0, EL_FIRST_HALF - x - y);
-        double zEligible = EL_SECOND_HALF + carryover;
+        double x = usage.used(LeaveType.EL, 1, false);
+        double y = usage.used(LeaveType.EL, 2, true);
+        double carryover = Math.max(0, LeaveBalance.EL_FIRST_HALF - x - y);
+        double zEligible = LeaveBalance.EL_SECOND_HALF + carryover;
 
         if (applicationMonth <= 6) {
             if (currentMonth > 6) {
                 logger.warn("User {} attempted to apply EL for first half (month {}) in second half (month {})", user.getId(), applicationMonth, currentMonth);
                 throw new RuntimeException("Cannot apply EL for the first half (Jan-Jun) when current month is in the second half (Jul-Dec)");
             }
-            if (x + requiredDays > EL_FIRST_HALF - y) {
-                logger.warn("User {} exceeded first half EL limit: used x={}, pending advance y={}, requested {}, available {}", user.getId(), x, y, requiredDays, EL_FIRST_HALF - y);
-                throw new RuntimeException("Cannot apply more than " + (EL_FIRST_HALF - y) + " EL days in the first half due to advance applications. Requested: " + requiredDays + ", Used: " + x);
+            if (x + requiredDays > LeaveBalance.EL_FIRST_HALF - y) {
+                logger.warn("User {} exceeded first half EL limit: used x={}, pending advance y={}, requested {}, available {}", user.getId(), x, y, requiredDays, LeaveBalance.EL_FIRST_HALF - y);
+                throw new RuntimeException("Cannot apply more than " + (LeaveBalance.EL_FIRST_HALF - y) + " EL days in the first half due to advance applications. Requested: " + requiredDays + ", Used: " + x);
             }
         } else {
             if (currentMonth <= 6) {
-                double totalEligible = EL_TOTAL_ANNUAL;
+                double totalEligible = LeaveBalance.EL_TOTAL_ANNUAL;
                 if (x + y + requiredDays > totalEligible) {
                     logger.warn("User {} exceeded annual EL limit for advance second half: used x={}, y={}, requested {}, totalEligible={}", user.getId(), x, y, requiredDays, totalEligible);
                     throw new RuntimeException("Cannot apply more than " + (totalEligible - x - y) + " EL days in advance for the second half. Requested: " + requiredDays + ", Available: " + (totalEligible - x - y));
@@ -726,83 +911,76 @@ public class LeaveServiceImpl implements LeaveService {
                     logger.warn("User {} exceeded second half EL limit: used y={}, requested {}, zEligible={}", user.getId(), y, requiredDays, zEligible);
                     throw new RuntimeException("Cannot apply more than " + zEligible + " EL days in the second half. Requested: " + requiredDays + ", Used: " + y);
                 }
-                if (x + y + requiredDays > EL_TOTAL_ANNUAL) {
-                    logger.warn("User {} exceeded annual EL limit: used x={}, y={}, requested {}, limit {}", user.getId(), x, y, requiredDays, EL_TOTAL_ANNUAL);
-                    throw new RuntimeException("Total EL usage cannot exceed " + EL_TOTAL_ANNUAL + " days annually. Requested: " + requiredDays + ", Total used: " + (x + y));
+                if (x + y + requiredDays > LeaveBalance.EL_TOTAL_ANNUAL) {
+                    logger.warn("User {} exceeded annual EL limit: used x={}, y={}, requested {}, limit {}", user.getId(), x, y, requiredDays, LeaveBalance.EL_TOTAL_ANNUAL);
+                    throw new RuntimeException("Total EL usage cannot exceed " + LeaveBalance.EL_TOTAL_ANNUAL + " days annually. Requested: " + requiredDays + ", Total used: " + (x + y));
                 }
             }
         }
     }
 
-    private double calculateTotalUsedDays(User user, List<String> leaveTypes) {
+    private double calculateTotalUsedDays(User user, LeaveType leaveType) {
         int currentYear = LocalDate.now().getYear();
-        return calculateTotalUsedDays(user, leaveTypes,
+        return calculateTotalUsedDays(user, leaveType,
                 LocalDate.of(currentYear, 1, 1), LocalDate.of(currentYear, 12, 31), false);
     }
 
-    private double calculateTotalUsedDays(User user, List<String> leaveTypes, LocalDate start, LocalDate end) {
-        return calculateTotalUsedDays(user, leaveTypes, start, end, false);
+    private double calculateTotalUsedDays(User user, LeaveType leaveType, LocalDate start, LocalDate end) {
+        return calculateTotalUsedDays(user, leaveType, start, end, false);
     }
 
-    private double calculateTotalUsedDays(User user, List<String> leaveTypes, LocalDate start, LocalDate end, boolean includePending) {
+    // Days of the type's whole family, e.g. CL and HALF_DAY_CL for CL
+    private double calculateTotalUsedDays(User user, LeaveType leaveType, LocalDate start, LocalDate end, boolean includePending) {
         List<LeaveApplication> leaves = leaveApplicationRepository.findByUserAndLeaveTypeInAndStartDateBetween(
-                user, leaveTypes, start, end, includePending);
-        double totalDays = leaves.stream()
-                .filter(leave -> leave.getStatus().equals("APPROVED") || (includePending && leave.getStatus().equals("PENDING")))
-                .mapToDouble(leave -> calculateRequiredDays(leave.getLeaveType(), leave.getStartDate(), leave.getEndDate(), leave.isHalfDay()))
-                .sum();
+                user, leaveType.family(), start, end, includePending);
+        double totalDays = workingDayCalculator.totalRequiredDays(leaves.stream()
+                .filter(leave -> leave.getStatus() == LeaveStatus.APPROVED || (includePending && leave.getStatus() == LeaveStatus.PENDING))
+                .collect(Collectors.toList()));
 
         logger.info("Total used days for user: {}, leaveTypes: {}, period {} to {}, includePending: {}, total: {}",
-                user.getId(), leaveTypes, start, end, includePending, totalDays);
+                user.getId(), leaveType.family(), start, end, includePending, totalDays);
         return totalDays;
     }
 
-    private double calculateRequiredDays(String leaveType, LocalDate startDate, LocalDate endDate, boolean isHalfDay) {
-        logger.info("Calculating required days for leaveType: {}, startDate: {}, endDate: {}, isHalfDay: {}",
-                leaveType, startDate, endDate, isHalfDay);
-
-        if (isHalfDay) {
-            if (holidayService.isHoliday(startDate)) {
-                logger.warn("Half-day leave requested on holiday: {}", startDate);
-                return 0.0;
-            }
-            return 0.5;
-        }
-
-        if (startDate == null || endDate == null) {
-            logger.warn("Invalid dates provided: startDate={}, endDate={}", startDate, endDate);
-            return 0.0;
-        }
+    private double calculateRequiredDays(LeaveType leaveType, LocalDate startDate, LocalDate endDate, boolean isHalfDay) {
+        double requiredDays = workingDayCalculator.requiredDays(leaveType, startDate, endDate, isHalfDay);
+        logger.debug("Required days for leaveType: {}, startDate: {}, endDate: {}, isHalfDay: {}: {}",
+                leaveType, startDate, endDate, isHalfDay, requiredDays);
+        return requiredDays;
+    }
 
-        if (leaveType.equals("EL") || leaveType.equals("ML") || leaveType.equals("PL")) {
-            long totalDays = startDate.datesUntil(endDate.plusDays(1)).count();
-            logger.info("{} leave: counted {} days including holidays (sandwich rule)", leaveType, totalDays);
-            return (double) totalDays;
-        }
+    private Map<LeaveType, Double> calculateLeaveBalance(User user) {
+        return calculateLeaveBalance(user, leaveUsageService.loadUsage(user.getId(), LocalDate.now().getYear()));
+    }
 
-        double totalDays = 0.0;
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            if (!holidayService.isHoliday(currentDate)) {
-                totalDays += 1.0;
-            }
-            currentDate = currentDate.plusDays(1);
+    private Map<LeaveType, Double> calculateLeaveBalance(User user, LeaveUsage usage) {
+        Map<LeaveType, Double> balance = new EnumMap<>(LeaveType.class);
+        LocalDate currentDate = LocalDate.now();
+        balance.put(LeaveType.CL, calculateAvailableCl(user, currentDate, usage));
+        balance.put(LeaveType.EL, calculateAvailableEl(user, currentDate, usage));
+        balance.put(LeaveType.LWP, LWP_ANNUAL_LIMIT - calculateTotalUsedDays(user, LeaveType.LWP,
+                LocalDate.of(currentDate.getYear(), 1, 1), currentDate, false));
+        if (user.getGender() == Gender.FEMALE) {
+            balance.put(LeaveType.ML, 182.0 - calculateTotalUsedDays(user, LeaveType.ML, LocalDate.of(currentDate.getYear(), 1, 1), currentDate, false));
+        } else {
+            balance.put(LeaveType.PL, 15.0 - calculateTotalUsedDays(user, LeaveType.PL, LocalDate.of(currentDate.getYear(), 1, 1), currentDate, false));
         }
-        logger.info("Non-EL/ML/PL leave ({}): counted {} days, excluding holidays", leaveType, totalDays);
-        return totalDays;
+        return balance;
     }
 
-    private Map<String, Double> calculateLeaveBalance(User user) {
-        Map<String, Double> balance = new HashMap<>();
+    // Apply-time variant of calculateLeaveBalance that reads only the snapshot
+    private Map<LeaveType, Double> calculateLeaveBalance(User user, LeaveSnapshot snapshot) {
+        Map<LeaveType, Double> balance = new EnumMap<>(LeaveType.class);
         LocalDate currentDate = LocalDate.now();
-        balance.put("CL", calculateAvailableCl(user, currentDate));
-        balance.put("EL", calculateAvailableEl(user, currentDate));
-        balance.put("LWP", LWP_ANNUAL_LIMIT - calculateTotalUsedDays(user, List.of("LWP", "HALF_DAY_LWP"),
-                LocalDate.of(currentDate.getYear(), 1, 1), currentDate, false));
-        if ("FEMALE".equalsIgnoreCase(user.getGender())) {
-            balance.put("ML", 182.0 - calculateTotalUsedDays(user, List.of("ML"), LocalDate.of(currentDate.getYear(), 1, 1), currentDate, false));
+        LocalDate startOfYear = LocalDate.of(currentDate.getYear(), 1, 1);
+        LeaveUsage usage = snapshot.usage(currentDate.getYear());
+        balance.put(LeaveType.CL, calculateAvailableCl(user, currentDate, usage));
+        balance.put(LeaveType.EL, calculateAvailableEl(user, currentDate, usage));
+        balance.put(LeaveType.LWP, LWP_ANNUAL_LIMIT - snapshot.approvedDays(LeaveType.LWP, startOfYear, currentDate));
+        if (user.getGender() == Gender.FEMALE) {
+            balance.put(LeaveType.ML, 182.0 - snapshot.approvedDays(LeaveType.ML, startOfYear, currentDate));
         } else {
-            balance.put("PL", 15.0 - calculateTotalUsedDays(user, List.of("PL"), LocalDate.of(currentDate.getYear(), 1, 1), currentDate, false));
+            balance.put(LeaveType.PL, 15.0 - snapshot.approvedDays(LeaveType.PL, startOfYear, currentDate));
         }
         return balance;
     }
@@ -810,11 +988,11 @@ public class LeaveServiceImpl implements LeaveService {
     private LeaveApplicationDTO convertToDTO(LeaveApplication leave) {
         LeaveApplicationDTO dto = new LeaveApplicationDTO();
         dto.setId(leave.getId());
-        dto.setLeaveType(leave.getLeaveType());
+        dto.setLeaveType(leave.getLeaveType().name());
         dto.setStartDate(leave.getStartDate());
         dto.setEndDate(leave.getEndDate());
         dto.setReason(leave.getReason());
-        dto.setStatus(leave.getStatus());
+        dto.setStatus(leave.getStatus().name());
         dto.setAppliedOn(leave.getAppliedOn());
         dto.setRemainingLeaves(leave.getRemainingLeaves());
         dto.setUserName(leave.getUser().getFullName());
@@ -0,0 +1,90 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.LeaveUsageCounter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// One user's PENDING and APPROVED applications as loaded once by applyLeave, with the charged days
+// of each computed up front. Every apply-time rule (pending, overlap, half-day clash, CL/EL/ML/PL/LWP
+// balances) reads from here instead of issuing its own query.
+class LeaveSnapshot {
+
+    private final List<LeaveApplication> leaves;
+    private final Map<LeaveApplication, Double> daysByLeave = new IdentityHashMap<>();
+
+    LeaveSnapshot(List<LeaveApplication> leaves, WorkingDayCalculator workingDayCalculator) {
+        this.leaves = leaves;
+        for (LeaveApplication leave : leaves) {
+            daysByLeave.put(leave, workingDayCalculator.requiredDays(leave));
+        }
+    }
+
+    List<LeaveApplication> withStatus(LeaveStatus status) {
+        return leaves.stream().filter(leave -> leave.getStatus() == status).collect(Collectors.toList());
+    }
+
+    // Same condition as LeaveApplicationRepository.findOverlappingLeaves
+    List<LeaveApplication> overlapping(LocalDate startDate, LocalDate endDate) {
+        return leaves.stream()
+                .filter(leave -> leave.getEndDate() != null
+                        && !leave.getStartDate().isAfter(endDate) && !leave.getEndDate().isBefore(startDate))
+                .collect(Collectors.toList());
+    }
+
+    boolean hasHalfDayOn(LocalDate date) {
+        return leaves.stream().anyMatch(leave -> leave.getLeaveType().isHalfDay() && date.equals(leave.getStartDate()));
+    }
+
+    // Approved days of the type's family for leaves starting within [from, to]
+    double approvedDays(LeaveType leaveType, LocalDate from, LocalDate to) {
+        LeaveType family = leaveType.fullDayType();
+        double total = 0.0;
+        for (LeaveApplication leave : leaves) {
+            if (leave.getStatus() == LeaveStatus.APPROVED && leave.getLeaveType().fullDayType() == family
+                    && !leave.getStartDate().isBefore(from) && !leave.getStartDate().isAfter(to)) {
+                total += daysByLeave.get(leave);
+            }
+        }
+        return total;
+    }
+
+    // The same per type/half-year totals leave_usage_counters holds, built from the snapshot
+    LeaveUsage usage(int year) {
+        Map<LeaveType, LeaveUsageCounter[]> counters = new EnumMap<>(LeaveType.class);
+        for (LeaveApplication leave : leaves) {
+            if (leave.getStartDate().getYear() != year) {
+                continue;
+            }
+            int halfYear = LeaveUsageService.halfYearOf(leave.getStartDate());
+            LeaveUsageCounter[] halves = counters.computeIfAbsent(leave.getLeaveType(), key -> new LeaveUsageCounter[2]);
+            if (halves[halfYear - 1] == null) {
+                halves[halfYear - 1] = new LeaveUsageCounter(null, year, leave.getLeaveType(), halfYear);
+            }
+            LeaveUsageCounter counter = halves[halfYear - 1];
+            double days = daysByLeave.get(leave);
+            switch (leave.getStatus()) {
+                case APPROVED -> counter.setApprovedDays(counter.getApprovedDays() + days);
+                case PENDING -> counter.setPendingDays(counter.getPendingDays() + days);
+                default -> { }
+            }
+        }
+        List<LeaveUsageCounter> result = new ArrayList<>();
+        for (LeaveUsageCounter[] halves : counters.values()) {
+            for (LeaveUsageCounter counter : halves) {
+                if (counter != null) {
+                    result.add(counter);
+                }
+            }
+        }
+        return new LeaveUsage(result);
+    }
+}
@@ -0,0 +1,38 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.LeaveUsageCounter;
+
+import java.util.List;
+
+// Read-only view over one user's leave_usage_counters rows for a single year
+public class LeaveUsage {
+
+    public static final int WHOLE_YEAR = 0;
+
+    private final List<LeaveUsageCounter> counters;
+
+    public LeaveUsage(List<LeaveUsageCounter> counters) {
+        this.counters = counters;
+    }
+
+    // Days of the type's whole family, e.g. CL and HALF_DAY_CL for CL
+    public double approved(LeaveType leaveType) {
+        return used(leaveType, WHOLE_YEAR, false);
+    }
+
+    // halfYear: 1 = Jan-Jun, 2 = Jul-Dec, WHOLE_YEAR = both
+    public double used(LeaveType leaveType, int halfYear, boolean includePending) {
+        LeaveType family = leaveType.fullDayType();
+        double total = 0.0;
+        for (LeaveUsageCounter counter : counters) {
+            if (counter.getLeaveType().fullDayType() != family) continue;
+            if (halfYear != WHOLE_YEAR && counter.getHalfYear() != halfYear) continue;
+            total += counter.getApprovedDays();
+            if (includePending) {
+                total += counter.getPendingDays();
+            }
+        }
+        return total;
+    }
+}
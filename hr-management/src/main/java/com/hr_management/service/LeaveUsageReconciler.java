@@ -0,0 +1,36 @@
+package com.hr_management.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+// Rebuilds leave_usage_counters from leave_applications at startup (which also back-fills an
+// empty table) and nightly, logging any counter that drifted from the source rows.
+@Component
+public class LeaveUsageReconciler {
+
+    @Autowired
+    private LeaveUsageService leaveUsageService;
+
+    @Value("${leave.usage.reconcile-on-startup:true}")
+    private boolean reconcileOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void reconcileOnStartup() {
+        if (reconcileOnStartup) {
+            reconcileCurrentYear();
+        }
+    }
+
+    @Scheduled(cron = "${leave.usage.reconcile-cron:0 30 2 * * *}")
+    public void reconcileCurrentYear() {
+        leaveUsageService.reconcile(LocalDate.now().getYear());
+    }
+}
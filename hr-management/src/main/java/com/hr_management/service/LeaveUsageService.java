@@ -0,0 +1,202 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.LeaveUsageCounter;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.LeaveUsageCounterRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Maintains leave_usage_counters: approved and pending days per (user, year, leave type, half-year).
+// Counters are adjusted in the caller's transaction whenever a leave changes status, so balance
+// reads only need one indexed lookup instead of re-walking every leave application.
+@Service
+public class LeaveUsageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveUsageService.class);
+    private static final double DRIFT_TOLERANCE = 0.001;
+
+    @Autowired
+    private LeaveUsageCounterRepository leaveUsageCounterRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private WorkingDayCalculator workingDayCalculator;
+
+    @Autowired
+    private LeaveMutationGuard leaveMutationGuard;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public LeaveUsage loadUsage(Long userId, int year) {
+        return new LeaveUsage(leaveUsageCounterRepository.findByUserIdAndLeaveYear(userId, year));
+    }
+
+    // loadUsage for many users with one query; every requested id gets an entry
+    public Map<Long, LeaveUsage> loadUsageByUser(Collection<Long> userIds, int year) {
+        Map<Long, List<LeaveUsageCounter>> countersByUser = new HashMap<>();
+        for (Long userId : userIds) {
+            countersByUser.put(userId, new ArrayList<>());
+        }
+        for (LeaveUsageCounter counter : leaveUsageCounterRepository.findByUserIdInAndLeaveYear(userIds, year)) {
+            countersByUser.get(counter.getUserId()).add(counter);
+        }
+        Map<Long, LeaveUsage> usage = new HashMap<>();
+        countersByUser.forEach((userId, counters) -> usage.put(userId, new LeaveUsage(counters)));
+        return usage;
+    }
+
+    // Moves the leave's days from the bucket of oldStatus to the bucket of newStatus.
+    // Only PENDING and APPROVED have buckets; any other status (null for a new leave) has none.
+    // Approved days leave the counter only through cancellation, which also refunds the User balance fields.
+    public void recordStatusChange(LeaveApplication leave, LeaveStatus oldStatus, LeaveStatus newStatus, double days) {
+        if (oldStatus == LeaveStatus.APPROVED && newStatus != LeaveStatus.APPROVED && newStatus != LeaveStatus.CANCELLED) {
+            throw new IllegalStateException("Approved leave " + leave.getId() + " can only be cancelled, not moved to " + newStatus);
+        }
+        double approvedDelta = bucketDays(LeaveStatus.APPROVED, newStatus, days) - bucketDays(LeaveStatus.APPROVED, oldStatus, days);
+        double pendingDelta = bucketDays(LeaveStatus.PENDING, newStatus, days) - bucketDays(LeaveStatus.PENDING, oldStatus, days);
+        if (approvedDelta == 0.0 && pendingDelta == 0.0) {
+            return;
+        }
+        LocalDate startDate = leave.getStartDate();
+        Long userId = leave.getUser().getId();
+        LeaveUsageCounter counter = leaveUsageCounterRepository
+                .findByUserIdAndLeaveYearAndLeaveTypeAndHalfYear(userId, startDate.getYear(), leave.getLeaveType(), halfYearOf(startDate))
+                .orElseGet(() -> new LeaveUsageCounter(userId, startDate.getYear(), leave.getLeaveType(), halfYearOf(startDate)));
+        counter.setApprovedDays(Math.max(0, counter.getApprovedDays() + approvedDelta));
+        counter.setPendingDays(Math.max(0, counter.getPendingDays() + pendingDelta));
+        leaveUsageCounterRepository.save(counter);
+        logger.debug("Leave usage counter for user {} ({} {} H{}) now approved={}, pending={}",
+                userId, startDate.getYear(), leave.getLeaveType(), counter.getHalfYear(), counter.getApprovedDays(), counter.getPendingDays());
+    }
+
+    // Rebuilds the counters for a year from leave_applications and fixes any row that drifted. The
+    // year-wide pass only finds the employees whose counters differ; each of them is then recounted and
+    // fixed under their leave lock, with the User version bumped like any other leave mutation, so a
+    // change committed in between is counted rather than overwritten.
+    public Map<String, Object> reconcile(int year) {
+        long startedAt = System.currentTimeMillis();
+        List<Object[]> leaves = leaveApplicationRepository.findActiveDaysByStartDateBetween(
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+        Map<String, LeaveUsageCounter> expected = expectedCounters(leaves, year);
+
+        Set<Long> driftedUsers = new TreeSet<>();
+        for (LeaveUsageCounter stored : leaveUsageCounterRepository.findByLeaveYear(year)) {
+            if (drifted(stored, expected.remove(key(stored.getUserId(), stored.getLeaveType(), stored.getHalfYear())))) {
+                driftedUsers.add(stored.getUserId());
+            }
+        }
+        for (LeaveUsageCounter missing : expected.values()) {
+            driftedUsers.add(missing.getUserId());
+        }
+
+        int drifted = 0;
+        int created = 0;
+        for (Long userId : driftedUsers) {
+            int[] fixed = leaveMutationGuard.execute(userId, () -> reconcileUser(userId, year));
+            drifted += fixed[0];
+            created += fixed[1];
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("year", year);
+        report.put("leaveApplications", leaves.size());
+        report.put("driftedCounters", drifted);
+        report.put("createdCounters", created);
+        report.put("durationMs", System.currentTimeMillis() - startedAt);
+        logger.info("Leave usage reconciliation finished: {}", report);
+        return report;
+    }
+
+    // One employee's counters for the year, recounted and fixed in the guard's transaction; returns
+    // {drifted, created}
+    private int[] reconcileUser(Long userId, int year) {
+        // Row-locks the user and fails the commit of any leave mutation that read the old version
+        jdbcTemplate.update("UPDATE users SET version = version + 1 WHERE id = ?", userId);
+        Map<String, LeaveUsageCounter> expected = expectedCounters(leaveApplicationRepository
+                .findActiveDaysByUserIdAndStartDateBetween(userId, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)), year);
+        int drifted = 0;
+        for (LeaveUsageCounter stored : leaveUsageCounterRepository.findByUserIdAndLeaveYear(userId, year)) {
+            // The year-wide pass may have left an older copy in the persistence context
+            entityManager.refresh(stored);
+            LeaveUsageCounter wanted = expected.remove(key(userId, stored.getLeaveType(), stored.getHalfYear()));
+            if (drifted(stored, wanted)) {
+                double approved = wanted != null ? wanted.getApprovedDays() : 0.0;
+                double pending = wanted != null ? wanted.getPendingDays() : 0.0;
+                logger.warn("Leave usage drift for user {} ({} {} H{}): stored approved={}, pending={}; actual approved={}, pending={}",
+                        userId, year, stored.getLeaveType(), stored.getHalfYear(),
+                        stored.getApprovedDays(), stored.getPendingDays(), approved, pending);
+                stored.setApprovedDays(approved);
+                stored.setPendingDays(pending);
+                leaveUsageCounterRepository.save(stored);
+                drifted++;
+            }
+        }
+        for (LeaveUsageCounter missing : expected.values()) {
+            leaveUsageCounterRepository.save(missing);
+        }
+        return new int[] {drifted, expected.size()};
+    }
+
+    // Rows of LeaveApplicationRepository.findActiveDaysBy..., summed per (user, leave type, half-year)
+    private Map<String, LeaveUsageCounter> expectedCounters(List<Object[]> leaves, int year) {
+        Map<String, LeaveUsageCounter> expected = new HashMap<>();
+        for (Object[] leave : leaves) {
+            Long userId = (Long) leave[0];
+            LeaveType leaveType = (LeaveType) leave[1];
+            LocalDate startDate = (LocalDate) leave[2];
+            int halfYear = halfYearOf(startDate);
+            LeaveUsageCounter counter = expected.computeIfAbsent(key(userId, leaveType, halfYear),
+                    k -> new LeaveUsageCounter(userId, year, leaveType, halfYear));
+            double days = workingDayCalculator.requiredDays(leaveType, startDate, (LocalDate) leave[3], Boolean.TRUE.equals(leave[4]));
+            if (leave[5] == LeaveStatus.APPROVED) {
+                counter.setApprovedDays(counter.getApprovedDays() + days);
+            } else {
+                counter.setPendingDays(counter.getPendingDays() + days);
+            }
+        }
+        return expected;
+    }
+
+    private static boolean drifted(LeaveUsageCounter stored, LeaveUsageCounter wanted) {
+        double approved = wanted != null ? wanted.getApprovedDays() : 0.0;
+        double pending = wanted != null ? wanted.getPendingDays() : 0.0;
+        return Math.abs(stored.getApprovedDays() - approved) > DRIFT_TOLERANCE
+                || Math.abs(stored.getPendingDays() - pending) > DRIFT_TOLERANCE;
+    }
+
+    public static int halfYearOf(LocalDate date) {
+        return date.getMonthValue() <= 6 ? 1 : 2;
+    }
+
+    private static double bucketDays(LeaveStatus bucket, LeaveStatus status, double days) {
+        return bucket == status ? days : 0.0;
+    }
+
+    private static String key(Long userId, LeaveType leaveType, int halfYear) {
+        return userId + ":" + leaveType + ":" + halfYear;
+    }
+}
@@ -0,0 +1,185 @@
+package com.hr_management.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Keeps reporting_closure in step with users.reporting_to. Adding a user copies the manager's ancestor rows
+// one level down; moving a user detaches their whole subtree from the old chain and attaches it under the
+// new manager with one INSERT ... SELECT. Both run in the caller's transaction and first row-lock, in the
+// users table, every user on the reporting chains they read or rewrite, so two writes whose chains overlap
+// run one after the other, also across instances. At startup and nightly the table is checked against
+// users.reporting_to and rebuilt if it differs; bulk imports rebuild it outright. The check and the rebuild
+// lock every users row first, so they never interleave with a write.
+@Service
+public class ReportingHierarchyService implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportingHierarchyService.class);
+
+    private static final int INSERT_BATCH = 1000;
+    private static final String INSERT_SQL = "INSERT INTO reporting_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuildIfStale();
+    }
+
+    // A new user, reporting to managerId (may be null)
+    public void userAdded(Long userId, Long managerId) {
+        jdbcTemplate.update(INSERT_SQL, userId, userId, 0);
+        if (managerId != null) {
+            lockChains(List.of(managerId));
+            jdbcTemplate.update("INSERT INTO reporting_closure (ancestor_id, descendant_id, depth) "
+                    + "SELECT ancestor_id, ?, depth + 1 FROM reporting_closure WHERE descendant_id = ?", userId, managerId);
+        }
+    }
+
+    // userId (and everyone under them) now reports to newManagerId (may be null)
+    public void moveUser(Long userId, Long newManagerId) {
+        lockChains(newManagerId != null ? List.of(userId, newManagerId) : List.of(userId));
+        if (newManagerId != null && isInSubtree(userId, newManagerId)) {
+            throw new IllegalArgumentException("User " + userId + " cannot report to someone in their own reporting line");
+        }
+        // Locking reads from here on, so they see the latest committed rows rather than the transaction's snapshot
+        List<Long> subtree = jdbcTemplate.queryForList(
+                "SELECT descendant_id FROM reporting_closure WHERE ancestor_id = ? FOR UPDATE", Long.class, userId);
+        if (subtree.isEmpty()) {
+            // Not in the table yet (created outside this service); the startup check fills in any reports
+            logger.warn("User {} missing from reporting_closure; adding them under {}", userId, newManagerId);
+            userAdded(userId, newManagerId);
+            return;
+        }
+        List<Long> oldAncestors = jdbcTemplate.queryForList(
+                "SELECT ancestor_id FROM reporting_closure WHERE descendant_id = ? AND depth > 0 FOR UPDATE", Long.class, userId);
+        if (!oldAncestors.isEmpty()) {
+            namedParameterJdbcTemplate.update("DELETE FROM reporting_closure WHERE ancestor_id IN (:ancestors) "
+                    + "AND descendant_id IN (:subtree)", new MapSqlParameterSource()
+                    .addValue("ancestors", oldAncestors).addValue("subtree", subtree));
+        }
+        if (newManagerId != null) {
+            jdbcTemplate.update("INSERT INTO reporting_closure (ancestor_id, descendant_id, depth) "
+                    + "SELECT a.ancestor_id, s.descendant_id, a.depth + s.depth + 1 "
+                    + "FROM reporting_closure a CROSS JOIN reporting_closure s "
+                    + "WHERE a.descendant_id = ? AND s.ancestor_id = ?", newManagerId, userId);
+        }
+        logger.info("Moved user {} and {} reports under {}", userId, subtree.size() - 1, newManagerId);
+    }
+
+    // True when candidateId is userId or anywhere under them
+    private boolean isInSubtree(Long userId, Long candidateId) {
+        return !jdbcTemplate.queryForList("SELECT depth FROM reporting_closure WHERE ancestor_id = ? AND descendant_id = ? FOR UPDATE",
+                Integer.class, userId, candidateId).isEmpty();
+    }
+
+    // Locks the users rows of the given users and all their current ancestors, in id order. The chains
+    // are read again after each round in case they changed before the locks were granted.
+    private void lockChains(List<Long> userIds) {
+        Set<Long> locked = new HashSet<>();
+        while (true) {
+            Set<Long> chain = new TreeSet<>(userIds);
+            chain.addAll(namedParameterJdbcTemplate.queryForList("SELECT ancestor_id FROM reporting_closure "
+                    + "WHERE descendant_id IN (:ids) FOR UPDATE", new MapSqlParameterSource("ids", userIds), Long.class));
+            chain.removeAll(locked);
+            if (chain.isEmpty()) {
+                return;
+            }
+            namedParameterJdbcTemplate.queryForList("SELECT id FROM users WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                    new MapSqlParameterSource("ids", chain), Long.class);
+            locked.addAll(chain);
+        }
+    }
+
+    // Compares the table with users.reporting_to: one self row per user, one depth-1 row per link, and every
+    // deeper row derived from the manager's rows and nothing else. Rebuilds on any difference. The check runs
+    // under the same users row locks as rebuild, so no write is half-applied while it counts.
+    @Scheduled(cron = "${reporting.closure.verify-cron:0 15 3 * * *}")
+    public void rebuildIfStale() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Long> managerOf = lockAllUsers();
+            long users = managerOf.size();
+            long links = managerOf.values().stream().filter(manager -> manager != null).count();
+            long selfRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reporting_closure WHERE depth = 0", Long.class);
+            long linkRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reporting_closure WHERE depth = 1", Long.class);
+            long matchingLinkRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reporting_closure c JOIN users u "
+                    + "ON u.id = c.descendant_id AND u.reporting_to = c.ancestor_id WHERE c.depth = 1", Long.class);
+            long strayRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reporting_closure c "
+                    + "LEFT JOIN users u ON u.id = c.descendant_id "
+                    + "LEFT JOIN reporting_closure p ON p.descendant_id = u.reporting_to AND p.ancestor_id = c.ancestor_id "
+                    + "AND p.depth = c.depth - 1 WHERE c.depth > 1 AND p.ancestor_id IS NULL", Long.class);
+            long missingRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users u "
+                    + "JOIN reporting_closure p ON p.descendant_id = u.reporting_to "
+                    + "LEFT JOIN reporting_closure c ON c.descendant_id = u.id AND c.ancestor_id = p.ancestor_id AND c.depth = p.depth + 1 "
+                    + "WHERE c.ancestor_id IS NULL", Long.class);
+            if (users != selfRows || links != linkRows || links != matchingLinkRows || strayRows > 0 || missingRows > 0) {
+                logger.info("reporting_closure out of date ({} of {} users, {} of {} links, {} stray, {} missing rows); rebuilding",
+                        selfRows, users, linkRows, links, strayRows, missingRows);
+                rebuild(managerOf);
+            }
+        });
+    }
+
+    // Recomputes the whole table from users.reporting_to by walking up each user's chain
+    @Transactional
+    public void rebuild() {
+        rebuild(lockAllUsers());
+    }
+
+    // Every users row, locked in id order like lockChains locks them, so userAdded and moveUser wait for
+    // the check or rebuild holding them (and it for them) instead of changing reporting_to underneath it
+    private Map<Long, Long> lockAllUsers() {
+        Map<Long, Long> managerOf = new HashMap<>();
+        jdbcTemplate.query("SELECT id, reporting_to FROM users ORDER BY id FOR UPDATE", rs -> {
+            managerOf.put(rs.getLong(1), rs.getObject(2, Long.class));
+        });
+        return managerOf;
+    }
+
+    private void rebuild(Map<Long, Long> managerOf) {
+        long startedAt = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>();
+        for (Long userId : managerOf.keySet()) {
+            rows.add(new Object[] {userId, userId, 0});
+            Set<Long> seen = new HashSet<>();
+            seen.add(userId);
+            int depth = 1;
+            for (Long manager = managerOf.get(userId); manager != null; manager = managerOf.get(manager)) {
+                if (!seen.add(manager)) {
+                    logger.warn("Reporting cycle through user {}; chain cut at {}", userId, manager);
+                    break;
+                }
+                rows.add(new Object[] {manager, userId, depth++});
+            }
+        }
+        jdbcTemplate.update("DELETE FROM reporting_closure");
+        for (int from = 0; from < rows.size(); from += INSERT_BATCH) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows.subList(from, Math.min(from + INSERT_BATCH, rows.size())));
+        }
+        logger.info("Rebuilt reporting_closure: {} rows for {} users in {} ms", rows.size(), managerOf.size(),
+                System.currentTimeMillis() - startedAt);
+    }
+}
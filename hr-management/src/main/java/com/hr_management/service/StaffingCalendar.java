@@ -0,0 +1,204 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Department;
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.UserStatus;
+import com.hr_management.Repository.DepartmentRepository;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory index for the minimum-staffing rule (Department.minStaffing): per department, the number of
+// active employees and, per year, how many of them are on approved leave each day. A department is loaded
+// the first time one of its leaves is checked, a year with one query the first time it is needed; from then
+// on approvals and cancellations adjust the counts in place, so a check is one array read per day of leave.
+// Adjustments made inside a transaction are undone if it rolls back. Writers that bypass this class drop the
+// affected department (user changes) or everything (bulk import), and the whole index is rebuilt nightly,
+// which is also when approvals made on other instances are picked up.
+@Component
+public class StaffingCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaffingCalendar.class);
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private WorkingDayCalculator workingDayCalculator;
+
+    private final Map<String, DepartmentDays> departments = new ConcurrentHashMap<>();
+
+    // Throws if approving the leave would take its department below minimum staffing on a working day
+    public void check(LeaveApplication leave) {
+        DepartmentDays days = departmentOf(leave);
+        if (days != null) {
+            synchronized (days) {
+                checkRoom(days, leave);
+            }
+        }
+    }
+
+    // check() and, if it passes, counts the leave as approved. Call before the leave's status changes.
+    public void reserve(LeaveApplication leave) {
+        DepartmentDays days = departmentOf(leave);
+        if (days == null) {
+            return;
+        }
+        synchronized (days) {
+            checkRoom(days, leave);
+            add(days, leave, 1);
+        }
+        undoOnRollback(days, leave, -1);
+    }
+
+    // Stops counting an approved leave. Call before the leave's status changes.
+    public void release(LeaveApplication leave) {
+        DepartmentDays days = departmentOf(leave);
+        if (days == null) {
+            return;
+        }
+        synchronized (days) {
+            add(days, leave, -1);
+        }
+        undoOnRollback(days, leave, 1);
+    }
+
+    // Headcount or rule of the department changed; it is reloaded on next use
+    public void departmentChanged(String department) {
+        if (department != null) {
+            departments.remove(department);
+        }
+    }
+
+    @Scheduled(cron = "${leave.staffing.rebuild-cron:0 45 2 * * *}")
+    public void clear() {
+        departments.clear();
+        logger.debug("Staffing calendar cleared");
+    }
+
+    private DepartmentDays departmentOf(LeaveApplication leave) {
+        String department = leave.getUser() != null ? leave.getUser().getDepartment() : null;
+        if (department == null) {
+            return null;
+        }
+        DepartmentDays days = departments.computeIfAbsent(department, this::load);
+        return days.minStaffing > 0 ? days : null;
+    }
+
+    private DepartmentDays load(String department) {
+        Integer minStaffing = departmentRepository.findByName(department).map(Department::getMinStaffing).orElse(null);
+        if (minStaffing == null || minStaffing <= 0) {
+            return new DepartmentDays(department, 0, 0);
+        }
+        int headcount = (int) userRepository.countByDepartmentAndStatus(department, UserStatus.ACTIVE);
+        logger.debug("Loaded staffing rule for department '{}': {} of {} employees", department, minStaffing, headcount);
+        return new DepartmentDays(department, minStaffing, headcount);
+    }
+
+    private void checkRoom(DepartmentDays days, LeaveApplication leave) {
+        int allowedAbsent = days.headcount - days.minStaffing;
+        LocalDate today = LocalDate.now();
+        LocalDate end = endOf(leave);
+        for (LocalDate day = leave.getStartDate().isBefore(today) ? today : leave.getStartDate(); !day.isAfter(end); day = day.plusDays(1)) {
+            if (!workingDayCalculator.isWorkingDay(day)) {
+                continue;
+            }
+            int absent = yearCounts(days, day.getYear())[day.getDayOfYear() - 1];
+            if (absent + 1 > allowedAbsent) {
+                logger.warn("Leave of user {} on {} would leave department '{}' under its minimum staffing of {}",
+                        leave.getUser().getId(), day, days.name, days.minStaffing);
+                throw new RuntimeException(String.format(
+                        "Department %s needs at least %d of its %d employees present, and %d are already on leave on %s",
+                        days.name, days.minStaffing, days.headcount, absent, day));
+            }
+        }
+    }
+
+    private void add(DepartmentDays days, LeaveApplication leave, int delta) {
+        LocalDate end = endOf(leave);
+        for (int year = leave.getStartDate().getYear(); year <= end.getYear(); year++) {
+            int[] counts = yearCounts(days, year);
+            int from = year == leave.getStartDate().getYear() ? leave.getStartDate().getDayOfYear() - 1 : 0;
+            int to = year == end.getYear() ? end.getDayOfYear() : counts.length;
+            for (int i = from; i < to; i++) {
+                counts[i] = Math.max(0, counts[i] + delta);
+            }
+        }
+    }
+
+    // Called with the department's lock held
+    private int[] yearCounts(DepartmentDays days, int year) {
+        int[] counts = days.absentByYear.get(year);
+        if (counts != null) {
+            return counts;
+        }
+        LocalDate first = LocalDate.of(year, 1, 1);
+        LocalDate last = LocalDate.of(year, 12, 31);
+        counts = new int[Year.of(year).length()];
+        List<Object[]> intervals = leaveApplicationRepository.findApprovedIntervalsByDepartment(days.name, null, first, last);
+        for (Object[] interval : intervals) {
+            LocalDate start = (LocalDate) interval[1];
+            LocalDate end = (LocalDate) interval[2];
+            int from = start.isBefore(first) ? 0 : start.getDayOfYear() - 1;
+            int to = end.isAfter(last) ? counts.length : end.getDayOfYear();
+            for (int i = from; i < to; i++) {
+                counts[i]++;
+            }
+        }
+        days.absentByYear.put(year, counts);
+        logger.debug("Loaded {} approved leaves of department '{}' for {}", intervals.size(), days.name, year);
+        return counts;
+    }
+
+    private void undoOnRollback(DepartmentDays days, LeaveApplication leave, int delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    synchronized (days) {
+                        add(days, leave, delta);
+                    }
+                }
+            }
+        });
+    }
+
+    private static LocalDate endOf(LeaveApplication leave) {
+        return leave.getEndDate() != null ? leave.getEndDate() : leave.getStartDate();
+    }
+
+    private static final class DepartmentDays {
+        private final String name;
+        private final int minStaffing;
+        private final int headcount;
+        private final Map<Integer, int[]> absentByYear = new HashMap<>();
+
+        private DepartmentDays(String name, int minStaffing, int headcount) {
+            this.name = name;
+            this.minStaffing = minStaffing;
+            this.headcount = headcount;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Gender;
+import com.hr_management.Entity.UserStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.StringJoiner;
+
+// Rewrites users rows still holding the old full names ('ACTIVE', 'Female', ...) to the short codes the
+// converters read, like LeaveCodeMigration does for leaves. Gender was stored as typed at signup, so it is
+// matched ignoring case, and a blank gender becomes NULL. db/user-codes.sql does the same and also narrows
+// the columns.
+@Component
+public class UserCodeMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCodeMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int[] updated = transactionTemplate.execute(status -> new int[] {
+                jdbcTemplate.update(statusUpdate()),
+                jdbcTemplate.update(genderUpdate()) + jdbcTemplate.update("UPDATE users SET gender = NULL WHERE TRIM(gender) = ''")
+        });
+        if (updated[0] + updated[1] > 0) {
+            logger.info("Migrated user codes: {} statuses, {} genders", updated[0], updated[1]);
+        }
+    }
+
+    static String statusUpdate() {
+        StringBuilder cases = new StringBuilder();
+        StringJoiner names = new StringJoiner(", ");
+        for (UserStatus status : UserStatus.values()) {
+            cases.append(" WHEN '").append(status.name()).append("' THEN '").append(status.code()).append('\'');
+            names.add("'" + status.name() + "'");
+        }
+        return "UPDATE users SET status = CASE status" + cases + " END WHERE status IN (" + names + ")";
+    }
+
+    static String genderUpdate() {
+        StringBuilder cases = new StringBuilder();
+        StringJoiner names = new StringJoiner(", ");
+        for (Gender gender : Gender.values()) {
+            cases.append(" WHEN '").append(gender.name()).append("' THEN '").append(gender.code()).append('\'');
+            names.add("'" + gender.name() + "'");
+        }
+        return "UPDATE users SET gender = CASE UPPER(TRIM(gender))" + cases + " END WHERE UPPER(TRIM(gender)) IN (" + names + ")";
+    }
+}
@@ -1,18 +1,26 @@
 package com.hr_management.service;
 
 import com.hr_management.Entity.Department;
+import com.hr_management.Entity.Gender;
 import com.hr_management.Entity.PendingSignup;
 import com.hr_management.Entity.User;
+import com.hr_management.Entity.UserStatus;
 import com.hr_management.Entity.LeaveBalance;
 import com.hr_management.Repository.DepartmentRepository;
 import com.hr_management.Repository.PendingSignupRepository;
+import com.hr_management.Repository.ReportingClosureRepository;
 import com.hr_management.Repository.UserRepository;
 import com.hr_management.Util.JwtUtil;
+import com.hr_management.Util.PrincipalCache;
+import com.hr_management.dto.CurrentUserSummary;
 import com.hr_management.dto.ReportingPersonDTO;
 import com.hr_management.dto.UserDTO;
+import com.hr_management.dto.UserListItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,6 +28,9 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Collections;
 import java.util.List;
@@ -31,6 +42,10 @@ public class UserService implements UserDetailsService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
+    // Request attributes holding the current user once resolved, so each HTTP request queries it at most once
+    private static final String CURRENT_USER_ATTRIBUTE = UserService.class.getName() + ".currentUser";
+    private static final String CURRENT_USER_SUMMARY_ATTRIBUTE = UserService.class.getName() + ".currentUserSummary";
+
     @Autowired
     private UserRepository userRepository;
 
@@ -49,6 +64,21 @@ public class UserService implements UserDetailsService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private StaffingCalendar staffingCalendar;
+
+    @Autowired
+    private LeaveMutationGuard leaveMutationGuard;
+
+    @Autowired
+    private ReportingHierarchyService reportingHierarchyService;
+
+    @Autowired
+    private ReportingClosureRepository reportingClosureRepository;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         logger.debug("Loading user by username: {}", username);
@@ -61,9 +91,17 @@ public class UserService implements UserDetailsService {
                 Collections.singletonList(new SimpleGrantedAuthority(role)));
     }
 
+    // Resolved once per HTTP request and shared by controllers and services; outside a request
+    // (scheduled jobs, tests) every call queries.
     public User getCurrentUser() {
-        logger.info("Fetching current user");
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User cached
+                && username.equals(cached.getUsername())) {
+            return cached;
+        }
+        logger.info("Fetching current user");
         logger.debug("Username from SecurityContext: {}", username);
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> {
@@ -71,9 +109,44 @@ public class UserService implements UserDetailsService {
                     return new UsernameNotFoundException("User not found with username: " + username);
                 });
         logger.info("Fetched user: {}", user.getUsername());
+        if (attributes != null) {
+            attributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
         return user;
     }
 
+    // Id, role and department of the current user without loading the entity
+    public CurrentUserSummary getCurrentUserSummary() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            if (attributes.getAttribute(CURRENT_USER_SUMMARY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof CurrentUserSummary cached
+                    && username.equals(cached.getUsername())) {
+                return cached;
+            }
+            if (attributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                    && username.equals(user.getUsername())) {
+                return new CurrentUserSummary(user.getId(), user.getUsername(), user.getRole(), user.getDepartment(),
+                        user.getDepartmentEntity() != null ? user.getDepartmentEntity().getId() : null);
+            }
+        }
+        CurrentUserSummary summary = userRepository.findSummaryByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        if (attributes != null) {
+            attributes.setAttribute(CURRENT_USER_SUMMARY_ATTRIBUTE, summary, RequestAttributes.SCOPE_REQUEST);
+        }
+        return summary;
+    }
+
+    // One keyset page of the public user listing; role is stored upper-case, status is parsed like UserStatus.parse
+    public List<UserListItem> getUserListPage(long afterId, String department, String role, String status, int limit) {
+        return userRepository.findListItemsAfter(afterId,
+                department == null || department.isBlank() ? null : department.trim(),
+                role == null || role.isBlank() ? null : role.trim().toUpperCase(),
+                status == null || status.isBlank() ? null : UserStatus.parse(status),
+                PageRequest.of(0, limit));
+    }
+
     public String generateToken(User user) {
         return jwtUtil.generateToken(user.getUsername(), user.getRole(), user.getDepartment());
     }
@@ -104,19 +177,69 @@ public class UserService implements UserDetailsService {
     }
 
     public void updateUserStatus(Long id, String newStatus) {
-        if (!newStatus.equals("ACTIVE") && !newStatus.equals("INACTIVE")) {
+        if (!"ACTIVE".equals(newStatus) && !"INACTIVE".equals(newStatus)) {
             throw new RuntimeException("Invalid status");
         }
-        Optional<User> optionalUser = userRepository.findById(id);
-        if (optionalUser.isEmpty()) {
-            throw new RuntimeException("User not found");
+        UserStatus status = UserStatus.valueOf(newStatus);
+        User user = leaveMutationGuard.execute(id, () -> {
+            Optional<User> optionalUser = userRepository.findById(id);
+            if (optionalUser.isEmpty()) {
+                throw new RuntimeException("User not found");
+            }
+            User updated = optionalUser.get();
+            updated.setStatus(status);
+            return userRepository.save(updated);
+        });
+        principalCache.invalidate(user.getUsername());
+        staffingCalendar.departmentChanged(user.getDepartment());
+    }
+
+    public void changeReportingTo(Long userId, Long reportingToId) {
+        leaveMutationGuard.execute(userId, () -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
+            User reportingTo = null;
+            if (reportingToId != null) {
+                reportingTo = userRepository.findById(reportingToId)
+                        .orElseThrow(() -> new IllegalArgumentException("Reporting person not found with ID: " + reportingToId));
+            }
+            reportingHierarchyService.moveUser(userId, reportingToId);
+            user.setReportingTo(reportingTo);
+            return userRepository.save(user);
+        });
+        logger.info("User {} now reports to {}", userId, reportingToId);
+    }
+
+    public void resetPassword(Long userId, String rawPassword) {
+        User user = leaveMutationGuard.execute(userId, () -> {
+            User updated = userRepository.findById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
+            updated.setPassword(passwordEncoder.encode(rawPassword));
+            return userRepository.save(updated);
+        });
+        principalCache.invalidate(user.getUsername());
+    }
+
+    // Number of people anywhere under the current user
+    public long getSubtreeHeadcount() {
+        return reportingClosureRepository.countSubtree(getCurrentUser().getId());
+    }
+
+    // Management chain of a user, direct manager first. HR and the director see anyone's; everyone else
+    // only their own and those of people under them.
+    public List<ReportingPersonDTO> getAncestors(Long userId) {
+        User currentUser = getCurrentUser();
+        boolean seesEveryone = "HR".equals(currentUser.getRole()) || "DIRECTOR".equals(currentUser.getRole());
+        if (!seesEveryone && !reportingClosureRepository.existsByAncestorIdAndDescendantId(currentUser.getId(), userId)) {
+            throw new AccessDeniedException("Not authorized to view the reporting line of user " + userId);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found with ID: " + userId);
         }
-        User user = optionalUser.get();
-        user.setStatus(newStatus);
-        userRepository.save(user);
+        return reportingClosureRepository.findAncestors(userId);
     }
 
-    private String normalizeDepartment(String deptName) {
+    static String normalizeDepartment(String deptName) {
         if (deptName == null) return null;
         if (deptName.toLowerCase().contains("admin")) {
             return "Admin (Administration)";
@@ -139,17 +262,17 @@ public class UserService implements UserDetailsService {
         switch (role.toUpperCase()) {
             case "EMPLOYEE":
                 logger.debug("Querying users with role: PROJECT_MANAGER, department: {}, status: ACTIVE", normalizedDept);
-                users = userRepository.findByRoleIgnoreCaseAndDepartmentAndStatus("PROJECT_MANAGER", normalizedDept, "ACTIVE");
+                users = userRepository.findByRoleIgnoreCaseAndDepartmentAndStatus("PROJECT_MANAGER", normalizedDept, UserStatus.ACTIVE);
                 logger.debug("Found {} PROJECT_MANAGER users: {}", users.size(), users);
                 break;
             case "PROJECT_MANAGER":
                 logger.debug("Querying users with role: ASSISTANT_DIRECTOR, department: {}, status: ACTIVE", normalizedDept);
-                users = userRepository.findByRoleIgnoreCaseAndDepartmentAndStatus("ASSISTANT_DIRECTOR", normalizedDept, "ACTIVE");
+                users = userRepository.findByRoleIgnoreCaseAndDepartmentAndStatus("ASSISTANT_DIRECTOR", normalizedDept, UserStatus.ACTIVE);
                 logger.debug("Found {} ASSISTANT_DIRECTOR users: {}", users.size(), users);
                 break;
             case "ASSISTANT_DIRECTOR":
                 logger.debug("Querying users with role: DIRECTOR, status: ACTIVE");
-                users = userRepository.findByRoleIgnoreCaseAndStatus("DIRECTOR", "ACTIVE");
+                users = userRepository.findByRoleIgnoreCaseAndStatus("DIRECTOR", UserStatus.ACTIVE);
                 logger.debug("Found {} DIRECTOR users: {}", users.size(), users);
                 break;
             default:
@@ -163,6 +286,7 @@ public class UserService implements UserDetailsService {
         return dtos;
     }
 
+    @Transactional // the notification email is queued in the same transaction
     public Object signup(UserDTO userDTO) {
         logger.info("Processing signup for username: {}", userDTO.getUsername());
         // Check uniqueness in both users and pending_signups
@@ -211,15 +335,16 @@ public class UserService implements UserDetailsService {
 
         // If the user is a Super Admin and creating an HR user, create directly
         if (isSuperAdmin && isAdminHR) {
+            Gender gender = Gender.parse(userDTO.getGender());
             LeaveBalance leaveBalance = new LeaveBalance();
             leaveBalance.setCasualLeaveUsed(0.0);
             leaveBalance.setCasualLeaveRemaining("ASSISTANT_DIRECTOR".equalsIgnoreCase(userDTO.getRole()) ? 12.0 : 10.0);
             leaveBalance.setEarnedLeaveUsedFirstHalf(0.0);
             leaveBalance.setEarnedLeaveUsedSecondHalf(0.0);
             leaveBalance.setMaternityLeaveUsed(0.0);
-            leaveBalance.setMaternityLeaveRemaining(userDTO.getGender().equalsIgnoreCase("Female") ? 182.0 : 0.0);
+            leaveBalance.setMaternityLeaveRemaining(gender == Gender.FEMALE ? 182.0 : 0.0);
             leaveBalance.setPaternityLeaveUsed(0.0);
-            leaveBalance.setPaternityLeaveRemaining(userDTO.getGender().equalsIgnoreCase("Male") ? 15.0 : 0.0);
+            leaveBalance.setPaternityLeaveRemaining(gender == Gender.MALE ? 15.0 : 0.0);
 
             User user = new User();
             user.setFullName(userDTO.getFullName());
@@ -229,10 +354,10 @@ public class UserService implements UserDetailsService {
             user.setDepartment(normalizedDept);
             user.setDepartmentEntity(departmentEntity);
             user.setRole(userDTO.getRole().toUpperCase());
-            user.setGender(userDTO.getGender());
+            user.setGender(gender);
             user.setJoinDate(userDTO.getJoinDate());
             user.setEmployeeId(userDTO.getEmployeeId());
-            user.setStatus("ACTIVE");
+            user.setStatus(UserStatus.ACTIVE);
             user.setLeaveBalance(leaveBalance);
             user.setLeaveWithoutPayment(0.0);
             user.setHalfDayLwp(0.0);
@@ -246,6 +371,8 @@ public class UserService implements UserDetailsService {
             }
 
             User savedUser = userRepository.save(user);
+            staffingCalendar.departmentChanged(savedUser.getDepartment());
+            reportingHierarchyService.userAdded(savedUser.getId(), userDTO.getReportingToId());
             logger.info("HR user created directly by Super Admin: {}", savedUser.getUsername());
             emailService.sendSignupApprovalEmail(savedUser.getEmail(), savedUser.getFullName());
             return savedUser;
@@ -287,6 +414,7 @@ public class UserService implements UserDetailsService {
         return pendingSignupRepository.findByStatus("PENDING");
     }
 
+    @Transactional
     public void approveUser(Long userId) {
         logger.info("Approving signup request with id: {}", userId);
         PendingSignup pendingSignup = pendingSignupRepository.findById(userId)
@@ -312,15 +440,16 @@ public class UserService implements UserDetailsService {
                     .orElseThrow(() -> new IllegalArgumentException("Department not found: " + pendingSignup.getDepartment()));
         }
 
+        Gender gender = Gender.parse(pendingSignup.getGender());
         LeaveBalance leaveBalance = new LeaveBalance();
         leaveBalance.setCasualLeaveUsed(0.0);
         leaveBalance.setCasualLeaveRemaining(pendingSignup.getRole().equalsIgnoreCase("ASSISTANT_DIRECTOR") ? 12.0 : 10.0);
         leaveBalance.setEarnedLeaveUsedFirstHalf(0.0);
         leaveBalance.setEarnedLeaveUsedSecondHalf(0.0);
         leaveBalance.setMaternityLeaveUsed(0.0);
-        leaveBalance.setMaternityLeaveRemaining(pendingSignup.getGender().equalsIgnoreCase("Female") ? 182.0 : 0.0);
+        leaveBalance.setMaternityLeaveRemaining(gender == Gender.FEMALE ? 182.0 : 0.0);
         leaveBalance.setPaternityLeaveUsed(0.0);
-        leaveBalance.setPaternityLeaveRemaining(pendingSignup.getGender().equalsIgnoreCase("Male") ? 15.0 : 0.0);
+        leaveBalance.setPaternityLeaveRemaining(gender == Gender.MALE ? 15.0 : 0.0);
 
         User user = new User();
         user.setFullName(pendingSignup.getFullName());
@@ -330,20 +459,24 @@ public class UserService implements UserDetailsService {
         user.setDepartment(pendingSignup.getDepartment());
         user.setDepartmentEntity(departmentEntity);
         user.setRole(pendingSignup.getRole());
-        user.setGender(pendingSignup.getGender());
+        user.setGender(gender);
         user.setJoinDate(pendingSignup.getJoinDate());
         user.setLeaveBalance(leaveBalance);
-        user.setStatus("ACTIVE");
+        user.setStatus(UserStatus.ACTIVE);
         user.setLeaveWithoutPayment(0.0);
         user.setHalfDayLwp(0.0);
         user.setEmployeeId(pendingSignup.getEmployeeId());
         user.setReportingTo(pendingSignup.getReportingTo());
 
         userRepository.save(user);
+        staffingCalendar.departmentChanged(user.getDepartment());
+        reportingHierarchyService.userAdded(user.getId(),
+                pendingSignup.getReportingTo() != null ? pendingSignup.getReportingTo().getId() : null);
         pendingSignupRepository.delete(pendingSignup);
         emailService.sendSignupApprovalEmail(pendingSignup.getEmail(), pendingSignup.getFullName());
     }
 
+    @Transactional
     public void rejectUser(Long userId, String reason) {
         logger.info("Rejecting signup request with id: {}", userId);
         PendingSignup pendingSignup = pendingSignupRepository.findById(userId)
@@ -354,6 +487,7 @@ public class UserService implements UserDetailsService {
         emailService.sendSignupRejectionEmail(pendingSignup.getEmail(), pendingSignup.getFullName(), reason);
     }
 
+    @Transactional
     public void deletePendingSignup(Long userId) {
         logger.info("Deleting signup request with id: {}", userId);
         PendingSignup pendingSignup = pendingSignupRepository.findById(userId)
@@ -0,0 +1,85 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Day counting shared by leave validation, balance computation and department on-leave checks.
+// All answers come from HolidayCalendar's cumulative arrays, so no call here touches the database
+// once the years involved are loaded.
+@Service
+public class WorkingDayCalculator {
+
+    @Autowired
+    private HolidayCalendar holidayCalendar;
+
+    public boolean isWorkingDay(LocalDate date) {
+        return !holidayCalendar.isHoliday(date);
+    }
+
+    // Working days in [start, end], both inclusive
+    public int workingDays(LocalDate start, LocalDate end) {
+        return holidayCalendar.countWorkingDays(start, end);
+    }
+
+    // Days charged for a leave: half-days count 0.5 unless they fall on a holiday, EL/ML/PL count
+    // every calendar day (sandwich rule) and all other types count working days only.
+    public double requiredDays(LeaveType leaveType, LocalDate startDate, LocalDate endDate, boolean isHalfDay) {
+        if (isHalfDay) {
+            return holidayCalendar.isHoliday(startDate) ? 0.0 : 0.5;
+        }
+        if (startDate == null || endDate == null) {
+            return 0.0;
+        }
+        return switch (leaveType) {
+            case EL, ML, PL -> (double) (ChronoUnit.DAYS.between(startDate, endDate) + 1);
+            default -> holidayCalendar.countWorkingDays(startDate, endDate);
+        };
+    }
+
+    public double requiredDays(LeaveApplication leave) {
+        return requiredDays(leave.getLeaveType(), leave.getStartDate(), leave.getEndDate(), leave.isHalfDay());
+    }
+
+    // Batch variant: loads every year the leaves touch up front, then counts each leave in O(1)
+    public Map<Long, Double> requiredDaysByLeave(Collection<LeaveApplication> leaves) {
+        preloadYears(leaves);
+        Map<Long, Double> daysByLeave = new HashMap<>();
+        for (LeaveApplication leave : leaves) {
+            daysByLeave.put(leave.getId(), requiredDays(leave));
+        }
+        return daysByLeave;
+    }
+
+    public double totalRequiredDays(Collection<LeaveApplication> leaves) {
+        preloadYears(leaves);
+        double total = 0.0;
+        for (LeaveApplication leave : leaves) {
+            total += requiredDays(leave);
+        }
+        return total;
+    }
+
+    private void preloadYears(Collection<LeaveApplication> leaves) {
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        for (LeaveApplication leave : leaves) {
+            if (leave.getStartDate() == null) {
+                continue;
+            }
+            LocalDate end = leave.getEndDate() != null ? leave.getEndDate() : leave.getStartDate();
+            minYear = Math.min(minYear, leave.getStartDate().getYear());
+            maxYear = Math.max(maxYear, end.getYear());
+        }
+        if (minYear <= maxYear) {
+            holidayCalendar.preload(minYear, maxYear);
+        }
+    }
+}
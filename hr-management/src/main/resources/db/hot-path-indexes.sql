@@ -0,0 +1,31 @@
+-- Secondary indexes for the hot repository queries (MySQL 8).
+--
+-- ddl-auto=update creates any of these that are missing at startup, but it does so with a blocking
+-- ALTER while the application starts. On a populated database run this script first: every statement
+-- builds its index online (ALGORITHM=INPLACE, LOCK=NONE), and the names match the @Index and
+-- @UniqueConstraint names on the entities, so Hibernate then finds them and does nothing.
+--
+-- The unique keys fail if the table already holds duplicates; find them with
+--   SELECT username, COUNT(*) FROM users GROUP BY username HAVING COUNT(*) > 1;
+--   SELECT email, COUNT(*) FROM users GROUP BY email HAVING COUNT(*) > 1;
+-- Skip a statement whose index already exists (SHOW INDEX FROM users / leave_applications).
+
+ALTER TABLE users
+    ADD UNIQUE INDEX uk_users_username (username),
+    ADD UNIQUE INDEX uk_users_email (email),
+    ADD INDEX idx_users_department_role (department, role),
+    ADD INDEX idx_users_role_status (role, status),
+    ADD INDEX idx_users_status (status),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE leave_applications
+    ADD INDEX idx_leave_applications_user_status (user_id, status),
+    ADD INDEX idx_leave_applications_user_type_start (user_id, leave_type, start_date),
+    ADD INDEX idx_leave_applications_approver_status_end (approver_id, status, end_date),
+    ADD INDEX idx_leave_applications_status_start (status, start_date),
+    ADD INDEX idx_leave_applications_start_end (start_date, end_date),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+-- The plain user_id key from the original schema is a prefix of idx_leave_applications_user_status
+-- and can go once the statements above have completed (the foreign key then uses the new index):
+-- ALTER TABLE leave_applications DROP INDEX user_id, ALGORITHM=INPLACE, LOCK=NONE;
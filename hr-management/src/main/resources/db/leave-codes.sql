@@ -0,0 +1,44 @@
+-- Leave status and type as short codes (MySQL 8).
+--
+-- leave_applications.status, leave_applications.leave_type and leave_usage_counters.leave_type now
+-- hold the codes from LeaveStatus / LeaveType instead of the full names. LeaveCodeMigration rewrites
+-- any old values at startup, but ddl-auto=update never narrows an existing column, so run this script
+-- (during a quiet period: MODIFY copies the table) to also shrink the columns and their indexes.
+
+UPDATE leave_applications
+SET status = CASE status
+    WHEN 'PENDING' THEN 'P'
+    WHEN 'APPROVED' THEN 'A'
+    WHEN 'REJECTED' THEN 'R'
+    WHEN 'CANCELLED' THEN 'C'
+END
+WHERE status IN ('PENDING', 'APPROVED', 'REJECTED', 'CANCELLED');
+
+UPDATE leave_applications
+SET leave_type = CASE leave_type
+    WHEN 'LWP' THEN 'LW'
+    WHEN 'HALF_DAY_CL' THEN 'HC'
+    WHEN 'HALF_DAY_EL' THEN 'HE'
+    WHEN 'HALF_DAY_LWP' THEN 'HL'
+END
+WHERE leave_type IN ('LWP', 'HALF_DAY_CL', 'HALF_DAY_EL', 'HALF_DAY_LWP');
+
+UPDATE leave_usage_counters
+SET leave_type = CASE leave_type
+    WHEN 'LWP' THEN 'LW'
+    WHEN 'HALF_DAY_CL' THEN 'HC'
+    WHEN 'HALF_DAY_EL' THEN 'HE'
+    WHEN 'HALF_DAY_LWP' THEN 'HL'
+END
+WHERE leave_type IN ('LWP', 'HALF_DAY_CL', 'HALF_DAY_EL', 'HALF_DAY_LWP');
+
+-- Any row listed here holds a value the application cannot read; fix or delete it before the ALTERs
+SELECT id, status, leave_type FROM leave_applications
+WHERE status NOT IN ('P', 'A', 'R', 'C') OR leave_type NOT IN ('CL', 'EL', 'ML', 'PL', 'LW', 'HC', 'HE', 'HL');
+
+ALTER TABLE leave_applications
+    MODIFY status CHAR(1) NOT NULL,
+    MODIFY leave_type CHAR(2) NOT NULL;
+
+ALTER TABLE leave_usage_counters
+    MODIFY leave_type CHAR(2) NOT NULL;
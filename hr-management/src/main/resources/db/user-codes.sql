@@ -0,0 +1,33 @@
+-- User status and gender as short codes (MySQL 8).
+--
+-- users.status and users.gender now hold the codes from UserStatus / Gender instead of the full names.
+-- UserCodeMigration rewrites any old values at startup, but ddl-auto=update never narrows an existing
+-- column, so run this script (during a quiet period: MODIFY copies the table) to also shrink the columns
+-- and the status indexes.
+
+UPDATE users
+SET status = CASE status
+    WHEN 'PENDING' THEN 'P'
+    WHEN 'ACTIVE' THEN 'A'
+    WHEN 'INACTIVE' THEN 'I'
+END
+WHERE status IN ('PENDING', 'ACTIVE', 'INACTIVE');
+
+-- Gender was stored as entered at signup ('Male', 'Female', 'Other')
+UPDATE users
+SET gender = CASE UPPER(TRIM(gender))
+    WHEN 'MALE' THEN 'M'
+    WHEN 'FEMALE' THEN 'F'
+    WHEN 'OTHER' THEN 'O'
+END
+WHERE UPPER(TRIM(gender)) IN ('MALE', 'FEMALE', 'OTHER');
+
+UPDATE users SET gender = NULL WHERE TRIM(gender) = '';
+
+-- Any row listed here holds a value the application cannot read; fix it before the ALTER
+SELECT id, status, gender FROM users
+WHERE status NOT IN ('P', 'A', 'I') OR gender NOT IN ('M', 'F', 'O');
+
+ALTER TABLE users
+    MODIFY status CHAR(1) NOT NULL,
+    MODIFY gender CHAR(1);
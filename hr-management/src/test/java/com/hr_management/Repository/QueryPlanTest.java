@@ -0,0 +1,152 @@
+package com.hr_management.Repository;
+
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.User;
+import com.hr_management.Entity.UserStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs every hot repository query, captures the SQL Hibernate sends and EXPLAINs it on H2 in MySQL
+// mode. Fails if the plan reads users, leave_applications or reporting_closure with a full table scan, i.e. if an
+// index is dropped or a query stops matching one.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hr_plans;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.hr_management.Repository.QueryPlanTest$Recorder"
+})
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    private static final List<String> TABLES = List.of("users", "leave_applications", "reporting_closure");
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReportingClosureRepository reportingClosureRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.findByUsername("plan_user").orElseGet(() -> {
+            User created = new User();
+            created.setFullName("Plan User");
+            created.setUsername("plan_user");
+            created.setPassword("secret");
+            created.setEmail("plan_user@example.com");
+            created.setRole("EMPLOYEE");
+            created.setStatus(UserStatus.ACTIVE);
+            created.setEmployeeId("PLAN-1");
+            return userRepository.save(created);
+        });
+        Recorder.statements.clear();
+    }
+
+    @Test
+    void testLeaveQueriesUseIndexes() throws Exception {
+        LocalDate today = LocalDate.now();
+        assertIndexed("findByUserIdAndStatus", () -> leaveApplicationRepository.findByUserIdAndStatus(user.getId(), LeaveStatus.PENDING));
+        assertIndexed("findByUserAndStatus", () -> leaveApplicationRepository.findByUserAndStatus(user, LeaveStatus.APPROVED));
+        assertIndexed("findByUserAndLeaveTypeInAndStartDateBetween", () -> leaveApplicationRepository
+                .findByUserAndLeaveTypeInAndStartDateBetween(user, List.of(LeaveType.CL, LeaveType.EL), today.withDayOfYear(1), today, true));
+        assertIndexed("findOverlappingLeaves", () -> leaveApplicationRepository.findOverlappingLeaves(user, today, today.plusDays(3)));
+        assertIndexed("findValidationSnapshot", () -> leaveApplicationRepository.findValidationSnapshot(user, today.withDayOfYear(1)));
+        assertIndexed("findByApproverIdAndStatus", () -> leaveApplicationRepository.findByApproverIdAndStatus(user.getId(), LeaveStatus.PENDING));
+        assertIndexed("countByApproverIdAndStatus", () -> leaveApplicationRepository.countByApproverIdAndStatus(user.getId(), LeaveStatus.PENDING));
+        assertIndexed("findCancellableLeavesByApproverId", () -> leaveApplicationRepository
+                .findCancellableLeavesByApproverId(user.getId(), today, today.plusDays(30)));
+        assertIndexed("findApprovedLeavesOnDate", () -> leaveApplicationRepository.findApprovedLeavesOnDate(today));
+        assertIndexed("findActiveDaysByStartDateBetween", () -> leaveApplicationRepository.findActiveDaysByStartDateBetween(today, today.plusDays(30)));
+        assertIndexed("findActiveDaysByUserIdAndStartDateBetween", () -> leaveApplicationRepository
+                .findActiveDaysByUserIdAndStartDateBetween(user.getId(), today, today.plusDays(30)));
+        assertIndexed("findPendingForDigest", () -> leaveApplicationRepository.findPendingForDigest());
+        assertIndexed("findApprovedIntervalsByDepartment", () -> leaveApplicationRepository
+                .findApprovedIntervalsByDepartment("Engineering", null, today, today.plusDays(89)));
+    }
+
+    @Test
+    void testUserQueriesUseIndexes() throws Exception {
+        assertIndexed("findByUsername", () -> userRepository.findByUsername("plan_user"));
+        assertIndexed("findSummaryByUsername", () -> userRepository.findSummaryByUsername("plan_user"));
+        assertIndexed("findByEmail", () -> userRepository.findByEmail("plan_user@example.com"));
+        assertIndexed("existsByEmployeeId", () -> userRepository.existsByEmployeeId("PLAN-1"));
+        assertIndexed("findByDepartment", () -> userRepository.findByDepartment("Engineering"));
+        assertIndexed("countByDepartment", () -> userRepository.countByDepartment("Engineering"));
+        assertIndexed("findByDepartmentAndRole", () -> userRepository.findByDepartmentAndRole("Engineering", "PROJECT_MANAGER"));
+        assertIndexed("findByDepartmentAndReportingToId", () -> userRepository
+                .findByDepartmentAndReportingToId("Engineering", user.getId(), PageRequest.of(0, 20)));
+        assertIndexed("countByRole", () -> userRepository.countByRole("HR"));
+        assertIndexed("findByStatus", () -> userRepository.findByStatus(UserStatus.PENDING));
+    }
+
+    @Test
+    void testReportingClosureQueriesUseIndexes() throws Exception {
+        assertIndexed("findPendingInSubtree", () -> leaveApplicationRepository.findPendingInSubtree(user.getId()));
+        assertIndexed("countSubtree", () -> reportingClosureRepository.countSubtree(user.getId()));
+        assertIndexed("findAncestors", () -> reportingClosureRepository.findAncestors(user.getId()));
+        assertIndexed("existsByAncestorIdAndDescendantId", () -> reportingClosureRepository
+                .existsByAncestorIdAndDescendantId(user.getId(), user.getId()));
+    }
+
+    private void assertIndexed(String name, Runnable query) throws Exception {
+        Recorder.statements.clear();
+        query.run();
+        assertFalse(Recorder.statements.isEmpty(), name + " ran no SQL");
+        for (String sql : new ArrayList<>(Recorder.statements)) {
+            String plan = explain(sql);
+            for (String table : TABLES) {
+                assertFalse(plan.contains("." + table + ".tableScan"), name + " scans " + table + ":\n" + plan);
+            }
+        }
+    }
+
+    // The plan is chosen when the statement is prepared; the parameters are only set so H2 will run it
+    private String explain(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    public static class Recorder implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.regionMatches(true, 0, "select", 0, 6)) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.hr_management.Util;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret",
+                "jGNjejQOamjFm8yhGu5vZ8kilxSDIzNaKHMWVx1G1NdHTezyqLPUv5dM1ARIoq5fTobX9lFd3O9hdPWJssy69Q==");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        jwtUtil.init();
+    }
+
+    @Test
+    void testParseTokenReturnsAllClaims() {
+        String token = jwtUtil.generateToken("alice", "hr", "Finance");
+
+        JwtClaims claims = jwtUtil.parseToken(token);
+
+        assertEquals("alice", claims.getSubject());
+        assertEquals("ROLE_HR", claims.getRole());
+        assertEquals("Finance", claims.getDepartment());
+        assertFalse(claims.isExpired());
+        assertTrue(jwtUtil.isTokenValid(token, "alice"));
+    }
+
+    @Test
+    void testParseTokenRejectsTamperedSignature() {
+        String token = jwtUtil.generateToken("alice", "hr", "Finance");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseToken(tampered));
+    }
+}
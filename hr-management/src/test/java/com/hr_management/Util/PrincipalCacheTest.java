@@ -0,0 +1,84 @@
+package com.hr_management.Util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, UserDetails> loader = username -> {
+        loads.incrementAndGet();
+        return User.withUsername(username).password("x").authorities("EMPLOYEE").build();
+    };
+
+    @Test
+    void testSecondLookupIsServedFromCache() {
+        PrincipalCache cache = new PrincipalCache(10, 300);
+
+        cache.get("alice", loader);
+        cache.get("alice", loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void testInvalidateForcesReload() {
+        PrincipalCache cache = new PrincipalCache(10, 300);
+
+        cache.get("alice", loader);
+        cache.invalidate("alice");
+        cache.get("alice", loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLoadOverlappingInvalidateIsNotCached() {
+        PrincipalCache cache = new PrincipalCache(10, 300);
+
+        // The status changes while the old principal is being loaded
+        cache.get("alice", username -> {
+            UserDetails stale = loader.apply(username);
+            cache.invalidate(username);
+            return stale;
+        });
+        cache.get("alice", loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        PrincipalCache cache = new PrincipalCache(2, 300);
+
+        cache.get("alice", loader);
+        cache.get("bob", loader);
+        cache.get("alice", loader);
+        cache.get("carol", loader);
+        cache.get("alice", loader);
+        cache.get("bob", loader);
+
+        assertEquals(2, cache.size());
+        assertEquals(4, loads.get(), "bob was evicted by carol and had to be reloaded");
+    }
+
+    @Test
+    void testExpiredEntryIsReloaded() {
+        PrincipalCache cache = new PrincipalCache(10, 0);
+
+        cache.get("alice", loader);
+        cache.get("alice", loader);
+
+        assertEquals(2, loads.get());
+    }
+}
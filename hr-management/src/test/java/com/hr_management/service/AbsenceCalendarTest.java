@@ -0,0 +1,95 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Department;
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.DepartmentRepository;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.UserRepository;
+import com.hr_management.dto.AbsenceDay;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AbsenceCalendarTest {
+
+    // Far enough ahead that no other test's leaves fall in the window
+    private static final LocalDate FROM = LocalDate.of(2033, 5, 1);
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Test
+    void testCalendarListsAbsentUsersPerDay() {
+        String key = TestUsers.uniqueKey();
+        Department department = new Department();
+        department.setName("Calendar " + key);
+        departmentRepository.save(department);
+        User manager = createUser("cal_mgr_" + key, department, null);
+        User first = createUser("cal_first_" + key, department, manager);
+        User second = createUser("cal_second_" + key, department, manager);
+        User other = createUser("cal_other_" + key, department, null);
+
+        createLeave(first, LeaveType.EL, FROM.minusDays(3), FROM.plusDays(1), LeaveStatus.APPROVED);
+        // Overlaps the leave above; first still counts once per day
+        createLeave(first, LeaveType.EL, FROM.plusDays(1), FROM.plusDays(2), LeaveStatus.APPROVED);
+        createLeave(second, LeaveType.ML, FROM.plusDays(2), FROM.plusDays(40), LeaveStatus.APPROVED);
+        createLeave(other, LeaveType.EL, FROM, FROM, LeaveStatus.APPROVED);
+        createLeave(second, LeaveType.EL, FROM, FROM, LeaveStatus.PENDING);
+        createLeave(manager, LeaveType.EL, FROM.plusDays(3), FROM.plusDays(3), LeaveStatus.CANCELLED);
+
+        List<AbsenceDay> days = departmentService.getAbsenceCalendar(department.getId(), null, "HR", FROM, FROM.plusDays(89));
+
+        assertEquals(90, days.size());
+        assertEquals(FROM, days.get(0).getDate());
+        assertEquals(List.of(first.getId(), other.getId()), days.get(0).getUserIds());
+        assertEquals(List.of(first.getId()), days.get(1).getUserIds());
+        assertEquals(List.of(first.getId(), second.getId()), days.get(2).getUserIds());
+        assertEquals(List.of(second.getId()), days.get(3).getUserIds());
+        assertEquals(1, days.get(40).getCount());
+        assertEquals(0, days.get(41).getCount());
+
+        List<AbsenceDay> team = departmentService.getAbsenceCalendar(department.getId(), manager.getId(), "PROJECT_MANAGER",
+                FROM, FROM.plusDays(2));
+        assertEquals(List.of(first.getId()), team.get(0).getUserIds());
+        assertEquals(List.of(first.getId(), second.getId()), team.get(2).getUserIds());
+    }
+
+    private User createUser(String username, Department department, User reportingTo) {
+        User user = TestUsers.newUser(username);
+        user.setRole(reportingTo == null ? "PROJECT_MANAGER" : "EMPLOYEE");
+        user.setDepartment(department.getName());
+        user.setReportingTo(reportingTo);
+        return userRepository.save(user);
+    }
+
+    private void createLeave(User user, LeaveType type, LocalDate start, LocalDate end, LeaveStatus status) {
+        LeaveApplication leave = new LeaveApplication();
+        leave.setUser(user);
+        leave.setLeaveType(type);
+        leave.setStartDate(start);
+        leave.setEndDate(end);
+        leave.setStatus(status);
+        leave.setAppliedOn(start.minusDays(10));
+        leaveApplicationRepository.save(leave);
+    }
+}
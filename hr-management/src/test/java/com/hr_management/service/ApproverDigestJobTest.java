@@ -0,0 +1,94 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.EmailOutboxMessage;
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.EmailOutboxRepository;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.UserRepository;
+import com.hr_management.service.EmailTemplateRegistry.EmailTemplate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ApproverDigestJobTest {
+
+    @Autowired
+    private ApproverDigestJob approverDigestJob;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Test
+    void testPendingLeavesAreCoalescedIntoOneEmailPerApprover() {
+        String key = TestUsers.uniqueKey();
+        User manager = createUser("mgr_" + key, null);
+        User first = createUser("first_" + key, manager);
+        User second = createUser("second_" + key, manager);
+        LocalDate start = LocalDate.now().plusDays(10);
+        createLeave(first, start.plusDays(2), LeaveStatus.PENDING);
+        createLeave(second, start, LeaveStatus.PENDING);
+        createLeave(second, start.plusDays(7), LeaveStatus.PENDING);
+        createLeave(first, start.plusDays(14), LeaveStatus.APPROVED);
+
+        assertTrue(approverDigestJob.run() >= 1);
+
+        List<EmailOutboxMessage> queued = emailOutboxRepository.findAll().stream()
+                .filter(message -> manager.getEmail().equals(message.getRecipient()))
+                .toList();
+        assertEquals(1, queued.size(), "one digest per approver");
+        EmailOutboxMessage digest = queued.get(0);
+        assertEquals("BISAG-N HR System - 3 leave request(s) awaiting your approval", digest.getSubject());
+        assertTrue(digest.getBody().startsWith("Dear Full mgr_" + key + ","));
+        int earliest = digest.getBody().indexOf("- Full second_" + key + ": CL from " + start);
+        assertTrue(earliest > 0, digest.getBody());
+        assertTrue(earliest < digest.getBody().indexOf("- Full first_" + key), "ordered by start date");
+        assertFalse(digest.getBody().contains(start.plusDays(14).toString()), "approved leaves are not listed");
+    }
+
+    @Test
+    void testTemplateRendering() {
+        EmailTemplate template = EmailTemplateRegistry.parse("sample", "Subject: Hi {{ name }}\n\nDear {{name}},\n{{count}} items\n");
+        assertEquals("Hi Ann", template.renderSubject(Map.of("name", "Ann", "count", 2)));
+        assertEquals("Dear Ann,\n2 items\n", template.renderBody(Map.of("name", "Ann", "count", 2)));
+        assertThrows(IllegalArgumentException.class, () -> template.renderBody(Map.of("name", "Ann")));
+        assertThrows(IllegalStateException.class, () -> EmailTemplateRegistry.parse("broken", "Dear {{name"));
+    }
+
+    private User createUser(String username, User reportingTo) {
+        User user = TestUsers.newUser(username);
+        user.setRole(reportingTo == null ? "PROJECT_MANAGER" : "EMPLOYEE");
+        user.setJoinDate(LocalDate.now().minusYears(1));
+        user.setReportingTo(reportingTo);
+        return userRepository.save(user);
+    }
+
+    private void createLeave(User user, LocalDate date, LeaveStatus status) {
+        LeaveApplication leave = new LeaveApplication();
+        leave.setUser(user);
+        leave.setLeaveType(LeaveType.CL);
+        leave.setStartDate(date);
+        leave.setEndDate(date);
+        leave.setStatus(status);
+        leave.setAppliedOn(LocalDate.now());
+        leave.setApproverId(user.getReportingTo().getId());
+        leaveApplicationRepository.save(leave);
+    }
+}
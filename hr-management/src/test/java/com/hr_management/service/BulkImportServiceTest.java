@@ -0,0 +1,274 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Department;
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.Role;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.DepartmentRepository;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.RoleRepository;
+import com.hr_management.Repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BulkImportServiceTest {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private BulkImportCommand bulkImportCommand;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    // Imported roles are checked against the roles table
+    @BeforeEach
+    void createRoles() {
+        for (String name : List.of("EMPLOYEE", "PROJECT_MANAGER", "HR", "SUPER_ADMIN")) {
+            if (!roleRepository.existsByName(name)) {
+                Role role = new Role();
+                role.setName(name);
+                roleRepository.save(role);
+            }
+        }
+        if (departmentRepository.findByName("Admin (Administration)").isEmpty()) {
+            Department admin = new Department();
+            admin.setName("Admin (Administration)");
+            departmentRepository.save(admin);
+        }
+    }
+
+    @Test
+    void testImportUsersAndLeavesFromCsv() throws Exception {
+        String p = TestUsers.uniqueKey();
+        Department department = new Department();
+        department.setName("Import " + p);
+        departmentRepository.save(department);
+
+        String users = "full_name,username,email,password,role,department,gender,join_date,employee_id,reporting_to\n"
+                + "\"Lead, " + p + "\",lead_" + p + ",lead_" + p + "@example.com,secret1,project_manager,Import " + p + ",Female,2024-01-01,L-" + p + ",\n"
+                + "Dev " + p + ",dev_" + p + ",dev_" + p + "@example.com,,employee,Import " + p + ",Male,2024-02-01,D-" + p + ",L-" + p + "\n"
+                + "Copy " + p + ",LEAD_" + p + ",copy_" + p + "@example.com,x,employee,Import " + p + ",Male,2024-02-01,C-" + p + ",\n"
+                + "Lost " + p + ",lost_" + p + ",lost_" + p + "@example.com,x,employee,Nowhere,Male,2024-02-01,N-" + p + ",\n";
+        Map<String, Object> report = bulkImportService.importUsersCsv(resource(users), false);
+
+        assertEquals(2, report.get("usersImported"));
+        assertEquals(2, report.get("rejected"));
+        List<?> errors = (List<?>) report.get("errors");
+        assertTrue(errors.get(0).toString().contains("Username already taken"));
+        assertTrue(errors.get(1).toString().contains("Department not found"));
+
+        User lead = userRepository.findByUsername("lead_" + p).orElseThrow();
+        User dev = userRepository.findByUsername("dev_" + p).orElseThrow();
+        assertEquals("Lead, " + p, lead.getFullName());
+        assertEquals("PROJECT_MANAGER", lead.getRole());
+        assertTrue(passwordEncoder.matches("secret1", lead.getPassword()));
+        assertEquals(182.0, lead.getLeaveBalance().getMaternityLeaveRemaining());
+        assertEquals(lead.getId(), dev.getReportingTo().getId());
+        assertEquals("Import " + p, dev.getDepartment());
+        assertFalse(passwordEncoder.matches("", dev.getPassword()));
+
+        String leaves = "employeeId,leaveType,startDate,endDate,halfDay,status\n"
+                + "D-" + p + ",lwp,2025-03-03,2025-03-04,no,rejected\n"
+                + "D-" + p + ",CL,2025-03-10,2025-03-10,yes,\n"
+                + "X-" + p + ",CL,2025-03-10,2025-03-10,no,\n"
+                + "D-" + p + ",EL,2025-04-07,2025-04-08,no,approved\n";
+        report = bulkImportService.importLeavesCsv(resource(leaves));
+
+        assertEquals(2, report.get("leavesImported"));
+        assertEquals(2, report.get("rejected"));
+        assertTrue(((List<?>) report.get("errors")).get(1).toString().contains("Approved leaves cannot be imported"));
+        List<LeaveApplication> imported = leaveApplicationRepository.findByUser(dev);
+        assertEquals(2, imported.size());
+        assertTrue(imported.stream().allMatch(leave -> lead.getId().equals(leave.getApproverId())));
+        assertTrue(imported.stream().anyMatch(leave -> leave.getStatus() == LeaveStatus.REJECTED && leave.getLeaveType() == LeaveType.LWP));
+        assertTrue(imported.stream().anyMatch(leave -> leave.getStatus() == LeaveStatus.PENDING && leave.isHalfDay()));
+    }
+
+    @Test
+    void testImportDumpRemapsIds() throws Exception {
+        String p = TestUsers.uniqueKey();
+        String hash = passwordEncoder.encode("dump-secret");
+        String dump = "-- MySQL dump\n/*!40101 SET NAMES utf8mb4 */;\n"
+                + "CREATE TABLE `departments` (\n  `id` bigint NOT NULL AUTO_INCREMENT,\n  `name` varchar(255) NOT NULL,\n"
+                + "  `description` varchar(255) DEFAULT NULL,\n  PRIMARY KEY (`id`)\n) ENGINE=InnoDB;\n"
+                + "INSERT INTO `departments` VALUES (7,'Dump " + p + "','It''s; tricky');\n"
+                + "CREATE TABLE `leave_applications` (\n  `id` bigint NOT NULL AUTO_INCREMENT,\n  `user_id` bigint NOT NULL,\n"
+                + "  `leave_type` varchar(255) NOT NULL,\n  `start_date` date NOT NULL,\n  `end_date` date NOT NULL,\n"
+                + "  `reason` varchar(255) DEFAULT NULL,\n  `status` varchar(255) NOT NULL,\n  `applied_on` date NOT NULL,\n"
+                + "  `remaining_leaves` double NOT NULL,\n  `is_half_day` bit(1) DEFAULT NULL,\n  `approver_id` bigint DEFAULT NULL,\n"
+                + "  PRIMARY KEY (`id`)\n) ENGINE=InnoDB;\n"
+                + "INSERT INTO `leave_applications` VALUES (1,42,'CL','2025-05-05','2025-05-06','Family (trip), \\'25',"
+                + "'APPROVED','2025-05-01',0,_binary '\\0',41),(2,99,'CL','2025-05-05','2025-05-05',NULL,'PENDING','2025-05-01',0,NULL,NULL);\n"
+                + "CREATE TABLE `users` (\n  `id` bigint NOT NULL AUTO_INCREMENT,\n  `department` varchar(255) DEFAULT NULL,\n"
+                + "  `email` varchar(255) DEFAULT NULL,\n  `full_name` varchar(255) DEFAULT NULL,\n  `password` varchar(255) DEFAULT NULL,\n"
+                + "  `role` varchar(255) DEFAULT NULL,\n  `username` varchar(255) DEFAULT NULL,\n  `gender` varchar(255) DEFAULT NULL,\n"
+                + "  `casual_leave_remaining` double NOT NULL DEFAULT '0',\n  `department_id` bigint DEFAULT NULL,\n"
+                + "  `status` varchar(255) NOT NULL DEFAULT 'PENDING',\n  `leave_without_payment` double NOT NULL,\n"
+                + "  `half_day_lwp` double NOT NULL,\n  `reporting_to` bigint DEFAULT NULL,\n  `join_date` date NOT NULL,\n"
+                + "  `employee_id` varchar(255) NOT NULL,\n  PRIMARY KEY (`id`)\n) ENGINE=InnoDB;\n"
+                + "INSERT INTO `users` VALUES (42,'Dump " + p + "','emp_" + p + "@example.com','Emp " + p + "','" + hash + "','EMPLOYEE',"
+                + "'emp_" + p + "','Male',7.5,7,'ACTIVE',1,0,41,'2023-04-01','E-" + p + "'),"
+                + "(41,'Dump " + p + "','mgr_" + p + "@example.com','Mgr " + p + "','" + hash + "','PROJECT_MANAGER',"
+                + "'mgr_" + p + "','Female',10,7,'ACTIVE',0,0,NULL,'2022-01-01','M-" + p + "');\n";
+
+        Map<String, Object> report = bulkImportService.importDump(resource(dump), false);
+
+        assertEquals(1, report.get("departmentsCreated"));
+        assertEquals(2, report.get("usersImported"));
+        assertEquals(1, report.get("leavesImported"));
+        assertEquals(1, report.get("rejected"), "the leave of an unknown user is rejected");
+
+        Department department = departmentRepository.findByName("Dump " + p).orElseThrow();
+        assertEquals("It's; tricky", department.getDescription());
+        User employee = userRepository.findByUsername("emp_" + p).orElseThrow();
+        User manager = userRepository.findByUsername("mgr_" + p).orElseThrow();
+        assertEquals(hash, employee.getPassword());
+        assertEquals(department.getId(), employee.getDepartmentEntity().getId());
+        assertEquals(manager.getId(), employee.getReportingTo().getId());
+        assertEquals(7.5, employee.getLeaveBalance().getCasualLeaveRemaining());
+        assertEquals(1.0, employee.getLeaveWithoutPayment());
+        assertEquals(LocalDate.of(2023, 4, 1), employee.getJoinDate());
+
+        LeaveApplication leave = leaveApplicationRepository.findByUser(employee).get(0);
+        assertEquals("Family (trip), '25", leave.getReason());
+        assertEquals(manager.getId(), leave.getApproverId());
+        assertFalse(leave.isHalfDay());
+        assertEquals(LeaveStatus.APPROVED, leave.getStatus());
+    }
+
+    @Test
+    void testImportRejectsUnknownRolesStatusesAndPrivilegedAccounts() throws Exception {
+        String p = TestUsers.uniqueKey();
+        Department department = new Department();
+        department.setName("Import " + p);
+        departmentRepository.save(department);
+
+        String header = "full_name,username,email,role,department,gender,join_date,employee_id,status\n";
+        String users = header
+                + "Ghost " + p + ",ghost_" + p + ",ghost_" + p + "@example.com,wizard,Import " + p + ",Male,2024-01-01,G-" + p + ",\n"
+                + "Root " + p + ",root_" + p + ",root_" + p + "@example.com,super_admin,,Male,2024-01-01,R-" + p + ",\n"
+                + "Admin " + p + ",admin_" + p + ",admin_" + p + "@example.com,hr,administration,Female,2024-01-01,A-" + p + ",\n"
+                + "Odd " + p + ",odd_" + p + ",odd_" + p + "@example.com,employee,Import " + p + ",Male,2024-01-01,O-" + p + ",approved\n"
+                + "Hr " + p + ",hr_" + p + ",hr_" + p + "@example.com,hr,Import " + p + ",Female,2024-01-01,H-" + p + ",\n";
+        Map<String, Object> report = bulkImportService.importUsersCsv(resource(users), false);
+
+        assertEquals(1, report.get("usersImported"), "only the HR account outside Administration is imported");
+        assertEquals(4, report.get("rejected"));
+        List<?> errors = (List<?>) report.get("errors");
+        assertTrue(errors.get(0).toString().contains("Unknown role WIZARD"));
+        assertTrue(errors.get(1).toString().contains("Only Super Admin can import Super Admin accounts"));
+        assertTrue(errors.get(2).toString().contains("Only Super Admin can import HR accounts in Admin (Administration)"));
+        assertTrue(errors.get(3).toString().contains("Unknown user status"));
+        assertTrue(userRepository.findByUsername("root_" + p).isEmpty());
+        assertTrue(userRepository.findByUsername("admin_" + p).isEmpty());
+        assertTrue(userRepository.findByUsername("hr_" + p).isPresent());
+
+        report = bulkImportService.importUsersCsv(resource(header
+                + "Root " + p + ",root_" + p + ",root_" + p + "@example.com,super_admin,,Male,2024-01-01,R-" + p + ",\n"
+                + "Admin " + p + ",admin_" + p + ",admin_" + p + "@example.com,hr,administration,Female,2024-01-01,A-" + p + ",\n"), true);
+
+        assertEquals(2, report.get("usersImported"), "a privileged import may create both");
+        assertEquals("Admin (Administration)", userRepository.findByUsername("admin_" + p).orElseThrow().getDepartment());
+    }
+
+    @Test
+    void testPrivilegedDumpRowsOverHttp() throws Exception {
+        String p = TestUsers.uniqueKey();
+        MockMultipartFile file = new MockMultipartFile("file", "Leave.sql", "application/sql",
+                privilegedDump(p).getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/api/hr/import/dump").file(file).with(user("hr_" + p).roles("HR")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usersImported").value(0))
+                .andExpect(jsonPath("$.rejected").value(2));
+        assertTrue(userRepository.findByUsername("root_" + p).isEmpty());
+
+        mockMvc.perform(multipart("/api/hr/import/dump").file(file).with(user("super_" + p).roles("SUPER_ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usersImported").value(2))
+                .andExpect(jsonPath("$.rejected").value(0));
+        assertEquals("SUPER_ADMIN", userRepository.findByUsername("root_" + p).orElseThrow().getRole());
+        assertEquals("Admin (Administration)", userRepository.findByUsername("admin_" + p).orElseThrow().getDepartment());
+    }
+
+    @Test
+    void testPrivilegedDumpRowsFromTheCommandLine() throws Exception {
+        String p = TestUsers.uniqueKey();
+        Path dump = Files.createTempFile("import-", ".sql");
+        try {
+            Files.writeString(dump, privilegedDump(p));
+
+            assertEquals(0, bulkImportCommand.importFiles(dump.toString(), null, null), "every row imported");
+        } finally {
+            Files.delete(dump);
+        }
+
+        assertEquals("SUPER_ADMIN", userRepository.findByUsername("root_" + p).orElseThrow().getRole());
+        assertEquals("HR", userRepository.findByUsername("admin_" + p).orElseThrow().getRole());
+    }
+
+    // The two kinds of account Leave.sql holds that only a privileged import may create
+    private String privilegedDump(String p) {
+        String hash = passwordEncoder.encode("dump-secret");
+        return "-- MySQL dump\n"
+                + "CREATE TABLE `departments` (\n  `id` bigint NOT NULL AUTO_INCREMENT,\n  `name` varchar(255) NOT NULL,\n"
+                + "  `description` varchar(255) DEFAULT NULL,\n  PRIMARY KEY (`id`)\n) ENGINE=InnoDB;\n"
+                + "INSERT INTO `departments` VALUES (1,'Admin (Administration)','Administration');\n"
+                + "CREATE TABLE `users` (\n  `id` bigint NOT NULL AUTO_INCREMENT,\n  `department` varchar(255) DEFAULT NULL,\n"
+                + "  `email` varchar(255) DEFAULT NULL,\n  `full_name` varchar(255) DEFAULT NULL,\n  `password` varchar(255) DEFAULT NULL,\n"
+                + "  `role` varchar(255) DEFAULT NULL,\n  `username` varchar(255) DEFAULT NULL,\n  `gender` varchar(255) DEFAULT NULL,\n"
+                + "  `department_id` bigint DEFAULT NULL,\n  `status` varchar(255) NOT NULL DEFAULT 'PENDING',\n"
+                + "  `join_date` date NOT NULL,\n  `employee_id` varchar(255) NOT NULL,\n  PRIMARY KEY (`id`)\n) ENGINE=InnoDB;\n"
+                + "INSERT INTO `users` VALUES (1,NULL,'root_" + p + "@example.com','Root " + p + "','" + hash + "','SUPER_ADMIN',"
+                + "'root_" + p + "','Male',NULL,'ACTIVE','2020-01-01','R-" + p + "'),"
+                + "(2,'Admin (Administration)','admin_" + p + "@example.com','Admin " + p + "','" + hash + "','HR',"
+                + "'admin_" + p + "','Female',1,'ACTIVE','2020-01-01','A-" + p + "');\n";
+    }
+
+    private static ByteArrayResource resource(String content) {
+        return new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,116 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.EmailOutboxMessage;
+import com.hr_management.Repository.EmailOutboxRepository;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Outbox delivery against GreenMail's local SMTP server
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=outbox@example.com",
+        "spring.mail.password=secret",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "mail.outbox.max-attempts=2"
+})
+@ActiveProfiles("test")
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("outbox@example.com", "secret"));
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @BeforeEach
+    void clearOutbox() {
+        emailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void testQueuedEmailsAreSentInBackground() throws Exception {
+        emailService.sendSignupConfirmationEmail("new.joiner@example.com", "New Joiner");
+        emailService.sendSignupApprovalEmail("approved@example.com", "Approved User");
+        assertEquals(0, greenMail.getReceivedMessages().length, "nothing is sent while enqueuing");
+
+        assertEquals(2, emailOutboxDispatcher.dispatch());
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 2));
+        MimeMessage first = greenMail.getReceivedMessagesForDomain("example.com")[0];
+        assertEquals("BISAG-N HR System - Signup Request Submitted", first.getSubject());
+        assertTrue(emailOutboxRepository.findAll().stream().allMatch(message -> "SENT".equals(message.getStatus())));
+        assertEquals(0, emailOutboxDispatcher.dispatch(), "sent messages are not sent again");
+    }
+
+    @Test
+    void testFailedSendsBackOffThenGoDead() {
+        emailService.sendPasswordResetEmail("someone@example.com", "token-123");
+        greenMail.stop();
+
+        assertEquals(0, emailOutboxDispatcher.dispatch());
+        EmailOutboxMessage message = emailOutboxRepository.findAll().get(0);
+        assertEquals("PENDING", message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertNotNull(message.getLastError());
+        assertTrue(message.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)), "retry is backed off");
+        assertEquals(0, emailOutboxDispatcher.dispatch(), "not retried before the backoff expires");
+
+        message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        emailOutboxRepository.save(message);
+        emailOutboxDispatcher.dispatch();
+
+        message = emailOutboxRepository.findById(message.getId()).orElseThrow();
+        assertEquals("DEAD", message.getStatus());
+        assertEquals(2, message.getAttempts());
+    }
+
+    @Test
+    void testPurgeDeletesSentAndDeadMessagesPastTheirRetention() {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutboxMessage oldSent = message("SENT", now.minusDays(3), now.minusDays(2));
+        EmailOutboxMessage recentSent = message("SENT", now.minusHours(2), now.minusHours(1));
+        EmailOutboxMessage oldDead = message("DEAD", now.minusDays(40), null);
+        EmailOutboxMessage recentDead = message("DEAD", now.minusDays(2), null);
+        EmailOutboxMessage oldPending = message("PENDING", now.minusDays(40), null);
+
+        assertEquals(2, emailOutboxDispatcher.purge());
+
+        assertFalse(emailOutboxRepository.existsById(oldSent.getId()));
+        assertFalse(emailOutboxRepository.existsById(oldDead.getId()));
+        assertTrue(emailOutboxRepository.existsById(recentSent.getId()));
+        assertTrue(emailOutboxRepository.existsById(recentDead.getId()), "dead messages are kept longer");
+        assertTrue(emailOutboxRepository.existsById(oldPending.getId()), "undelivered messages are never purged");
+    }
+
+    private EmailOutboxMessage message(String status, LocalDateTime createdAt, LocalDateTime sentAt) {
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setRecipient("retention@example.com");
+        message.setSubject("Retention");
+        message.setBody("Reset link: https://example.com/reset?token=secret");
+        message.setStatus(status);
+        message.setNextAttemptAt(createdAt);
+        message.setCreatedAt(createdAt);
+        message.setSentAt(sentAt);
+        return emailOutboxRepository.save(message);
+    }
+}
@@ -0,0 +1,82 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Department;
+import com.hr_management.Entity.Holiday;
+import com.hr_management.Repository.DepartmentRepository;
+import com.hr_management.Repository.HolidayRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdBlockAllocatorTest {
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    @Autowired
+    private HolidayRepository holidayRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testBlocksNeverOverlapHibernateIds() {
+        Long before = holidayRepository.save(holiday(LocalDate.of(2031, 1, 1))).getId();
+        long first = idBlockAllocator.allocate("holidays", 500);
+        Long after = holidayRepository.save(holiday(LocalDate.of(2031, 1, 2))).getId();
+
+        assertTrue(first > before);
+        assertTrue(after < first || after >= first + 500, "id " + after + " falls inside the reserved block");
+        assertEquals(first + 500, idBlockAllocator.allocate("holidays", 1));
+        Long stored = jdbcTemplate.queryForObject("SELECT next_val FROM id_generators WHERE entity_table = 'holidays'", Long.class);
+        assertEquals(first + 501, stored);
+    }
+
+    @Test
+    void testHibernateBlocksAfterAReservationStayClear() {
+        // departments rather than holidays, whose generator row the startup test rewinds
+        departmentRepository.save(department("Allocator test"));
+        long first = idBlockAllocator.allocate("departments", 3);
+        // More saves than one allocation, so Hibernate runs through its current block and fetches the next
+        for (int i = 0; i < 60; i++) {
+            Long id = departmentRepository.save(department("Allocator test " + i)).getId();
+            assertTrue(id < first || id >= first + 3, "id " + id + " falls inside the reserved block");
+        }
+    }
+
+    @Test
+    void testStartupRaisesGeneratorAboveExistingIds() {
+        holidayRepository.save(holiday(LocalDate.of(2031, 2, 1)));
+        jdbcTemplate.update("UPDATE id_generators SET next_val = 1 WHERE entity_table = 'holidays'");
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM holidays", Long.class);
+
+        idBlockAllocator.afterSingletonsInstantiated();
+
+        assertEquals(max + 1, idBlockAllocator.allocate("holidays", 1));
+    }
+
+    private static Holiday holiday(LocalDate date) {
+        Holiday holiday = new Holiday();
+        holiday.setName("Allocator test " + date);
+        holiday.setDate(date);
+        holiday.setType("CUSTOM");
+        return holiday;
+    }
+
+    private static Department department(String name) {
+        Department department = new Department();
+        department.setName(name);
+        return department;
+    }
+}
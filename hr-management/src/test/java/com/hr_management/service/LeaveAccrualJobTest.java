@@ -0,0 +1,107 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LeaveAccrualJobTest {
+
+    @InjectMocks
+    private LeaveAccrualJob leaveAccrualJob;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LeaveAccrualService leaveAccrualService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private LeaveMutationGuard leaveMutationGuard;
+
+    @Mock
+    private LeaveUsageService leaveUsageService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(leaveAccrualJob, "chunkSize", 200);
+        when(leaveMutationGuard.execute(any(Long.class), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+    }
+
+    @Test
+    void testChunkLoadsUsageOnce() {
+        User first = user(5L);
+        User second = user(6L);
+        LocalDate date = LocalDate.of(2030, 2, 1);
+        LeaveUsage firstUsage = new LeaveUsage(List.of());
+        LeaveUsage secondUsage = new LeaveUsage(List.of());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(userRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(5L, 6L));
+        when(userRepository.findIdsAfter(eq(6L), any())).thenReturn(List.of());
+        when(userRepository.findWithClAccrualByIdIn(List.of(5L, 6L))).thenReturn(List.of(first, second));
+        when(leaveUsageService.loadUsageByUser(List.of(5L, 6L), 2030)).thenReturn(Map.of(5L, firstUsage, 6L, secondUsage));
+        when(leaveAccrualService.rollover(first, date, firstUsage)).thenReturn(true);
+
+        assertTrue(leaveAccrualJob.run(date, false));
+
+        assertEquals(2, leaveAccrualJob.getStatus().get("processed"));
+        assertEquals(1, leaveAccrualJob.getStatus().get("updated"));
+        verify(leaveAccrualService).rollover(second, date, secondUsage);
+        verify(leaveUsageService, never()).loadUsage(any(), anyInt());
+    }
+
+    @Test
+    void testConflictingChunkIsRedonePerUser() {
+        User user = user(5L);
+        LocalDate date = LocalDate.of(2030, 2, 1);
+        when(transactionTemplate.execute(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(User.class, 5L))
+                .thenReturn(new long[] {0, 0, 0, 5L});
+        when(userRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(5L));
+        when(userRepository.findWithClAccrualByIdIn(List.of(5L))).thenReturn(List.of(user));
+        LeaveUsage usage = new LeaveUsage(List.of());
+        when(leaveUsageService.loadUsage(5L, 2030)).thenReturn(usage);
+        when(leaveAccrualService.rollover(user, date, usage)).thenReturn(true);
+
+        assertTrue(leaveAccrualJob.run(date, false));
+
+        Map<String, Object> status = leaveAccrualJob.getStatus();
+        assertEquals("COMPLETED", status.get("state"));
+        assertEquals(1, status.get("processed"));
+        assertEquals(1, status.get("updated"));
+        assertEquals(5L, status.get("lastProcessedId"));
+        verify(leaveMutationGuard).execute(eq(5L), any());
+        verify(userRepository).save(user);
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setRole("EMPLOYEE");
+        user.setJoinDate(LocalDate.of(2020, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,80 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveBalance;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.LeaveUsageCounter;
+import com.hr_management.Entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+class LeaveAccrualServiceTest {
+
+    @InjectMocks
+    private LeaveAccrualService leaveAccrualService;
+
+    @Mock
+    private LeaveUsageService leaveUsageService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        user = new User();
+        user.setId(1L);
+        user.setJoinDate(LocalDate.of(2025, 4, 15));
+    }
+
+    @Test
+    void testInitializeYearIsIdempotent() {
+        assertTrue(leaveAccrualService.initializeYear(user, 2025));
+        assertEquals(9, user.getLeaveBalance().getMonthlyClAccrual().size(), "April to December");
+        assertEquals(2025, user.getLeaveBalance().getLastInitializedYear());
+
+        assertFalse(leaveAccrualService.initializeYear(user, 2025));
+
+        assertTrue(leaveAccrualService.initializeYear(user, 2026));
+        assertEquals(12, user.getLeaveBalance().getMonthlyClAccrual().size());
+    }
+
+    @Test
+    void testMonthlyClAccrualDoesNotMutateUser() {
+        LeaveBalance leaveBalance = user.getLeaveBalance();
+        leaveBalance.setLastInitializedYear(2025);
+
+        Map<Integer, Double> accrual = leaveAccrualService.monthlyClAccrual(user, 2026);
+
+        assertEquals(12, accrual.size());
+        assertEquals(3.0, leaveAccrualService.accruedCl(user, 2026, 3));
+        assertEquals(2025, leaveBalance.getLastInitializedYear());
+        assertTrue(leaveBalance.getMonthlyClAccrual().isEmpty());
+    }
+
+    @Test
+    void testRolloverCarriesUnusedFirstHalfEl() {
+        LeaveUsageCounter firstHalfEl = new LeaveUsageCounter(1L, 2026, LeaveType.EL, 1);
+        firstHalfEl.setApprovedDays(4.0);
+        LeaveUsageCounter secondHalfEl = new LeaveUsageCounter(1L, 2026, LeaveType.EL, 2);
+        secondHalfEl.setPendingDays(2.0);
+        when(leaveUsageService.loadUsage(anyLong(), anyInt())).thenReturn(new LeaveUsage(List.of(firstHalfEl, secondHalfEl)));
+
+        assertTrue(leaveAccrualService.rollover(user, LocalDate.of(2026, 8, 1)));
+        // carryover = 10 - 4 - 2 = 4, so second half allows 10 + 4 - 2
+        assertEquals(12.0, user.getLeaveBalance().getEarnedLeaveRemaining());
+        assertEquals(8.0, user.getLeaveBalance().getCasualLeaveRemaining());
+
+        assertFalse(leaveAccrualService.rollover(user, LocalDate.of(2026, 8, 1)));
+    }
+}
@@ -0,0 +1,67 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaveCodeMigrationTest {
+
+    @Autowired
+    private LeaveCodeMigration leaveCodeMigration;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testOldNamesAreRewrittenToCodes() {
+        User user = userRepository.save(TestUsers.newUser("codes_" + TestUsers.uniqueKey()));
+
+        LeaveApplication leave = new LeaveApplication();
+        leave.setUser(user);
+        leave.setLeaveType(LeaveType.HALF_DAY_CL);
+        leave.setStartDate(LocalDate.now());
+        leave.setEndDate(LocalDate.now());
+        leave.setHalfDay(true);
+        leave.setStatus(LeaveStatus.APPROVED);
+        leave.setAppliedOn(LocalDate.now());
+        Long id = leaveApplicationRepository.save(leave).getId();
+        assertEquals(Map.of("status", "A", "leave_type", "HC"), columns(id));
+
+        // A row written before the switch to codes, in columns ddl-auto=update left at their old width
+        jdbcTemplate.execute("ALTER TABLE leave_applications ALTER COLUMN status VARCHAR(255)");
+        jdbcTemplate.execute("ALTER TABLE leave_applications ALTER COLUMN leave_type VARCHAR(255)");
+        jdbcTemplate.update("UPDATE leave_applications SET status = 'APPROVED', leave_type = 'HALF_DAY_CL' WHERE id = ?", id);
+        leaveCodeMigration.afterSingletonsInstantiated();
+
+        assertEquals(Map.of("status", "A", "leave_type", "HC"), columns(id));
+        LeaveApplication migrated = leaveApplicationRepository.findById(id).orElseThrow();
+        assertEquals(LeaveStatus.APPROVED, migrated.getStatus());
+        assertEquals(LeaveType.HALF_DAY_CL, migrated.getLeaveType());
+    }
+
+    private Map<String, Object> columns(Long id) {
+        return jdbcTemplate.queryForObject("SELECT status, leave_type FROM leave_applications WHERE id = ?",
+                (rs, row) -> Map.of("status", rs.getString(1), "leave_type", rs.getString(2)), id);
+    }
+}
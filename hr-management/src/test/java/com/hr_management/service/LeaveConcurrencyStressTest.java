@@ -0,0 +1,223 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Gender;
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.LeaveUsageCounterRepository;
+import com.hr_management.Repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 100 concurrent leave mutations against one employee on an in-memory database
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaveConcurrencyStressTest {
+
+    private static final int THREADS = 100;
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private LeaveUsageCounterRepository leaveUsageCounterRepository;
+
+    @Autowired
+    private WorkingDayCalculator workingDayCalculator;
+
+    @Test
+    void testConcurrentSubmissionsBookOnce() throws Exception {
+        User manager = createUser("MANAGER", null);
+        User employee = createUser("EMPLOYEE", manager);
+        LocalDate start = nextWeekday(LocalDate.now().plusDays(7));
+
+        List<Boolean> results = runConcurrently(employee.getUsername(), index -> {
+            LeaveApplication application = new LeaveApplication();
+            application.setLeaveType(LeaveType.LWP);
+            application.setStartDate(start);
+            application.setEndDate(start.plusDays(index % 3));
+            application.setReason("Stress test " + index);
+            leaveService.applyLeave(application);
+        });
+
+        assertEquals(1, results.stream().filter(Boolean::booleanValue).count(), "exactly one submission may succeed");
+        assertEquals(1, leaveApplicationRepository.findByUser(employee).size());
+    }
+
+    @Test
+    void testConcurrentApprovalsLoseNoUpdates() throws Exception {
+        User manager = createUser("MANAGER", null);
+        User employee = createUser("EMPLOYEE", manager);
+
+        List<Long> leaveIds = new ArrayList<>();
+        double expectedDays = 0.0;
+        LocalDate date = LocalDate.now().plusDays(1);
+        for (int i = 0; i < THREADS; i++) {
+            date = nextWeekday(date);
+            LeaveApplication leave = new LeaveApplication();
+            leave.setUser(employee);
+            leave.setLeaveType(LeaveType.LWP);
+            leave.setStartDate(date);
+            leave.setEndDate(date);
+            leave.setStatus(LeaveStatus.PENDING);
+            leave.setAppliedOn(LocalDate.now());
+            leave.setApproverId(manager.getId());
+            leaveIds.add(leaveApplicationRepository.save(leave).getId());
+            expectedDays += workingDayCalculator.requiredDays(leave);
+            date = date.plusDays(1);
+        }
+
+        List<Boolean> results = runConcurrently(manager.getUsername(), index -> leaveService.approveLeave(leaveIds.get(index)));
+
+        assertTrue(results.stream().allMatch(Boolean::booleanValue), "every approval should succeed");
+        User reloaded = userRepository.findById(employee.getId()).orElseThrow();
+        assertEquals(expectedDays, reloaded.getLeaveWithoutPayment(), 0.0001);
+        double counted = leaveUsageCounterRepository.findAll().stream()
+                .filter(counter -> counter.getUserId().equals(employee.getId()) && counter.getLeaveType() == LeaveType.LWP)
+                .mapToDouble(counter -> counter.getApprovedDays())
+                .sum();
+        assertEquals(expectedDays, counted, 0.0001);
+        assertEquals(THREADS, leaveApplicationRepository.findByUserAndStatus(employee, LeaveStatus.APPROVED).size());
+    }
+
+    @Test
+    void testBatchApprovalRacingSingleApprovals() throws Exception {
+        User manager = createUser("MANAGER", null);
+        User otherManager = createUser("MANAGER", null);
+        List<User> employees = List.of(createUser("EMPLOYEE", manager), createUser("EMPLOYEE", manager));
+        User outsider = createUser("EMPLOYEE", otherManager);
+
+        List<Long> leaveIds = new ArrayList<>();
+        double expectedDays = 0.0;
+        LocalDate date = LocalDate.now().plusDays(1);
+        for (int i = 0; i < 20; i++) {
+            date = nextWeekday(date);
+            LeaveApplication leave = pendingLwp(employees.get(i % 2), manager, date);
+            leaveIds.add(leave.getId());
+            expectedDays += workingDayCalculator.requiredDays(leave);
+            date = date.plusDays(1);
+        }
+        Long foreignLeaveId = pendingLwp(outsider, otherManager, nextWeekday(date)).getId();
+
+        List<Long> batch = new ArrayList<>(leaveIds);
+        batch.add(foreignLeaveId);
+        batch.add(-1L);
+        // One thread submits the whole batch while twenty others approve the same leaves one by one
+        List<Boolean> results = runConcurrently(manager.getUsername(), index -> {
+            if (index == 0) {
+                List<Map<String, Object>> batchResults = leaveService.approveLeaves(batch);
+                assertEquals(batch.size(), batchResults.size());
+                assertEquals("You are not authorized to approve this leave", batchResults.get(20).get("message"));
+                assertEquals("Leave application not found", batchResults.get(21).get("message"));
+            } else if (index <= leaveIds.size()) {
+                leaveService.approveLeave(leaveIds.get(index - 1));
+            }
+        });
+
+        assertTrue(results.get(0), "the batch itself should not fail");
+        double lwp = employees.stream()
+                .mapToDouble(employee -> userRepository.findById(employee.getId()).orElseThrow().getLeaveWithoutPayment())
+                .sum();
+        assertEquals(expectedDays, lwp, 0.0001, "each leave charged exactly once");
+        assertEquals(LeaveStatus.PENDING, leaveApplicationRepository.findById(foreignLeaveId).orElseThrow().getStatus());
+        for (Long id : leaveIds) {
+            assertEquals(LeaveStatus.APPROVED, leaveApplicationRepository.findById(id).orElseThrow().getStatus());
+        }
+    }
+
+    private LeaveApplication pendingLwp(User employee, User approver, LocalDate date) {
+        LeaveApplication leave = new LeaveApplication();
+        leave.setUser(employee);
+        leave.setLeaveType(LeaveType.LWP);
+        leave.setStartDate(date);
+        leave.setEndDate(date);
+        leave.setStatus(LeaveStatus.PENDING);
+        leave.setAppliedOn(LocalDate.now());
+        leave.setApproverId(approver.getId());
+        return leaveApplicationRepository.save(leave);
+    }
+
+    // Runs the task on THREADS threads released together, as the given user; true where it succeeded
+    private List<Boolean> runConcurrently(String username, IndexedTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(
+                            new UsernamePasswordAuthenticationToken(username, null, List.of()));
+                    ready.countDown();
+                    go.await();
+                    try {
+                        task.run(index);
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                }));
+            }
+            ready.await();
+            go.countDown();
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private User createUser(String role, User reportingTo) {
+        int n = sequence.incrementAndGet();
+        User user = TestUsers.newUser("stress_" + role.toLowerCase() + "_" + n);
+        user.setRole(role);
+        user.setGender(Gender.MALE);
+        user.setJoinDate(LocalDate.now().minusYears(1));
+        user.setReportingTo(reportingTo);
+        return userRepository.save(user);
+    }
+
+    private static LocalDate nextWeekday(LocalDate date) {
+        while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            date = date.plusDays(1);
+        }
+        return date;
+    }
+
+    private interface IndexedTask {
+        void run(int index);
+    }
+}
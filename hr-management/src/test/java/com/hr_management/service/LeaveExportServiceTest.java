@@ -0,0 +1,105 @@
+package com.hr_management.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaveExportServiceTest {
+
+    // A window no other test writes leaves into
+    private static final LocalDate FROM = LocalDate.of(2031, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2031, 3, 31);
+
+    @Autowired
+    private LeaveExportService leaveExportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String employeeId;
+
+    @BeforeEach
+    void setUp() {
+        String key = TestUsers.uniqueKey();
+        User user = TestUsers.newUser("export_" + key);
+        user.setFullName("Export, " + key);
+        user.setJoinDate(LocalDate.of(2030, 1, 1));
+        user = userRepository.save(user);
+        employeeId = user.getEmployeeId();
+
+        // Spans the end of the window: 7 days in total, 3 of them in March
+        leaveApplicationRepository.save(leave(user, LeaveType.LWP, LocalDate.of(2031, 3, 29), LocalDate.of(2031, 4, 4), LeaveStatus.APPROVED));
+        leaveApplicationRepository.save(leave(user, LeaveType.CL, LocalDate.of(2031, 3, 10), LocalDate.of(2031, 3, 10), LeaveStatus.APPROVED));
+        leaveApplicationRepository.save(leave(user, LeaveType.LWP, LocalDate.of(2031, 3, 12), LocalDate.of(2031, 3, 12), LeaveStatus.REJECTED));
+    }
+
+    @Test
+    void testCsvExportClipsDaysToRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = leaveExportService.export(FROM, TO, LeaveStatus.APPROVED, List.of(LeaveType.LWP, LeaveType.HALF_DAY_LWP), "csv", out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines()
+                .filter(line -> line.startsWith("leaveId") || line.contains(employeeId))
+                .toList();
+        assertTrue(rows >= 1);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).contains(",\"Export, "), "names with commas are quoted");
+        assertTrue(lines.get(1).endsWith(",7.0,3.0"), lines.get(1));
+    }
+
+    @Test
+    void testNdjsonExportWritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        leaveExportService.export(FROM, TO, null, null, "ndjson", out);
+
+        List<JsonNode> rows = out.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line);
+                    } catch (Exception e) {
+                        throw new AssertionError("Not a JSON line: " + line, e);
+                    }
+                })
+                .filter(node -> employeeId.equals(node.get("employeeId").asText()))
+                .toList();
+        assertEquals(3, rows.size());
+        assertEquals("CL", rows.get(0).get("leaveType").asText());
+        assertEquals(1.0, rows.get(0).get("days").asDouble());
+    }
+
+    private LeaveApplication leave(User user, LeaveType type, LocalDate start, LocalDate end, LeaveStatus status) {
+        LeaveApplication leave = new LeaveApplication();
+        leave.setUser(user);
+        leave.setLeaveType(type);
+        leave.setStartDate(start);
+        leave.setEndDate(end);
+        leave.setStatus(status);
+        leave.setAppliedOn(start.minusDays(5));
+        return leave;
+    }
+}
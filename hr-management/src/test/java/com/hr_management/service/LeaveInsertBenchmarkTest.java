@@ -0,0 +1,88 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.User;
+import com.hr_management.Entity.UserStatus;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opt-in insert throughput benchmark: mvn test -Dtest=LeaveInsertBenchmarkTest -Dbenchmark=true
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LeaveInsertBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveInsertBenchmarkTest.class);
+
+    private static final int LEAVES = 10_000;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void benchmarkLeaveApplicationInserts() {
+        User user = new User();
+        user.setFullName("Benchmark User");
+        user.setUsername("benchmark_user");
+        user.setPassword("secret");
+        user.setEmail("benchmark_user@example.com");
+        user.setRole("EMPLOYEE");
+        user.setStatus(UserStatus.ACTIVE);
+        user.setEmployeeId("BENCH-1");
+        User saved = userRepository.save(user);
+
+        // The first round warms up the JIT and connection pool; the best of the others is reported
+        double best = 0;
+        for (int round = 0; round <= ROUNDS; round++) {
+            List<LeaveApplication> leaves = new ArrayList<>(LEAVES);
+            for (int i = 0; i < LEAVES; i++) {
+                LeaveApplication leave = new LeaveApplication();
+                leave.setUser(saved);
+                leave.setLeaveType(LeaveType.CL);
+                leave.setStartDate(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+                leave.setEndDate(leave.getStartDate());
+                leave.setStatus(LeaveStatus.PENDING);
+                leave.setAppliedOn(LocalDate.of(2024, 12, 1));
+                leaves.add(leave);
+            }
+            long startedAt = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> leaveApplicationRepository.saveAll(leaves));
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            if (round > 0) {
+                best = Math.max(best, LEAVES / seconds);
+            }
+            logger.info("Round {}: {} leave applications in {} ms ({} inserts/s)",
+                    round, LEAVES, Math.round(seconds * 1000), Math.round(LEAVES / seconds));
+        }
+        logger.info("Best: {} inserts/s", Math.round(best));
+        assertEquals((ROUNDS + 1L) * LEAVES, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM leave_applications WHERE user_id = ?", Long.class, saved.getId()));
+    }
+}
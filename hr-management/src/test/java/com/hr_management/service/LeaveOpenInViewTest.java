@@ -0,0 +1,109 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Gender;
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// applyLeave through the web layer, where open-in-view keeps one persistence context for the whole request.
+// With a single attempt, a stale User in that context would fail the version check instead of being retried.
+@SpringBootTest(properties = "leave.mutation.max-attempts=1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LeaveOpenInViewTest {
+
+    private static final String STALE_USER_HEADER = "X-Test-Stale-User";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Test
+    void testApplyLeaveRereadsAUserLoadedEarlierInTheRequest() throws Exception {
+        String key = TestUsers.uniqueKey();
+        User manager = createUser("osiv_mgr_" + key, null);
+        User employee = createUser("osiv_emp_" + key, manager);
+        LocalDate start = LocalDate.now().plusDays(7);
+        while (start.getDayOfWeek() == DayOfWeek.SATURDAY || start.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            start = start.plusDays(1);
+        }
+
+        mockMvc.perform(post("/api/leaves")
+                        .with(user(employee.getUsername()).roles("EMPLOYEE"))
+                        .header(STALE_USER_HEADER, "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"leaveType\":\"LWP\",\"startDate\":\"" + start + "\",\"endDate\":\"" + start
+                                + "\",\"reason\":\"Open in view\"}"))
+                .andExpect(status().isOk());
+
+        List<LeaveApplication> leaves = leaveApplicationRepository.findByUser(employee);
+        assertEquals(1, leaves.size());
+        assertTrue(userRepository.findById(employee.getId()).orElseThrow().getVersion() > employee.getVersion() + 1,
+                "applyLeave bumped the version on top of the concurrent writer's");
+    }
+
+    private User createUser(String username, User reportingTo) {
+        User user = TestUsers.newUser(username);
+        user.setGender(Gender.MALE);
+        user.setJoinDate(LocalDate.now().minusYears(1));
+        user.setReportingTo(reportingTo);
+        return userRepository.save(user);
+    }
+
+    // Before the controller runs (and after open-in-view has bound the request's EntityManager), loads the
+    // caller into that EntityManager and then commits a version bump from another connection, as a leave
+    // mutation on another instance would
+    @TestConfiguration
+    static class StaleUserConfig {
+
+        @Bean
+        WebMvcConfigurer staleUserInterceptor(UserRepository userRepository, JdbcTemplate jdbcTemplate) {
+            return new WebMvcConfigurer() {
+                @Override
+                public void addInterceptors(InterceptorRegistry registry) {
+                    registry.addInterceptor(new HandlerInterceptor() {
+                        @Override
+                        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                            if (request.getHeader(STALE_USER_HEADER) != null) {
+                                User user = userRepository.findByUsername(request.getUserPrincipal().getName()).orElseThrow();
+                                jdbcTemplate.update("UPDATE users SET version = version + 1 WHERE id = ?", user.getId());
+                            }
+                            return true;
+                        }
+                    }).addPathPatterns("/api/leaves").order(Ordered.LOWEST_PRECEDENCE);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Gender;
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveBalance;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.HolidayRepository;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.UserRepository;
+import com.hr_management.dto.CurrentUserSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Query budgets: for applyLeave the validation snapshot is the only read and the insert the only write
+class LeaveServiceImplTest {
+
+    @InjectMocks
+    private LeaveServiceImpl leaveService;
+
+    @Mock
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private HolidayService holidayService;
+
+    @Mock
+    private LeaveUsageService leaveUsageService;
+
+    @Mock
+    private HolidayRepository holidayRepository;
+
+    @Mock
+    private LeaveMutationGuard leaveMutationGuard;
+
+    @Mock
+    private StaffingCalendar staffingCalendar;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private WorkingDayCalculator workingDayCalculator = new WorkingDayCalculator();
+
+    @Spy
+    private LeaveAccrualService leaveAccrualService = new LeaveAccrualService();
+
+    private User user;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        HolidayCalendar holidayCalendar = new HolidayCalendar();
+        ReflectionTestUtils.setField(holidayCalendar, "holidayRepository", holidayRepository);
+        ReflectionTestUtils.setField(workingDayCalculator, "holidayCalendar", holidayCalendar);
+        when(holidayRepository.findByDateBetween(any(), any())).thenReturn(List.of());
+
+        User manager = new User();
+        manager.setId(2L);
+        user = new User();
+        user.setId(1L);
+        user.setRole("EMPLOYEE");
+        user.setGender(Gender.MALE);
+        user.setJoinDate(LocalDate.of(today.getYear() - 1, 1, 1));
+        user.setReportingTo(manager);
+        LeaveBalance leaveBalance = new LeaveBalance();
+        Map<Integer, Double> monthlyClAccrual = new HashMap<>();
+        for (int month = 1; month <= 12; month++) {
+            monthlyClAccrual.put(month, 1.0);
+        }
+        leaveBalance.setMonthlyClAccrual(monthlyClAccrual);
+        leaveBalance.setLastInitializedYear(today.getYear());
+        user.setLeaveBalance(leaveBalance);
+
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(userService.getCurrentUserSummary()).thenReturn(new CurrentUserSummary(1L, "employee", "EMPLOYEE", null, null));
+        when(leaveMutationGuard.execute(eq(1L), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        when(entityManager.find(User.class, 1L)).thenReturn(user);
+        when(leaveApplicationRepository.save(any(LeaveApplication.class))).thenAnswer(invocation -> {
+            LeaveApplication saved = invocation.getArgument(0);
+            saved.setId(100L);
+            return saved;
+        });
+    }
+
+    @Test
+    void testApplyCasualLeaveRunsOneReadQuery() {
+        when(leaveApplicationRepository.findValidationSnapshot(eq(user), any())).thenReturn(List.of(
+                leave(LeaveType.CL, LeaveStatus.APPROVED, today.minusDays(40), today.minusDays(40))));
+
+        LeaveApplication saved = leaveService.applyLeave(application(LeaveType.CL, today, today));
+
+        assertEquals(LeaveStatus.PENDING, saved.getStatus());
+        assertEquals(2L, saved.getApproverId());
+        verify(leaveApplicationRepository, times(1)).findValidationSnapshot(eq(user), any());
+        verify(leaveApplicationRepository, times(1)).save(any(LeaveApplication.class));
+        verifyNoMoreInteractions(leaveApplicationRepository);
+        verifyNoInteractions(userRepository);
+        verify(leaveUsageService).recordStatusChange(eq(saved), isNull(), eq(LeaveStatus.PENDING), anyDouble());
+        verify(leaveUsageService, never()).loadUsage(any(), anyInt());
+        verify(holidayRepository, atMost(2)).findByDateBetween(any(), any());
+        // Only the id is read before the lock; the User is re-read inside the transaction
+        verify(userService, never()).getCurrentUser();
+        verify(entityManager).refresh(user);
+        verify(entityManager).lock(user, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    @Test
+    void testApplyEarnedLeaveRunsOneReadQuery() {
+        when(leaveApplicationRepository.findValidationSnapshot(eq(user), any())).thenReturn(List.of());
+
+        leaveService.applyLeave(application(LeaveType.EL, today, today));
+
+        verify(leaveApplicationRepository, times(1)).findValidationSnapshot(eq(user), any());
+        verify(leaveApplicationRepository, times(1)).save(any(LeaveApplication.class));
+        verifyNoMoreInteractions(leaveApplicationRepository);
+        verify(leaveUsageService, never()).loadUsage(any(), anyInt());
+    }
+
+    @Test
+    void testPendingApplicationRejectedFromSnapshot() {
+        when(leaveApplicationRepository.findValidationSnapshot(eq(user), any())).thenReturn(List.of(
+                leave(LeaveType.EL, LeaveStatus.PENDING, today.plusDays(10), today.plusDays(11))));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> leaveService.applyLeave(application(LeaveType.CL, today, today)));
+
+        assertTrue(exception.getMessage().startsWith("You have pending leave applications"));
+        verify(leaveApplicationRepository, times(1)).findValidationSnapshot(eq(user), any());
+        verifyNoMoreInteractions(leaveApplicationRepository);
+    }
+
+    @Test
+    void testOverlappingApprovedLeaveRejectedFromSnapshot() {
+        when(leaveApplicationRepository.findValidationSnapshot(eq(user), any())).thenReturn(List.of(
+                leave(LeaveType.LWP, LeaveStatus.APPROVED, today, today)));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> leaveService.applyLeave(application(LeaveType.CL, today, today)));
+
+        assertTrue(exception.getMessage().startsWith("You already have a pending or approved leave application overlapping"));
+        verify(leaveApplicationRepository, never()).save(any());
+    }
+
+    @Test
+    void testLeaveStatsRunOneGroupedQuery() {
+        when(userService.getCurrentUserSummary()).thenReturn(new CurrentUserSummary(2L, "manager", "MANAGER", null, null));
+        when(leaveApplicationRepository.countByReportingToIdGroupByStatus(2L)).thenReturn(List.of(
+                new Object[] {LeaveStatus.PENDING, 3L}, new Object[] {LeaveStatus.APPROVED, 7L}, new Object[] {LeaveStatus.CANCELLED, 1L}));
+
+        Map<String, Integer> stats = leaveService.getLeaveStatsForCurrentUser();
+
+        assertEquals(Map.of("pending", 3, "approved", 7, "rejected", 0), stats);
+        verify(leaveApplicationRepository, times(1)).countByReportingToIdGroupByStatus(2L);
+        verifyNoMoreInteractions(leaveApplicationRepository);
+        verify(userService, never()).getCurrentUser();
+    }
+
+    @Test
+    void testApprovedLeaveCannotBeRejected() {
+        LeaveApplication approved = leave(LeaveType.EL, LeaveStatus.APPROVED, today.plusDays(5), today.plusDays(6));
+        approved.setId(7L);
+        when(userService.getCurrentUser()).thenReturn(user.getReportingTo());
+        when(leaveApplicationRepository.findUserIdById(7L)).thenReturn(Optional.of(1L));
+        when(leaveApplicationRepository.findById(7L)).thenReturn(Optional.of(approved));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> leaveService.rejectLeave(7L));
+
+        assertEquals("Leave application is already processed", exception.getMessage());
+        assertEquals(LeaveStatus.APPROVED, approved.getStatus());
+        verifyNoInteractions(leaveUsageService, staffingCalendar);
+        verify(leaveApplicationRepository, never()).save(any());
+    }
+
+    private LeaveApplication application(LeaveType type, LocalDate start, LocalDate end) {
+        LeaveApplication application = new LeaveApplication();
+        application.setLeaveType(type);
+        application.setStartDate(start);
+        application.setEndDate(end);
+        return application;
+    }
+
+    private LeaveApplication leave(LeaveType type, LeaveStatus status, LocalDate start, LocalDate end) {
+        LeaveApplication leave = application(type, start, end);
+        leave.setStatus(status);
+        leave.setUser(user);
+        return leave;
+    }
+}
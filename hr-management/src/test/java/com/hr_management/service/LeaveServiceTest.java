@@ -1,6 +1,9 @@
 package com.hr_management.service;
 
+import com.hr_management.Entity.Gender;
 import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
 import com.hr_management.Entity.User;
 import com.hr_management.Entity.LeaveBalance;
 import com.hr_management.Repository.LeaveApplicationRepository;
@@ -55,7 +58,7 @@ class LeaveServiceTest {
         user = new User();
         user.setId(1L);
         user.setRole("EMPLOYEE");
-        user.setGender("MALE");
+        user.setGender(Gender.MALE);
         user.setJoinDate(LocalDate.of(2025, 1, 1));
         leaveBalance = new LeaveBalance();
         Map<Integer, Double> monthlyClAccrual = new HashMap<>();
@@ -117,7 +120,7 @@ class LeaveServiceTest {
 
         // Setup leave application
         LeaveApplication application = new LeaveApplication();
-        application.setLeaveType("CL");
+        application.setLeaveType(LeaveType.CL);
         LocalDate currentDate = LocalDate.now();
         application.setStartDate(currentDate.plusMonths(1).withDayOfMonth(1)); // Next month
         application.setEndDate(currentDate.plusMonths(1).withDayOfMonth(1)); // 1 day
@@ -133,7 +136,7 @@ class LeaveServiceTest {
 
         // Assert
         assertNotNull(result);
-        assertEquals("PENDING", result.getStatus());
+        assertEquals(LeaveStatus.PENDING, result.getStatus());
         assertEquals(1L, result.getId());
     }
 
@@ -161,7 +164,7 @@ class LeaveServiceTest {
 
         // Setup leave application
         LeaveApplication application = new LeaveApplication();
-        application.setLeaveType("CL");
+        application.setLeaveType(LeaveType.CL);
         LocalDate currentDate = LocalDate.now();
         application.setStartDate(currentDate.plusDays(1));
         application.setEndDate(currentDate.plusDays(2)); // 2 days (exceeds 1 CL)
@@ -190,7 +193,7 @@ class LeaveServiceTest {
         user.setId(1L);
         user.setRole("EMPLOYEE");
         user.setJoinDate(LocalDate.now().withMonth(1).withDayOfMonth(1)); // Joined Jan 1
-        user.setGender("MALE");
+        user.setGender(Gender.MALE);
         LeaveBalance leaveBalance = new LeaveBalance();
         leaveBalance.setEarnedLeaveUsedFirstHalf(0.0);
         leaveBalance.setEarnedLeaveRemaining(10.0);
@@ -205,7 +208,7 @@ class LeaveServiceTest {
         // Setup leave application
         LeaveApplication application = new LeaveApplication();
         application.setId(1L); // Set ID for approval
-        application.setLeaveType("EL");
+        application.setLeaveType(LeaveType.EL);
         LocalDate currentDate = LocalDate.now();
         application.setStartDate(currentDate.plusDays(1)); // Future date
         application.setEndDate(currentDate.plusDays(10)); // 10 days
@@ -229,7 +232,7 @@ class LeaveServiceTest {
 
         // Assert
         assertNotNull(result);
-        assertEquals("APPROVED", result.getStatus()); // Check approval
+        assertEquals(LeaveStatus.APPROVED, result.getStatus()); // Check approval
         assertEquals(10.0, leaveBalance.getEarnedLeaveUsedFirstHalf(), "10 days used in first half");
         assertEquals(0.0, leaveBalance.getEarnedLeaveRemaining(), "0 days remaining");
     }
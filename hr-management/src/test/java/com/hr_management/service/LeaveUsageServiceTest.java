@@ -0,0 +1,116 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.LeaveUsageCounter;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.LeaveUsageCounterRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LeaveUsageServiceTest {
+
+    @InjectMocks
+    private LeaveUsageService leaveUsageService;
+
+    @Mock
+    private LeaveUsageCounterRepository leaveUsageCounterRepository;
+
+    @Mock
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Mock
+    private WorkingDayCalculator workingDayCalculator;
+
+    @Mock
+    private LeaveMutationGuard leaveMutationGuard;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private LeaveApplication leave;
+    private LeaveUsageCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        User user = new User();
+        user.setId(1L);
+        leave = new LeaveApplication();
+        leave.setId(7L);
+        leave.setUser(user);
+        leave.setLeaveType(LeaveType.EL);
+        leave.setStartDate(LocalDate.of(2030, 3, 4));
+        counter = new LeaveUsageCounter(1L, 2030, LeaveType.EL, 1);
+        counter.setApprovedDays(2.0);
+        when(leaveUsageCounterRepository.findByUserIdAndLeaveYearAndLeaveTypeAndHalfYear(1L, 2030, LeaveType.EL, 1))
+                .thenReturn(Optional.of(counter));
+    }
+
+    @Test
+    void testApprovedDaysOnlyReleasedByCancellation() {
+        assertThrows(IllegalStateException.class,
+                () -> leaveUsageService.recordStatusChange(leave, LeaveStatus.APPROVED, LeaveStatus.REJECTED, 2.0));
+        verify(leaveUsageCounterRepository, never()).save(any());
+
+        leaveUsageService.recordStatusChange(leave, LeaveStatus.APPROVED, LeaveStatus.CANCELLED, 2.0);
+        assertEquals(0.0, counter.getApprovedDays());
+        verify(leaveUsageCounterRepository).save(counter);
+    }
+
+    @Test
+    void testReconcileRecountsDriftedUsersUnderTheirLeaveLock() {
+        LocalDate from = LocalDate.of(2030, 1, 1);
+        LocalDate to = LocalDate.of(2030, 12, 31);
+        counter.setApprovedDays(0.0);
+        LeaveUsageCounter inSync = new LeaveUsageCounter(2L, 2030, LeaveType.CL, 1);
+        inSync.setPendingDays(1.0);
+        when(workingDayCalculator.requiredDays(any(), any(), any(), anyBoolean())).thenReturn(1.0);
+        when(leaveApplicationRepository.findActiveDaysByStartDateBetween(from, to)).thenReturn(List.of(
+                row(1L, LeaveType.EL, LocalDate.of(2030, 3, 4), LeaveStatus.APPROVED),
+                row(2L, LeaveType.CL, LocalDate.of(2030, 2, 4), LeaveStatus.PENDING)));
+        when(leaveUsageCounterRepository.findByLeaveYear(2030)).thenReturn(List.of(counter, inSync));
+        // A second leave approved after the year-wide pass
+        when(leaveApplicationRepository.findActiveDaysByUserIdAndStartDateBetween(1L, from, to)).thenReturn(List.of(
+                row(1L, LeaveType.EL, LocalDate.of(2030, 3, 4), LeaveStatus.APPROVED),
+                row(1L, LeaveType.EL, LocalDate.of(2030, 5, 6), LeaveStatus.APPROVED)));
+        when(leaveUsageCounterRepository.findByUserIdAndLeaveYear(1L, 2030)).thenReturn(List.of(counter));
+        when(leaveMutationGuard.execute(eq(1L), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+        Map<String, Object> report = leaveUsageService.reconcile(2030);
+
+        assertEquals(2.0, counter.getApprovedDays(), "recounted under the lock, not copied from the earlier pass");
+        assertEquals(1, report.get("driftedCounters"));
+        assertEquals(0, report.get("createdCounters"));
+        verify(jdbcTemplate).update("UPDATE users SET version = version + 1 WHERE id = ?", 1L);
+        verify(entityManager).refresh(counter);
+        verify(leaveUsageCounterRepository).save(counter);
+        verify(leaveMutationGuard, never()).execute(eq(2L), any());
+    }
+
+    private static Object[] row(Long userId, LeaveType leaveType, LocalDate startDate, LeaveStatus status) {
+        return new Object[] {userId, leaveType, startDate, startDate, false, status};
+    }
+}
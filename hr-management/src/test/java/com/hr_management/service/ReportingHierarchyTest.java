@@ -0,0 +1,202 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.ReportingClosureRepository;
+import com.hr_management.Repository.UserRepository;
+import com.hr_management.dto.ReportingPersonDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReportingHierarchyTest {
+
+    @Autowired
+    private ReportingHierarchyService reportingHierarchyService;
+
+    @Autowired
+    private ReportingClosureRepository reportingClosureRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testSubtreeQueriesFollowMoves() {
+        String key = TestUsers.uniqueKey();
+        User director = createUser("org_dir_" + key, null);
+        User manager = createUser("org_mgr_" + key, director);
+        User employee = createUser("org_emp_" + key, manager);
+        User peer = createUser("org_peer_" + key, director);
+        LeaveApplication managerLeave = createPendingLeave(manager);
+        LeaveApplication employeeLeave = createPendingLeave(employee);
+
+        assertEquals(3, reportingClosureRepository.countSubtree(director.getId()));
+        assertEquals(1, reportingClosureRepository.countSubtree(manager.getId()));
+        assertEquals(List.of(manager.getId(), director.getId()), ancestorIds(employee));
+        assertEquals(Set.of(managerLeave.getId(), employeeLeave.getId()), Set.copyOf(pendingIds(director)));
+        assertEquals(List.of(employeeLeave.getId()), pendingIds(manager));
+
+        userService.changeReportingTo(employee.getId(), peer.getId());
+        assertEquals(List.of(peer.getId(), director.getId()), ancestorIds(employee));
+        assertEquals(0, reportingClosureRepository.countSubtree(manager.getId()));
+        assertEquals(List.of(employeeLeave.getId()), pendingIds(peer));
+        assertEquals(peer.getId(), userRepository.findById(employee.getId()).orElseThrow().getReportingTo().getId());
+
+        // The manager's whole line moves with them
+        userService.changeReportingTo(peer.getId(), manager.getId());
+        assertEquals(List.of(peer.getId(), manager.getId(), director.getId()), ancestorIds(employee));
+        assertEquals(2, reportingClosureRepository.countSubtree(manager.getId()));
+
+        assertThrows(IllegalArgumentException.class, () -> userService.changeReportingTo(manager.getId(), employee.getId()));
+        assertEquals(List.of(peer.getId(), manager.getId(), director.getId()), ancestorIds(employee));
+
+        // A full rebuild from users.reporting_to gives the same answers
+        reportingHierarchyService.rebuild();
+        assertEquals(List.of(peer.getId(), manager.getId(), director.getId()), ancestorIds(employee));
+        assertEquals(3, reportingClosureRepository.countSubtree(director.getId()));
+    }
+
+    @Test
+    void testOppositeConcurrentMovesCannotFormACycle() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 10; round++) {
+                String key = TestUsers.uniqueKey();
+                User first = createUser("org_race_a_" + key, null);
+                User second = createUser("org_race_b_" + key, null);
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<Boolean> firstUnderSecond = executor.submit(() -> move(barrier, first, second));
+                Future<Boolean> secondUnderFirst = executor.submit(() -> move(barrier, second, first));
+
+                assertTrue(firstUnderSecond.get(30, TimeUnit.SECONDS) ^ secondUnderFirst.get(30, TimeUnit.SECONDS),
+                        "exactly one of the opposite moves must win");
+                assertEquals(1, reportingClosureRepository.countSubtree(first.getId())
+                        + reportingClosureRepository.countSubtree(second.getId()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRebuildWaitsForAMoveInProgress() throws Exception {
+        String key = TestUsers.uniqueKey();
+        User first = createUser("org_wait_a_" + key, null);
+        User second = createUser("org_wait_b_" + key, null);
+        User employee = createUser("org_wait_emp_" + key, first);
+        CountDownLatch moved = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> move = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("UPDATE users SET reporting_to = ? WHERE id = ?", second.getId(), employee.getId());
+                reportingHierarchyService.moveUser(employee.getId(), second.getId());
+                moved.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(moved.await(10, TimeUnit.SECONDS));
+            Future<?> rebuild = executor.submit(() -> reportingHierarchyService.rebuild());
+            Thread.sleep(300);
+            assertFalse(rebuild.isDone(), "the rebuild must wait for the move's user locks");
+            release.countDown();
+            move.get(10, TimeUnit.SECONDS);
+            rebuild.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(second.getId()), ancestorIds(employee), "the rebuild read the committed move");
+    }
+
+    @Test
+    void testCorruptedRowsAreRepaired() {
+        String key = TestUsers.uniqueKey();
+        User director = createUser("org_fix_dir_" + key, null);
+        User manager = createUser("org_fix_mgr_" + key, director);
+        User employee = createUser("org_fix_emp_" + key, manager);
+        User stranger = createUser("org_fix_other_" + key, null);
+        // Same row counts per depth as before, wrong contents
+        jdbcTemplate.update("UPDATE reporting_closure SET ancestor_id = ? WHERE ancestor_id = ? AND descendant_id = ?",
+                stranger.getId(), director.getId(), employee.getId());
+
+        reportingHierarchyService.rebuildIfStale();
+
+        assertEquals(List.of(manager.getId(), director.getId()), ancestorIds(employee));
+        assertEquals(2, reportingClosureRepository.countSubtree(director.getId()));
+    }
+
+    private boolean move(CyclicBarrier barrier, User user, User newManager) throws Exception {
+        barrier.await(10, TimeUnit.SECONDS);
+        try {
+            userService.changeReportingTo(user.getId(), newManager.getId());
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private List<Long> ancestorIds(User user) {
+        return reportingClosureRepository.findAncestors(user.getId()).stream().map(ReportingPersonDTO::getId).toList();
+    }
+
+    private List<Long> pendingIds(User manager) {
+        return leaveApplicationRepository.findPendingInSubtree(manager.getId()).stream().map(LeaveApplication::getId).toList();
+    }
+
+    private User createUser(String username, User reportingTo) {
+        User user = TestUsers.newUser(username);
+        user.setReportingTo(reportingTo);
+        User saved = userRepository.save(user);
+        reportingHierarchyService.userAdded(saved.getId(), reportingTo != null ? reportingTo.getId() : null);
+        return saved;
+    }
+
+    private LeaveApplication createPendingLeave(User user) {
+        LocalDate start = LocalDate.of(2035, 2, 5);
+        LeaveApplication leave = new LeaveApplication();
+        leave.setUser(user);
+        leave.setLeaveType(LeaveType.EL);
+        leave.setStartDate(start);
+        leave.setEndDate(start);
+        leave.setStatus(LeaveStatus.PENDING);
+        leave.setAppliedOn(start.minusDays(10));
+        return leaveApplicationRepository.save(leave);
+    }
+}
@@ -0,0 +1,100 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Department;
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveStatus;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Entity.User;
+import com.hr_management.Repository.DepartmentRepository;
+import com.hr_management.Repository.LeaveApplicationRepository;
+import com.hr_management.Repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StaffingCalendarTest {
+
+    private static final LocalDate DAY = LocalDate.of(2034, 3, 6);
+
+    @Autowired
+    private StaffingCalendar staffingCalendar;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testMinimumStaffingIsEnforcedFromTheCounts() {
+        String key = TestUsers.uniqueKey();
+        Department department = new Department();
+        department.setName("Staffing " + key);
+        // Three employees, two must stay: one absence per day at most
+        department.setMinStaffing(2);
+        departmentRepository.save(department);
+        User first = createUser("staff_a_" + key, department);
+        User second = createUser("staff_b_" + key, department);
+        User third = createUser("staff_c_" + key, department);
+
+        LeaveApplication approved = leave(first, DAY, DAY.plusDays(2));
+        approved.setStatus(LeaveStatus.APPROVED);
+        leaveApplicationRepository.save(approved);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> staffingCalendar.check(leave(second, DAY.plusDays(2), DAY.plusDays(4))));
+        assertTrue(exception.getMessage().contains("1 are already on leave on " + DAY.plusDays(2)), exception.getMessage());
+        staffingCalendar.check(leave(second, DAY.plusDays(3), DAY.plusDays(4)));
+
+        LeaveApplication reserved = leave(second, DAY.plusDays(3), DAY.plusDays(4));
+        staffingCalendar.reserve(reserved);
+        assertThrows(RuntimeException.class, () -> staffingCalendar.check(leave(third, DAY.plusDays(4), DAY.plusDays(4))));
+        staffingCalendar.release(reserved);
+        staffingCalendar.check(leave(third, DAY.plusDays(4), DAY.plusDays(4)));
+
+        // A reservation made by a transaction that rolls back is undone
+        transactionTemplate.executeWithoutResult(status -> {
+            staffingCalendar.reserve(leave(third, DAY.plusDays(5), DAY.plusDays(5)));
+            status.setRollbackOnly();
+        });
+        staffingCalendar.check(leave(second, DAY.plusDays(5), DAY.plusDays(5)));
+
+        // Without a rule nothing is checked
+        assertThrows(RuntimeException.class, () -> staffingCalendar.check(leave(second, DAY, DAY)));
+        department.setMinStaffing(null);
+        departmentRepository.save(department);
+        staffingCalendar.departmentChanged(department.getName());
+        staffingCalendar.check(leave(second, DAY, DAY));
+    }
+
+    private User createUser(String username, Department department) {
+        User user = TestUsers.newUser(username);
+        user.setDepartment(department.getName());
+        return userRepository.save(user);
+    }
+
+    private LeaveApplication leave(User user, LocalDate start, LocalDate end) {
+        LeaveApplication leave = new LeaveApplication();
+        leave.setUser(user);
+        leave.setLeaveType(LeaveType.EL);
+        leave.setStartDate(start);
+        leave.setEndDate(end);
+        leave.setStatus(LeaveStatus.PENDING);
+        leave.setAppliedOn(start.minusDays(10));
+        return leave;
+    }
+}
@@ -0,0 +1,30 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.User;
+import com.hr_management.Entity.UserStatus;
+
+import java.util.UUID;
+
+// Users for the integration tests, which all share one database: names built from uniqueKey() never clash
+final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    static String uniqueKey() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    // An unsaved, active EMPLOYEE named "Full <username>", with email and employee id derived from the username
+    static User newUser(String username) {
+        User user = new User();
+        user.setFullName("Full " + username);
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setEmail(username + "@example.com");
+        user.setRole("EMPLOYEE");
+        user.setStatus(UserStatus.ACTIVE);
+        user.setEmployeeId("EMP-" + username);
+        return user;
+    }
+}
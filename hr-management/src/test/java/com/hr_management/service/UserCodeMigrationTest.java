@@ -0,0 +1,58 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Gender;
+import com.hr_management.Entity.User;
+import com.hr_management.Entity.UserStatus;
+import com.hr_management.Repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserCodeMigrationTest {
+
+    @Autowired
+    private UserCodeMigration userCodeMigration;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testOldNamesAreRewrittenToCodes() {
+        User user = TestUsers.newUser("user_codes_" + TestUsers.uniqueKey());
+        user.setGender(Gender.FEMALE);
+        Long id = userRepository.save(user).getId();
+        assertEquals(Map.of("status", "A", "gender", "F"), columns(id));
+
+        // A row written before the switch to codes, with the gender as typed at signup, in columns
+        // ddl-auto=update left at their old width
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN status VARCHAR(255)");
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN gender VARCHAR(255)");
+        jdbcTemplate.update("UPDATE users SET status = 'INACTIVE', gender = 'Female' WHERE id = ?", id);
+        userCodeMigration.afterSingletonsInstantiated();
+
+        assertEquals(Map.of("status", "I", "gender", "F"), columns(id));
+        User migrated = userRepository.findById(id).orElseThrow();
+        assertEquals(UserStatus.INACTIVE, migrated.getStatus());
+        assertEquals(Gender.FEMALE, migrated.getGender());
+
+        jdbcTemplate.update("UPDATE users SET gender = ' ' WHERE id = ?", id);
+        userCodeMigration.afterSingletonsInstantiated();
+        assertNull(userRepository.findById(id).orElseThrow().getGender());
+    }
+
+    private Map<String, Object> columns(Long id) {
+        return jdbcTemplate.queryForObject("SELECT status, gender FROM users WHERE id = ?",
+                (rs, row) -> Map.of("status", rs.getString(1), "gender", rs.getString(2)), id);
+    }
+}
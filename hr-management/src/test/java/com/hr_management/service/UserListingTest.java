@@ -0,0 +1,66 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.User;
+import com.hr_management.Entity.UserStatus;
+import com.hr_management.Repository.UserRepository;
+import com.hr_management.dto.UserListItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserListingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testKeysetPagesCoverFilteredUsersOnce() {
+        String department = "Listing " + TestUsers.uniqueKey();
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            User user = createUser(department, i % 3 == 0 ? "MANAGER" : "EMPLOYEE", UserStatus.ACTIVE);
+            if (user.getRole().equals("EMPLOYEE")) {
+                expected.add(user.getId());
+            }
+        }
+        createUser(department, "EMPLOYEE", UserStatus.INACTIVE);
+
+        List<Long> seen = new ArrayList<>();
+        long afterId = 0;
+        List<UserListItem> page;
+        do {
+            page = userService.getUserListPage(afterId, department, "employee", "active", 2);
+            assertTrue(page.size() <= 2);
+            for (UserListItem item : page) {
+                assertEquals(department, item.getDepartment());
+                seen.add(item.getId());
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 2);
+
+        assertEquals(expected, seen);
+    }
+
+    private User createUser(String department, String role, UserStatus status) {
+        User user = TestUsers.newUser("listing_" + TestUsers.uniqueKey());
+        user.setDepartment(department);
+        user.setRole(role);
+        user.setStatus(status);
+        user.setJoinDate(LocalDate.now().minusYears(1));
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,93 @@
+package com.hr_management.service;
+
+import com.hr_management.Entity.Holiday;
+import com.hr_management.Entity.LeaveApplication;
+import com.hr_management.Entity.LeaveType;
+import com.hr_management.Repository.HolidayRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WorkingDayCalculatorTest {
+
+    @InjectMocks
+    private HolidayCalendar holidayCalendar;
+
+    @Mock
+    private HolidayRepository holidayRepository;
+
+    private WorkingDayCalculator workingDayCalculator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(holidayRepository.findByDateBetween(any(), any())).thenReturn(List.of());
+        when(holidayRepository.findByDateBetween(eq(LocalDate.of(2025, 1, 1)), eq(LocalDate.of(2025, 12, 31))))
+                .thenReturn(List.of(
+                        new Holiday("Holiday", LocalDate.of(2025, 6, 1), "SUNDAY"),
+                        new Holiday("Eid", LocalDate.of(2025, 6, 7), "CUSTOM"),
+                        new Holiday("Holiday", LocalDate.of(2025, 12, 28), "SUNDAY")));
+        workingDayCalculator = new WorkingDayCalculator();
+        ReflectionTestUtils.setField(workingDayCalculator, "holidayCalendar", holidayCalendar);
+    }
+
+    @Test
+    void testWorkingDaysExcludeHolidays() {
+        assertEquals(8, workingDayCalculator.workingDays(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 10)));
+        assertEquals(1, workingDayCalculator.workingDays(LocalDate.of(2025, 6, 2), LocalDate.of(2025, 6, 2)));
+        assertEquals(0, workingDayCalculator.workingDays(LocalDate.of(2025, 6, 7), LocalDate.of(2025, 6, 7)));
+        assertEquals(0, workingDayCalculator.workingDays(LocalDate.of(2025, 6, 10), LocalDate.of(2025, 6, 1)));
+    }
+
+    @Test
+    void testWorkingDaysAcrossYearBoundary() {
+        // Dec 27 - Jan 3: 8 days, Dec 28 is a holiday
+        assertEquals(7, workingDayCalculator.workingDays(LocalDate.of(2025, 12, 27), LocalDate.of(2026, 1, 3)));
+    }
+
+    @Test
+    void testRequiredDaysFollowLeaveTypeRules() {
+        LocalDate start = LocalDate.of(2025, 6, 1);
+        LocalDate end = LocalDate.of(2025, 6, 10);
+        assertEquals(8.0, workingDayCalculator.requiredDays(LeaveType.CL, start, end, false));
+        assertEquals(10.0, workingDayCalculator.requiredDays(LeaveType.EL, start, end, false), "EL counts holidays (sandwich rule)");
+        assertEquals(0.5, workingDayCalculator.requiredDays(LeaveType.HALF_DAY_CL, LocalDate.of(2025, 6, 2), null, true));
+        assertEquals(0.0, workingDayCalculator.requiredDays(LeaveType.HALF_DAY_CL, LocalDate.of(2025, 6, 7), null, true));
+    }
+
+    @Test
+    void testBatchCountLoadsEachYearOnce() {
+        LeaveApplication first = leave(1L, LeaveType.CL, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 10));
+        LeaveApplication second = leave(2L, LeaveType.LWP, LocalDate.of(2025, 6, 5), LocalDate.of(2025, 6, 8));
+        LeaveApplication third = leave(3L, LeaveType.EL, LocalDate.of(2025, 12, 30), LocalDate.of(2026, 1, 2));
+
+        Map<Long, Double> days = workingDayCalculator.requiredDaysByLeave(List.of(first, second, third));
+
+        assertEquals(8.0, days.get(1L));
+        assertEquals(3.0, days.get(2L));
+        assertEquals(4.0, days.get(3L));
+        assertEquals(15.0, workingDayCalculator.totalRequiredDays(List.of(first, second, third)));
+        verify(holidayRepository, times(2)).findByDateBetween(any(), any());
+    }
+
+    private LeaveApplication leave(Long id, LeaveType type, LocalDate start, LocalDate end) {
+        LeaveApplication leave = new LeaveApplication();
+        leave.setId(id);
+        leave.setLeaveType(type);
+        leave.setStartDate(start);
+        leave.setEndDate(end);
+        return leave;
+    }
+}